@@ -1,5 +1,6 @@
 package com.odontoPrev.odontoPrev.domain.entity;
 
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ConversorPayloadCompactado;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,6 +29,11 @@ import java.time.LocalDateTime;
  * - tipoOperacao: tipo de operação (INCLUSAO, ALTERACAO, EXCLUSAO)
  * - dadosJson: payload JSON enviado para a API
  * - responseApi: resposta retornada pela API da OdontoPrev
+ *
+ * CLOBs (dadosJson, erroMensagem, responseApi):
+ * São carregados junto com a entidade (sem lazy loading). Consultas que só
+ * precisam de status, hash, datas ou tentativas devem usar
+ * ControleSyncBeneficiarioRepository.ResumoControle.
  */
 @Entity
 @Table(name = "TB_CONTROLE_SYNC_ODONTOPREV_BENEF", schema = "TASY")
@@ -77,6 +83,7 @@ public class ControleSyncBeneficiario {
      * Dados JSON enviados para a API (payload completo)
      */
     @Lob
+    @Convert(converter = ConversorPayloadCompactado.class)
     @Column(name = "DADOS_JSON", columnDefinition = "CLOB")
     private String dadosJson;
 
@@ -115,6 +122,13 @@ public class ControleSyncBeneficiario {
     @Column(name = "DATA_ULTIMA_TENTATIVA")
     private LocalDateTime dataUltimaTentativa;
 
+    /**
+     * Data e hora a partir da qual o erro pode ser tentado de novo
+     * (vazia = sem retentativa agendada: erro terminal ou tentativas esgotadas)
+     */
+    @Column(name = "DATA_PROXIMA_TENTATIVA")
+    private LocalDateTime dataProximaTentativa;
+
     /**
      * Data e hora do sucesso da sincronização
      */
@@ -125,6 +139,7 @@ public class ControleSyncBeneficiario {
      * Mensagem de erro (quando houver falha)
      */
     @Lob
+    @Convert(converter = ConversorPayloadCompactado.class)
     @Column(name = "ERRO_MENSAGEM", columnDefinition = "CLOB")
     private String erroMensagem;
 
@@ -132,6 +147,13 @@ public class ControleSyncBeneficiario {
      * Resposta completa da API OdontoPrev
      */
     @Lob
+    @Convert(converter = ConversorPayloadCompactado.class)
     @Column(name = "RESPONSE_API", columnDefinition = "CLOB")
     private String responseApi;
+
+    /**
+     * Hash SHA-256 do payload enviado na última sincronização com sucesso
+     */
+    @Column(name = "HASH_PAYLOAD", length = 64)
+    private String hashPayload;
 }
@@ -1,15 +1,19 @@
 package com.odontoPrev.odontoPrev.domain.repository;
 
 import com.odontoPrev.odontoPrev.domain.entity.ControleSyncBeneficiario;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * REPOSITÓRIO PARA CONTROLE DE SINCRONIZAÇÃO DE BENEFICIÁRIOS
@@ -21,6 +25,31 @@ import java.util.Optional;
 @Repository
 public interface ControleSyncBeneficiarioRepository extends JpaRepository<ControleSyncBeneficiario, Long> {
 
+    /**
+     * RESUMO DO CONTROLE (SEM OS CLOBS)
+     *
+     * Projeção para as consultas que só olham status, hash e tentativas:
+     * DADOS_JSON, RESPONSE_API e ERRO_MENSAGEM não são lidos do banco.
+     */
+    interface ResumoControle {
+        Long getId();
+        String getCodigoEmpresa();
+        String getCodigoBeneficiario();
+        String getTipoOperacao();
+        String getStatusSync();
+        String getHashPayload();
+        Integer getTentativas();
+        Integer getMaxTentativas();
+        LocalDateTime getDataSucesso();
+        LocalDateTime getDataProximaTentativa();
+    }
+
+    String SELECT_RESUMO = "SELECT c.id AS id, c.codigoEmpresa AS codigoEmpresa, " +
+            "c.codigoBeneficiario AS codigoBeneficiario, c.tipoOperacao AS tipoOperacao, " +
+            "c.statusSync AS statusSync, c.hashPayload AS hashPayload, c.tentativas AS tentativas, " +
+            "c.maxTentativas AS maxTentativas, c.dataSucesso AS dataSucesso, " +
+            "c.dataProximaTentativa AS dataProximaTentativa FROM ControleSyncBeneficiario c ";
+
     /**
      * BUSCA CONTROLE POR EMPRESA E BENEFICIÁRIO
      *
@@ -59,16 +88,72 @@ public interface ControleSyncBeneficiarioRepository extends JpaRepository<Contro
             String codigoEmpresa, String codigoBeneficiario, String tipoOperacao);
 
     /**
-     * BUSCA CONTROLES PENDENTES DE RETRY
+     * RESUMO DO CONTROLE POR EMPRESA, BENEFICIÁRIO E TIPO DE OPERAÇÃO
+     *
+     * Mesma chave de findByCodigoEmpresaAndCodigoBeneficiarioAndTipoOperacao, sem
+     * os CLOBs. Usado nas verificações "já foi sincronizado com sucesso?".
      *
-     * @param maxTentativas número máximo de tentativas permitidas
-     * @return lista de controles que podem ser reprocessados
+     * @return resumo do controle ou Optional.empty()
      */
-    @Query("SELECT c FROM ControleSyncBeneficiario c " +
-           "WHERE c.statusSync = 'ERROR' " +
+    @Query(SELECT_RESUMO +
+           "WHERE c.codigoEmpresa = :codigoEmpresa " +
+           "AND c.codigoBeneficiario = :codigoBeneficiario " +
+           "AND c.tipoOperacao = :tipoOperacao")
+    Optional<ResumoControle> findResumoByChave(@Param("codigoEmpresa") String codigoEmpresa,
+                                               @Param("codigoBeneficiario") String codigoBeneficiario,
+                                               @Param("tipoOperacao") String tipoOperacao);
+
+    /**
+     * BUSCA CONTROLES COM RETENTATIVA VENCIDA
+     *
+     * Erros retentáveis cuja DATA_PROXIMA_TENTATIVA já passou, os mais antigos
+     * primeiro. Usado pelo RetentativaControleSyncScheduler.
+     *
+     * @param agora data/hora de referência
+     * @param pagina limite de registros por ciclo
+     * @return resumos dos controles que podem ser reprocessados
+     */
+    @Query(SELECT_RESUMO +
+           "WHERE c.statusSync IN ('ERRO', 'ERROR') " +
+           "AND c.dataProximaTentativa <= :agora " +
            "AND c.tentativas < c.maxTentativas " +
-           "ORDER BY c.dataUltimaTentativa ASC")
-    List<ControleSyncBeneficiario> findPendentesRetry();
+           "ORDER BY c.dataProximaTentativa ASC")
+    List<ResumoControle> findPendentesRetry(@Param("agora") LocalDateTime agora, Pageable pagina);
+
+    /**
+     * BUSCA OS BENEFICIÁRIOS COM RETENTATIVA AGENDADA
+     *
+     * O fluxo principal pula essas matrículas: quem reprocessa é a retentativa,
+     * no horário do backoff.
+     *
+     * @param tipoOperacao tipo da operação (INCLUSAO, ALTERACAO, EXCLUSAO)
+     * @param codigosBeneficiario matrículas do lote (máximo 1000)
+     * @return matrículas do lote com DATA_PROXIMA_TENTATIVA preenchida
+     */
+    @Query("SELECT DISTINCT c.codigoBeneficiario FROM ControleSyncBeneficiario c " +
+           "WHERE c.tipoOperacao = :tipoOperacao " +
+           "AND c.codigoBeneficiario IN :codigosBeneficiario " +
+           "AND c.dataProximaTentativa IS NOT NULL")
+    Set<String> findBeneficiariosComRetentativaAgendada(
+            @Param("tipoOperacao") String tipoOperacao,
+            @Param("codigosBeneficiario") Collection<String> codigosBeneficiario);
+
+    /**
+     * RESERVA UMA RETENTATIVA VENCIDA (UM ÚNICO UPDATE)
+     *
+     * Limpa DATA_PROXIMA_TENTATIVA só se ela ainda tiver o valor lido: com mais
+     * de uma instância da aplicação, apenas uma fica com o registro.
+     *
+     * @param id ID do controle
+     * @param dataProximaTentativa valor lido na busca
+     * @return 1 se o registro foi reservado, 0 se outro processo já o pegou
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE ControleSyncBeneficiario c SET c.dataProximaTentativa = NULL " +
+           "WHERE c.id = :id AND c.dataProximaTentativa = :dataProximaTentativa")
+    int reservarRetentativa(@Param("id") Long id,
+                            @Param("dataProximaTentativa") LocalDateTime dataProximaTentativa);
 
     /**
      * BUSCA CONTROLES PENDENTES DE RETRY POR EMPRESA
@@ -84,50 +169,94 @@ public interface ControleSyncBeneficiarioRepository extends JpaRepository<Contro
     List<ControleSyncBeneficiario> findPendentesRetryPorEmpresa(@Param("codigoEmpresa") String codigoEmpresa);
 
     /**
-     * MARCA CONTROLE COMO SUCESSO
+     * MARCA CONTROLE COMO SUCESSO (UM ÚNICO UPDATE)
+     *
+     * Grava só as colunas do resultado, sem carregar o registro.
+     * Só altera se o status no banco ainda for o esperado (controle otimista).
+     * Limpa a retentativa agendada; TENTATIVAS só muda quando tentativas vem preenchido.
      *
      * @param id ID do controle
+     * @param statusEsperado status que o registro deve ter no banco
      * @param dataSucesso data/hora do sucesso
      * @param responseApi resposta da API
-     * @return número de registros atualizados
+     * @param hashPayload hash do payload enviado
+     * @param tentativas novo valor de TENTATIVAS (null = mantém o contador)
+     * @return 1 se a transição foi aplicada, 0 se o registro mudou de status antes
      */
-    @Modifying
+    @Modifying(flushAutomatically = true)
+    @Transactional
     @Query("UPDATE ControleSyncBeneficiario c SET " +
-           "c.statusSync = 'SUCCESS', " +
+           "c.statusSync = 'SUCESSO', " +
            "c.dataSucesso = :dataSucesso, " +
-           "c.responseApi = :responseApi " +
-           "WHERE c.id = :id")
+           "c.responseApi = :responseApi, " +
+           "c.hashPayload = :hashPayload, " +
+           "c.tentativas = COALESCE(:tentativas, c.tentativas), " +
+           "c.dataProximaTentativa = NULL " +
+           "WHERE c.id = :id AND c.statusSync = :statusEsperado")
     int marcarComoSucesso(
             @Param("id") Long id,
+            @Param("statusEsperado") String statusEsperado,
             @Param("dataSucesso") LocalDateTime dataSucesso,
-            @Param("responseApi") String responseApi);
+            @Param("responseApi") String responseApi,
+            @Param("hashPayload") String hashPayload,
+            @Param("tentativas") Integer tentativas);
 
     /**
-     * ATUALIZA CONTROLE APÓS TENTATIVA (SUCESSO OU ERRO)
+     * ATUALIZA CONTROLE APÓS TENTATIVA COM ERRO (UM ÚNICO UPDATE)
+     *
+     * O contador de tentativas é incrementado no próprio banco.
      *
      * @param id ID do controle
+     * @param statusEsperado status que o registro deve ter no banco
      * @param statusSync novo status
-     * @param tentativas número de tentativas
+     * @param incrementoTentativas quanto somar em TENTATIVAS (0 = não conta a tentativa)
      * @param dataUltimaTentativa data/hora da última tentativa
-     * @param erroMensagem mensagem de erro (se houver)
-     * @param responseApi resposta da API (se houver)
-     * @return número de registros atualizados
+     * @param erroMensagem mensagem de erro
+     * @param dataProximaTentativa próxima tentativa automática (null = nenhuma)
+     * @return 1 se a transição foi aplicada, 0 se o registro mudou de status antes
      */
-    @Modifying
+    @Modifying(flushAutomatically = true)
+    @Transactional
     @Query("UPDATE ControleSyncBeneficiario c SET " +
            "c.statusSync = :statusSync, " +
-           "c.tentativas = :tentativas, " +
+           "c.tentativas = COALESCE(c.tentativas, 0) + :incrementoTentativas, " +
            "c.dataUltimaTentativa = :dataUltimaTentativa, " +
            "c.erroMensagem = :erroMensagem, " +
-           "c.responseApi = :responseApi " +
-           "WHERE c.id = :id")
+           "c.dataProximaTentativa = :dataProximaTentativa " +
+           "WHERE c.id = :id AND c.statusSync = :statusEsperado")
     int atualizarAposTentativa(
             @Param("id") Long id,
+            @Param("statusEsperado") String statusEsperado,
             @Param("statusSync") String statusSync,
-            @Param("tentativas") Integer tentativas,
+            @Param("incrementoTentativas") int incrementoTentativas,
             @Param("dataUltimaTentativa") LocalDateTime dataUltimaTentativa,
             @Param("erroMensagem") String erroMensagem,
-            @Param("responseApi") String responseApi);
+            @Param("dataProximaTentativa") LocalDateTime dataProximaTentativa);
+
+    /**
+     * MARCA ERRO DE PROCEDURE EXECUTADA EM LOTE
+     *
+     * Usado quando a procedure do Tasy roda depois do commit do processamento
+     * e falha: o registro desta tentativa volta para ERROR. Só o registro do id
+     * informado e só enquanto estiver em PROCESSING (sucesso ainda não gravado)
+     * ou em sucesso - o histórico da mesma chave não é tocado.
+     *
+     * @param id ID do registro de controle da tentativa
+     * @param dataUltimaTentativa data/hora da falha
+     * @param erroMensagem mensagem de erro da procedure
+     * @return número de registros atualizados (0 se o registro já mudou de status)
+     */
+    @Modifying
+    @Query("UPDATE ControleSyncBeneficiario c SET " +
+           "c.statusSync = 'ERROR', " +
+           "c.dataUltimaTentativa = :dataUltimaTentativa, " +
+           "c.erroMensagem = :erroMensagem " +
+           "WHERE c.id = :id " +
+           "AND c.statusSync IN ('PROCESSING', 'SUCESSO', 'SUCCESS')")
+    int marcarErroProcedure(
+            @Param("id") Long id,
+            @Param("dataUltimaTentativa") LocalDateTime dataUltimaTentativa,
+            @Param("erroMensagem") String erroMensagem);
 
     /**
      * CONTA CONTROLES POR STATUS
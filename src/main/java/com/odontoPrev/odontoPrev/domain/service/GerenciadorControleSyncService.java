@@ -38,9 +38,26 @@ public interface  GerenciadorControleSyncService {
      */
     ControleSync criarControle(String codigoEmpresa, IntegracaoOdontoprev dados, ControleSync.TipoOperacao tipoOperacao, ControleSync.TipoControle tipoControle);
     
+    /**
+     * Cria (ou reaproveita o registro anterior da empresa/tipo) e grava o controle.
+     * 
+     * Mesmas regras de criarControle + salvar, mas com o MERGE habilitado a
+     * gravação é feita em uma única chamada ao banco.
+     * 
+     * @param codigoEmpresa código da empresa
+     * @param dados dados da integração (serializados uma única vez)
+     * @param tipoOperacao tipo da operação (CREATE, UPDATE, DELETE)
+     * @param tipoControle tipo de controle (1=Adição, 2=Alteração, 3=Exclusão)
+     * @return controle gravado, com ID
+     */
+    ControleSync registrarControle(String codigoEmpresa, IntegracaoOdontoprev dados, ControleSync.TipoOperacao tipoOperacao, ControleSync.TipoControle tipoControle);
+    
     /**
      * Atualiza o controle com sucesso.
      * 
+     * Grava com um único UPDATE das colunas do resultado, condicionado ao
+     * status atual do controle (pode ser gravado em segundo plano).
+     * 
      * @param controle controle a ser atualizado
      * @param responseJson resposta da API
      * @param tempoResposta tempo de resposta em millisegundos
@@ -50,6 +67,9 @@ public interface  GerenciadorControleSyncService {
     /**
      * Atualiza o controle com erro.
      * 
+     * Grava com um único UPDATE das colunas do resultado, condicionado ao
+     * status atual do controle (pode ser gravado em segundo plano).
+     * 
      * @param controle controle a ser atualizado
      * @param mensagemErro mensagem de erro
      */
@@ -62,4 +82,12 @@ public interface  GerenciadorControleSyncService {
      * @return controle salvo
      */
     ControleSync salvar(ControleSync controle);
-}
\ No newline at end of file
+    
+    /**
+     * Atualiza o payload enviado (DADOS_JSON) sem alterar o status.
+     * 
+     * @param controle controle a ser atualizado
+     * @param dadosJson request completo enviado para a OdontoPrev
+     */
+    void atualizarDadosJson(ControleSync controle, String dadosJson);
+}
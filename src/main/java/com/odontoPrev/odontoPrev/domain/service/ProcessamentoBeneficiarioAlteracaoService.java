@@ -2,6 +2,8 @@ package com.odontoPrev.odontoPrev.domain.service;
 
 import com.odontoPrev.odontoPrev.domain.entity.BeneficiarioOdontoprev;
 
+import java.util.List;
+
 /**
  * INTERFACE PARA PROCESSAMENTO DE ALTERAÇÕES DE BENEFICIÁRIOS
  *
@@ -51,6 +53,19 @@ public interface ProcessamentoBeneficiarioAlteracaoService {
      */
     void processarAlteracaoBeneficiario(BeneficiarioOdontoprev beneficiario);
 
+    /**
+     * PROCESSA ALTERAÇÕES EM LOTE
+     *
+     * Agrupa as alterações por empresa e envia várias em uma única chamada
+     * ao endpoint /alterar (que recebe uma lista). O resultado de cada item
+     * é registrado no seu próprio controle de sincronização. Lotes rejeitados
+     * pela API são divididos ao meio até isolar os itens inválidos.
+     *
+     * @param beneficiarios beneficiários alterados
+     * @return quantidade de beneficiários alterados com sucesso
+     */
+    int processarAlteracoesEmLote(List<BeneficiarioOdontoprev> beneficiarios);
+
     /**
      * VALIDA SE BENEFICIÁRIO PODE SER ALTERADO
      *
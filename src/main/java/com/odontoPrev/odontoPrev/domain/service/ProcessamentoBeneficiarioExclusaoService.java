@@ -2,6 +2,8 @@ package com.odontoPrev.odontoPrev.domain.service;
 
 import com.odontoPrev.odontoPrev.domain.entity.BeneficiarioOdontoprev;
 
+import java.util.List;
+
 /**
  * INTERFACE PARA PROCESSAMENTO DE EXCLUSÕES/INATIVAÇÕES DE BENEFICIÁRIOS
  *
@@ -50,6 +52,20 @@ public interface ProcessamentoBeneficiarioExclusaoService {
      */
     void processarInativacaoBeneficiario(BeneficiarioOdontoprev beneficiario);
 
+    /**
+     * PROCESSA INATIVAÇÕES EM LOTE
+     *
+     * Agrupa as inativações por empresa e data de inativação e envia vários
+     * associados no mesmo EmpresarialModel (campo 'associado' é uma lista).
+     * O status de cada associado é registrado no seu próprio controle de
+     * sincronização. Lotes rejeitados pela API são divididos ao meio até
+     * isolar os associados com erro.
+     *
+     * @param beneficiarios beneficiários a inativar
+     * @return quantidade de beneficiários inativados com sucesso
+     */
+    int processarInativacoesEmLote(List<BeneficiarioOdontoprev> beneficiarios);
+
     /**
      * VALIDA SE BENEFICIÁRIO PODE SER INATIVADO
      *
@@ -0,0 +1,14 @@
+package com.odontoPrev.odontoPrev.domain.service;
+
+/**
+ * Interface responsável por reprocessar os registros da TBSYNC com retentativa vencida.
+ */
+public interface RetentativaSincronizacaoService {
+
+    /**
+     * Reprocessa empresas e beneficiários cuja próxima tentativa já chegou.
+     *
+     * @return quantidade de registros reenviados
+     */
+    int processarRetentativasVencidas();
+}
@@ -0,0 +1,45 @@
+package com.odontoPrev.odontoPrev.infrastructure.aop;
+
+import com.odontoPrev.odontoPrev.infrastructure.config.RoteamentoDataSource;
+import com.odontoPrev.odontoPrev.infrastructure.config.RoteamentoDataSource.PapelConexao;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * ASPECTO QUE MANDA AS LEITURAS DAS VIEWS PARA O POOL DE LEITURA
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Marca como LEITURA toda chamada aos repositórios IntegracaoOdontoprev*Repository
+ * (views VW_INTEGRACAO_ODONTOPREV*), para que o RoteamentoDataSource entregue
+ * uma conexão do pool tasy-leitura. O resto da aplicação segue no pool de escrita.
+ *
+ * REGRA IMPORTANTE:
+ * Só troca o pool quando NÃO há transação ativa na thread. Dentro de uma
+ * transação (@Transactional de serviço) a conexão é a da transação - mudar de
+ * pool no meio faria a leitura não enxergar o que a própria transação gravou
+ * e poderia prender uma conexão somente leitura para as gravações seguintes.
+ * As varreduras pesadas (sincronização completa, lotes) rodam sem transação
+ * de serviço, então caem no pool de leitura.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "odontoprev.datasource.pools-separados.enabled", havingValue = "true")
+public class LeituraViewTasyAspect {
+
+    @Around("execution(* com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprev*Repository+.*(..))")
+    public Object usarPoolDeLeitura(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        PapelConexao anterior = RoteamentoDataSource.usar(PapelConexao.LEITURA);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RoteamentoDataSource.restaurar(anterior);
+        }
+    }
+}
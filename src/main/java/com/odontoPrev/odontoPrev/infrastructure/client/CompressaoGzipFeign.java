@@ -0,0 +1,176 @@
+package com.odontoPrev.odontoPrev.infrastructure.client;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * COMPRESSÃO GZIP DAS CHAMADAS À ODONTOPREV
+ *
+ * Payloads de inclusão de empresa (planos, contatos, endereços) e respostas
+ * de consulta de empresa são JSONs grandes que trafegam pela internet até o APIM.
+ *
+ * COMO FUNCIONA:
+ * - Resposta: envia "Accept-Encoding: gzip, deflate" e, se o servidor responder
+ *   comprimido, entrega ao decoder um stream que descomprime sob demanda
+ *   (sem carregar o corpo comprimido inteiro em memória)
+ * - Requisição (opcional, desligado por padrão): corpos JSON acima do tamanho
+ *   mínimo são comprimidos e enviados com "Content-Encoding: gzip"
+ *
+ * O Apache HttpClient 5 síncrono já negocia e descomprime respostas sozinho;
+ * neste caso o header Content-Encoding chega removido e nada é feito aqui.
+ * O HTTP/2 (java.net.http) depende desta classe.
+ */
+@Slf4j
+@Component
+public class CompressaoGzipFeign {
+
+    private static final String CONTENT_ENCODING = "Content-Encoding";
+    private static final String CONTENT_LENGTH = "Content-Length";
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    @Value("${odontoprev.http.gzip.resposta.enabled:true}")
+    private boolean respostaHabilitada;
+
+    @Value("${odontoprev.http.gzip.requisicao.enabled:false}")
+    private boolean requisicaoHabilitada;
+
+    // Corpos menores que isto são enviados sem compressão
+    @Value("${odontoprev.http.gzip.requisicao.tamanho-minimo-bytes:2048}")
+    private int tamanhoMinimoBytes;
+
+    public boolean isRespostaHabilitada() {
+        return respostaHabilitada;
+    }
+
+    /**
+     * ENVOLVE UM CLIENTE SÍNCRONO
+     */
+    public Client envolver(Client delegate) {
+        if (!respostaHabilitada && !requisicaoHabilitada) {
+            return delegate;
+        }
+        return (request, options) -> descomprimir(delegate.execute(preparar(request), options));
+    }
+
+    /**
+     * NEGOCIA RESPOSTA COMPRIMIDA E, SE CONFIGURADO, COMPRIME O CORPO
+     */
+    Request preparar(Request request) throws IOException {
+        boolean comprimirCorpo = deveComprimirCorpo(request);
+        boolean negociar = respostaHabilitada && !possuiHeader(request.headers(), ACCEPT_ENCODING);
+        if (!comprimirCorpo && !negociar) {
+            return request;
+        }
+
+        Map<String, Collection<String>> headers = copiarHeaders(request.headers());
+        if (negociar) {
+            headers.put(ACCEPT_ENCODING, List.of("gzip", "deflate"));
+        }
+        byte[] corpo = request.body();
+        if (comprimirCorpo) {
+            int tamanhoOriginal = corpo.length;
+            corpo = gzip(corpo);
+            headers.put(CONTENT_ENCODING, List.of("gzip"));
+            headers.remove(CONTENT_LENGTH);
+            log.debug("🗜️ [GZIP] Corpo da requisição comprimido: {} -> {} bytes ({})",
+                    tamanhoOriginal, corpo.length, request.url());
+            return Request.create(request.httpMethod(), request.url(), headers, corpo, null, request.requestTemplate());
+        }
+        return Request.create(request.httpMethod(), request.url(), headers, corpo, request.charset(), request.requestTemplate());
+    }
+
+    /**
+     * TROCA O CORPO COMPRIMIDO POR UM STREAM QUE DESCOMPRIME SOB DEMANDA
+     */
+    Response descomprimir(Response response) throws IOException {
+        if (!respostaHabilitada || response.body() == null) {
+            return response;
+        }
+        String encoding = primeiroHeader(response.headers(), CONTENT_ENCODING);
+        if (encoding == null) {
+            return response;
+        }
+        Integer tamanho = response.body().length();
+        if (tamanho != null && tamanho == 0) {
+            return response;
+        }
+
+        InputStream corpo;
+        String tipo = encoding.trim().toLowerCase();
+        if (tipo.equals("gzip") || tipo.equals("x-gzip")) {
+            corpo = new GZIPInputStream(response.body().asInputStream());
+        } else if (tipo.equals("deflate")) {
+            corpo = new InflaterInputStream(response.body().asInputStream());
+        } else {
+            return response;
+        }
+
+        Map<String, Collection<String>> headers = copiarHeaders(response.headers());
+        headers.remove(CONTENT_ENCODING);
+        headers.remove(CONTENT_LENGTH);
+        return response.toBuilder()
+                .headers(headers)
+                .body(corpo, null)
+                .build();
+    }
+
+    private boolean deveComprimirCorpo(Request request) {
+        if (!requisicaoHabilitada || request.body() == null || request.body().length < tamanhoMinimoBytes) {
+            return false;
+        }
+        if (possuiHeader(request.headers(), CONTENT_ENCODING)) {
+            return false;
+        }
+        String contentType = primeiroHeader(request.headers(), CONTENT_TYPE);
+        return contentType != null && contentType.toLowerCase().contains("json");
+    }
+
+    private static byte[] gzip(byte[] dados) throws IOException {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, dados.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        }
+        return saida.toByteArray();
+    }
+
+    private static Map<String, Collection<String>> copiarHeaders(Map<String, Collection<String>> origem) {
+        Map<String, Collection<String>> copia = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (origem != null) {
+            origem.forEach((nome, valores) -> copia.put(nome, new ArrayList<>(valores)));
+        }
+        return copia;
+    }
+
+    private static boolean possuiHeader(Map<String, Collection<String>> headers, String nome) {
+        return primeiroHeader(headers, nome) != null;
+    }
+
+    private static String primeiroHeader(Map<String, Collection<String>> headers, String nome) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, Collection<String>> entry : headers.entrySet()) {
+            if (nome.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().iterator().next();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,159 @@
+package com.odontoPrev.odontoPrev.infrastructure.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * DECODER JSON EM STREAMING COM CÓPIA LIMITADA DO PAYLOAD
+ *
+ * Respostas JSON mapeadas para DTOs são lidas direto do stream HTTP com o
+ * JsonParser do Jackson, sem montar o corpo inteiro em memória. Enquanto lê,
+ * copia os primeiros bytes (até "captura-maxima-bytes") para gravar no
+ * responseApi da TBSYNC; o excedente só é contado. Assim o pico de memória por
+ * chamada não depende do tamanho da resposta.
+ *
+ * Resposta maior que o limite não tem cópia: um JSON cortado no meio (às vezes
+ * no meio de um caractere UTF-8) não pode ser lido de volta do responseApi, então
+ * nesse caso quem grava serializa o DTO decodificado (RespostaBrutaApi.jsonDe).
+ *
+ * Demais casos (String, ResponseEntity, Optional, corpo não-JSON ou vazio)
+ * seguem para o decoder padrão do Spring.
+ */
+@Slf4j
+public class DecoderJsonStreaming implements Decoder {
+
+    private final ObjectMapper objectMapper;
+    private final Decoder padrao;
+    private final int capturaMaximaBytes;
+
+    public DecoderJsonStreaming(ObjectMapper objectMapper, Decoder padrao, int capturaMaximaBytes) {
+        this.objectMapper = objectMapper;
+        this.padrao = padrao;
+        this.capturaMaximaBytes = capturaMaximaBytes;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException, FeignException {
+        // Cópia de uma resposta anterior que ninguém consumiu não sobrevive a esta
+        RespostaBrutaApi.registrar(null, null);
+        if (!deveUsarStreaming(response, type)) {
+            return padrao.decode(response, type);
+        }
+
+        JavaType tipo = objectMapper.constructType(type);
+        CapturaLimitada captura = new CapturaLimitada(response.body().asInputStream(), capturaMaximaBytes);
+        try (JsonParser parser = objectMapper.createParser(captura)) {
+            if (parser.nextToken() == null) {
+                // Corpo vazio
+                return null;
+            }
+            Object resultado = objectMapper.readValue(parser, tipo);
+            RespostaBrutaApi.registrar(resultado, captura.texto());
+            return resultado;
+        } catch (IOException e) {
+            throw new DecodeException(response.status(),
+                    "Erro ao decodificar resposta da OdontoPrev como " + tipo + ": " + e.getMessage(),
+                    response.request(), e);
+        }
+    }
+
+    private static boolean deveUsarStreaming(Response response, Type type) {
+        Class<?> bruto;
+        if (type instanceof Class<?> classe) {
+            bruto = classe;
+        } else if (type instanceof ParameterizedType parametrizado) {
+            bruto = (Class<?>) parametrizado.getRawType();
+        } else {
+            return false;
+        }
+        if (response.body() == null) {
+            return false;
+        }
+        if (bruto == String.class || bruto == byte[].class || bruto == Object.class
+                || bruto.getName().startsWith("org.springframework.http.")
+                || bruto == Optional.class || bruto == Response.class) {
+            return false;
+        }
+        String contentType = primeiroHeader(response.headers(), "Content-Type");
+        return contentType == null || contentType.toLowerCase().contains("json");
+    }
+
+    private static String primeiroHeader(Map<String, Collection<String>> headers, String nome) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, Collection<String>> entry : headers.entrySet()) {
+            if (nome.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().iterator().next();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * STREAM QUE COPIA ATÉ N BYTES E CONTA O TOTAL LIDO
+     */
+    static final class CapturaLimitada extends FilterInputStream {
+
+        private final ByteArrayOutputStream copia;
+        private final int limite;
+        private long total;
+
+        CapturaLimitada(InputStream origem, int limite) {
+            super(origem);
+            this.limite = Math.max(0, limite);
+            this.copia = new ByteArrayOutputStream(Math.min(this.limite, 8192));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                if (total < limite) {
+                    copia.write(b);
+                }
+                total++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int lidos = super.read(b, off, len);
+            if (lidos > 0) {
+                if (total < limite) {
+                    copia.write(b, off, (int) Math.min(lidos, limite - total));
+                }
+                total += lidos;
+            }
+            return lidos;
+        }
+
+        /**
+         * @return JSON recebido ou null quando a resposta passou do limite da cópia
+         */
+        String texto() {
+            if (total > limite) {
+                return null;
+            }
+            return copia.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
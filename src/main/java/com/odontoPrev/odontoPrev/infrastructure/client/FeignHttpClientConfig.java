@@ -0,0 +1,184 @@
+package com.odontoPrev.odontoPrev.infrastructure.client;
+
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.CircuitBreakerApim;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.ClienteFeignResiliente;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.HedgeRequisicoesApim;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.LimitadorAdaptativoApim;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Client;
+import feign.codec.Decoder;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import feign.optionals.OptionalDecoder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HeaderElement;
+import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Iterator;
+
+/**
+ * CONFIGURAÇÃO DO CLIENTE HTTP USADO PELOS FEIGN CLIENTS
+ *
+ * Substitui o HttpURLConnection padrão do Feign por um cliente com pool de
+ * conexões, compartilhado por OdontoprevClient, BeneficiarioOdontoprevFeignClient
+ * e OdontoprevAuthClient (configurados em OdontoprevFeignConfig,
+ * BeneficiarioOdontoprevFeignConfig e OdontoprevAuthFeignConfig).
+ *
+ * COMO FUNCIONA:
+ * - Apache HttpClient 5 mantém conexões TLS abertas (keep-alive) e as reutiliza,
+ *   evitando um handshake a cada chamada para o APIM
+ * - Pool com limite total e por rota (host), reuso LIFO para manter as conexões
+ *   "quentes" e remoção de conexões ociosas/expiradas em background
+ * - HTTP/2 opcional (odontoprev.http.http2.enabled): usa java.net.http, que
+ *   multiplexa as requisições em uma única conexão por host
+ *
+ * Timeouts de conexão e leitura continuam vindo de feign.client.config.default.
+ *
+ * O cliente real é envolvido por ClienteFeignResiliente, que aplica o circuit
+ * breaker e o limitador adaptativo de concorrência por família de endpoint.
+ * Compressão gzip de requisições/respostas em CompressaoGzipFeign.
+ * Com odontoprev.http.hedge.enabled, GETs lentos ganham uma segunda tentativa
+ * (HedgeRequisicoesApim), e cada tentativa passa pelas mesmas proteções.
+ */
+@Slf4j
+@Configuration
+public class FeignHttpClientConfig {
+
+    @Value("${odontoprev.http.pool.max-total:50}")
+    private int maxTotal;
+
+    @Value("${odontoprev.http.pool.max-por-rota:20}")
+    private int maxPorRota;
+
+    // Conexões paradas há mais que isto são fechadas
+    @Value("${odontoprev.http.pool.ocioso-max-segundos:30}")
+    private long ociosoMaxSegundos;
+
+    // Tempo de vida máximo de uma conexão, mesmo em uso contínuo
+    @Value("${odontoprev.http.pool.ttl-segundos:300}")
+    private long ttlSegundos;
+
+    // Keep-alive usado quando o servidor não informa o header Keep-Alive
+    @Value("${odontoprev.http.pool.keep-alive-segundos:30}")
+    private long keepAliveSegundos;
+
+    // Revalida a conexão antes de reutilizar se ficou parada por mais que isto
+    @Value("${odontoprev.http.pool.validar-apos-inatividade-ms:2000}")
+    private long validarAposInatividadeMs;
+
+    @Value("${feign.client.config.default.connectTimeout:10000}")
+    private long connectTimeoutMs;
+
+    @Value("${odontoprev.http.http2.enabled:false}")
+    private boolean http2Habilitado;
+
+    // Quantidade máxima do JSON bruto da resposta guardada para o responseApi da TBSYNC
+    @Value("${odontoprev.http.resposta.captura-maxima-bytes:65536}")
+    private int capturaMaximaBytes;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient odontoprevHttpClient(CompressaoGzipFeign compressaoGzip) {
+        log.info("🔌 [HTTP CLIENT] Pool de conexões - total: {}, por rota: {}, ocioso máx: {}s, ttl: {}s, keep-alive: {}s",
+                maxTotal, maxPorRota, ociosoMaxSegundos, ttlSegundos, keepAliveSegundos);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPorRota)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setTimeToLive(TimeValue.ofSeconds(ttlSegundos))
+                        .setValidateAfterInactivity(TimeValue.ofMilliseconds(validarAposInatividadeMs))
+                        .build())
+                .build();
+
+        HttpClientBuilder builder = HttpClients.custom();
+        if (!compressaoGzip.isRespostaHabilitada()) {
+            // Por padrão o HttpClient 5 negocia gzip/deflate e descomprime as respostas sozinho
+            builder.disableContentCompression();
+        }
+        return builder
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(ociosoMaxSegundos))
+                .setKeepAliveStrategy((response, context) -> {
+                    // Respeita o "Keep-Alive: timeout=N" do servidor, limitado ao tempo de ociosidade do pool
+                    Iterator<HeaderElement> it = MessageSupport.iterate(response, "Keep-Alive");
+                    while (it.hasNext()) {
+                        HeaderElement elemento = it.next();
+                        if ("timeout".equalsIgnoreCase(elemento.getName()) && elemento.getValue() != null) {
+                            try {
+                                long segundos = Long.parseLong(elemento.getValue());
+                                return TimeValue.ofSeconds(Math.min(segundos, ociosoMaxSegundos));
+                            } catch (NumberFormatException ignored) {
+                                // valor inválido: usa o padrão
+                            }
+                        }
+                    }
+                    return TimeValue.ofSeconds(keepAliveSegundos);
+                })
+                .build();
+    }
+
+    @Bean
+    public Client feignClient(CloseableHttpClient odontoprevHttpClient, LimitadorAdaptativoApim limitador,
+                              CircuitBreakerApim circuitBreaker, HedgeRequisicoesApim hedge,
+                              CompressaoGzipFeign compressaoGzip) {
+        Client resiliente = new ClienteFeignResiliente(compressaoGzip.envolver(criarClienteHttp(odontoprevHttpClient)),
+                limitador, circuitBreaker);
+        if (!hedge.isHabilitado()) {
+            return resiliente;
+        }
+        log.info("🔌 [HTTP CLIENT] Hedge de requisições GET habilitado");
+        return (request, options) -> hedge.executar(request, options, resiliente);
+    }
+
+    /**
+     * DECODER COMPARTILHADO PELOS FEIGN CLIENTS
+     *
+     * JSON lido em streaming direto para os DTOs, com cópia limitada do payload
+     * bruto (DecoderJsonStreaming); os demais tipos usam o decoder padrão do Spring.
+     */
+    @Bean
+    public Decoder odontoprevFeignDecoder(ObjectMapper objectMapper,
+                                          ObjectFactory<HttpMessageConverters> messageConverters,
+                                          ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        Decoder padrao = new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(messageConverters, customizers)));
+        return new DecoderJsonStreaming(objectMapper, padrao, capturaMaximaBytes);
+    }
+
+    private Client criarClienteHttp(CloseableHttpClient odontoprevHttpClient) {
+        if (http2Habilitado) {
+            log.info("🔌 [HTTP CLIENT] Feign usando HTTP/2 (java.net.http)");
+            return new Http2Client(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .followRedirects(HttpClient.Redirect.NORMAL)
+                    .build());
+        }
+        log.info("🔌 [HTTP CLIENT] Feign usando Apache HttpClient 5 com pool de conexões");
+        return new ApacheHttp5Client(odontoprevHttpClient);
+    }
+}
@@ -1,14 +1,23 @@
 package com.odontoPrev.odontoPrev.infrastructure.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaAlteracaoRequest;
+import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaInativacaoRequest;
 import feign.codec.Encoder;
 import feign.form.FormEncoder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Configuration
@@ -17,42 +26,99 @@ public class OdontoprevFeignConfig {
     @Autowired
     private ObjectMapper objectMapper;
 
+    // true = registra o módulo Blackbird (acessores gerados em vez de reflection) no mapper do encoder
+    @Value("${odontoprev.http.json.blackbird.enabled:false}")
+    private boolean blackbirdHabilitado;
+
+    // Loga o payload de 1 a cada N requisições (em DEBUG); 0 = nunca loga o payload
+    @Value("${odontoprev.http.json.log-payload-amostragem:0}")
+    private int amostragemLogPayload;
+
     /**
      * ENCODER HÍBRIDO PARA FEIGN
-     * 
+     *
      * Este encoder suporta tanto form-urlencoded quanto JSON:
      * - FormEncoder: Para endpoints que precisam de form-urlencoded (ex: OAuth2)
      * - JSON Encoder customizado: Para endpoints que precisam de JSON (ex: alterarEmpresa)
-     * 
+     *
      * O Feign automaticamente escolhe o encoder baseado no Content-Type da requisição.
      */
     @Bean
     public Encoder feignEncoder() {
-        return new FormEncoder(new JsonEncoder(objectMapper));
+        return new FormEncoder(criarJsonEncoder());
+    }
+
+    /**
+     * CRIA O ENCODER JSON COM AS CONFIGURAÇÕES DA APLICAÇÃO
+     *
+     * Não é exposto como @Bean para não haver dois Encoders no contexto do Feign client.
+     */
+    private JsonEncoder criarJsonEncoder() {
+        ObjectMapper mapper = objectMapper;
+        if (blackbirdHabilitado) {
+            // Cópia: não altera o ObjectMapper compartilhado da aplicação
+            mapper = objectMapper.copy().registerModule(new BlackbirdModule());
+            log.info("🔧 [FEIGN ENCODER] Módulo Blackbird habilitado para serialização JSON");
+        }
+        return new JsonEncoder(mapper, amostragemLogPayload);
     }
 
     /**
      * ENCODER JSON CUSTOMIZADO
-     * 
+     *
      * Encoder que converte objetos Java para JSON usando Jackson ObjectMapper.
+     *
+     * DESEMPENHO:
+     * - Serializa direto para bytes UTF-8 (sem String intermediária); o Jackson
+     *   reaproveita os buffers internos entre requisições
+     * - ObjectWriter pré-calculado por tipo (DTOs de request já aquecidos na criação)
+     * - Log do payload só em DEBUG, por amostragem, e montado apenas quando for logar
      */
     public static class JsonEncoder implements Encoder {
+
+        private static final Class<?>[] DTOS_PRE_AQUECIDOS = {
+                EmpresaAlteracaoRequest.class,
+                EmpresaInativacaoRequest.class
+        };
+
         private final ObjectMapper objectMapper;
+        private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+        private final int amostragemLogPayload;
+        private final AtomicLong contadorRequisicoes = new AtomicLong();
 
         public JsonEncoder(ObjectMapper objectMapper) {
+            this(objectMapper, 0);
+        }
+
+        public JsonEncoder(ObjectMapper objectMapper, int amostragemLogPayload) {
             this.objectMapper = objectMapper;
+            this.amostragemLogPayload = amostragemLogPayload;
+            for (Class<?> dto : DTOS_PRE_AQUECIDOS) {
+                writer(dto);
+            }
         }
 
         @Override
         public void encode(Object object, Type bodyType, feign.RequestTemplate template) {
             try {
-                String json = objectMapper.writeValueAsString(object);
-                template.body(json);
-                log.debug("🔧 [FEIGN ENCODER] Objeto serializado para JSON: {} bytes", json.length());
+                // Tipo real do objeto, como o writeValueAsString fazia (subclasses mantêm seus campos)
+                byte[] json = writer(object != null ? object.getClass() : Object.class).writeValueAsBytes(object);
+                template.body(json, StandardCharsets.UTF_8);
+                if (log.isDebugEnabled()) {
+                    log.debug("🔧 [FEIGN ENCODER] Objeto serializado para JSON: {} bytes", json.length);
+                    if (amostragemLogPayload > 0 && contadorRequisicoes.getAndIncrement() % amostragemLogPayload == 0) {
+                        log.debug("🔧 [FEIGN ENCODER] Payload (amostra 1/{}): {}",
+                                amostragemLogPayload, new String(json, StandardCharsets.UTF_8));
+                    }
+                }
             } catch (Exception e) {
                 log.error("❌ [FEIGN ENCODER] Erro ao serializar objeto para JSON: {}", e.getMessage());
                 throw new feign.codec.EncodeException("Erro ao serializar objeto para JSON", e);
             }
         }
+
+        private ObjectWriter writer(Class<?> tipo) {
+            return writers.computeIfAbsent(tipo, objectMapper::writerFor);
+        }
     }
-}
\ No newline at end of file
+}
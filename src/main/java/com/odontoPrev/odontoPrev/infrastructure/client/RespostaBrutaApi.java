@@ -0,0 +1,61 @@
+package com.odontoPrev.odontoPrev.infrastructure.client;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * CÓPIA LIMITADA DO JSON BRUTO DA ÚLTIMA RESPOSTA DECODIFICADA
+ *
+ * O DecoderJsonStreaming guarda aqui, por thread, o objeto decodificado e o
+ * texto original recebido da OdontoPrev (só quando cabe no tamanho máximo
+ * configurado). Os serviços usam esse texto no responseApi da TBSYNC em vez de
+ * serializar o DTO de novo; respostas maiores são serializadas a partir do DTO,
+ * para o responseApi ser sempre um JSON completo.
+ *
+ * O texto só é devolvido para o mesmo objeto que foi decodificado (comparação
+ * por identidade), então uma resposta antiga nunca é gravada no lugar de outra.
+ *
+ * A cópia é de uso único: jsonDe(...) limpa a thread ao ler (mesmo quando não é
+ * o objeto capturado), para as threads do pool não segurarem até 64 KB de texto
+ * nem uma resposta antiga entre uma chamada e outra. Quem precisa do JSON mais
+ * de uma vez guarda o texto retornado.
+ */
+public final class RespostaBrutaApi {
+
+    private static final ThreadLocal<Captura> ULTIMA = new ThreadLocal<>();
+
+    private RespostaBrutaApi() {
+    }
+
+    static void registrar(Object resposta, String json) {
+        if (resposta == null) {
+            ULTIMA.remove();
+        } else {
+            ULTIMA.set(new Captura(resposta, json));
+        }
+    }
+
+    /**
+     * JSON DA RESPOSTA PARA PERSISTÊNCIA (CONSOME A CÓPIA DA THREAD)
+     *
+     * @param resposta objeto retornado pelo Feign client
+     * @param objectMapper usado quando não há cópia bruta para este objeto
+     *                     (ex: DTO montado pelo serviço, resposta acima do limite
+     *                     da cópia ou cópia já consumida)
+     * @return texto original recebido da API ou o objeto serializado
+     */
+    public static String jsonDe(Object resposta, ObjectMapper objectMapper) throws JsonProcessingException {
+        Captura captura = ULTIMA.get();
+        try {
+            if (captura != null && resposta != null && captura.resposta() == resposta && captura.json() != null) {
+                return captura.json();
+            }
+            return objectMapper.writeValueAsString(resposta);
+        } finally {
+            ULTIMA.remove();
+        }
+    }
+
+    private record Captura(Object resposta, String json) {
+    }
+}
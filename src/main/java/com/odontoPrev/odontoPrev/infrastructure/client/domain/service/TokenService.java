@@ -6,53 +6,151 @@ import com.odontoPrev.odontoPrev.infrastructure.client.OdontoprevAuthClient;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * SERVIÇO DE TOKEN OAUTH2 DA ODONTOPREV
+ *
+ * Mantém o token de acesso em cache, seguro para uso por várias threads.
+ *
+ * FLUXO:
+ * - Leitura: devolve o token atual sem bloquear enquanto ele estiver válido
+ * - Renovação proativa: uma tarefa agendada renova o token antes de entrar na
+ *   janela de renovação, fora do caminho das requisições
+ * - Falha na renovação: nova tentativa com backoff e jitter enquanto o token
+ *   antigo ainda vale; as requisições continuam usando o token antigo
+ * - Sem token válido (inicialização ou expiração): apenas uma thread renova e
+ *   as demais aguardam o resultado dela
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TokenService {
 
+    // Token com menos que isto de validade não é entregue para uma requisição
+    private static final long MARGEM_MINIMA_SEGUNDOS = 30;
+
     private final OdontoprevAuthClient authClient;
-    
+
     @Value("${odontoprev.credentials.token}")
     private String credentialsToken;
-    
-    private String accessToken;
-    private LocalDateTime tokenExpiration;
+
+    // Antecedência com que a tarefa agendada renova o token
+    @Value("${odontoprev.api.token.renovacao-antecipada-segundos:300}")
+    private long renovacaoAntecipadaSegundos;
+
+    // Intervalo base entre tentativas após falha de renovação (dobra a cada falha)
+    @Value("${odontoprev.api.token.retry-base-ms:2000}")
+    private long retryBaseMs;
+
+    @Value("${odontoprev.api.token.retry-max-ms:60000}")
+    private long retryMaxMs;
+
+    // Token atual e expiração publicados juntos (leitura sem lock)
+    private volatile TokenAtual tokenAtual;
+
+    // Garante uma única chamada ao endpoint de autenticação por vez
+    private final ReentrantLock lockRenovacao = new ReentrantLock();
+
+    // Controle de retry da renovação em background
+    private volatile Instant proximaTentativa = Instant.EPOCH;
+    private volatile int falhasConsecutivas;
 
     public String obterTokenValido() {
-        if (tokenExpirado()) {
-            renovarToken();
+        TokenAtual atual = tokenAtual;
+        if (atual != null && atual.validoEm(Instant.now().plusSeconds(MARGEM_MINIMA_SEGUNDOS))) {
+            return atual.accessToken();
+        }
+
+        lockRenovacao.lock();
+        try {
+            // Outra thread pode ter renovado enquanto esta aguardava o lock
+            atual = tokenAtual;
+            if (atual != null && atual.validoEm(Instant.now().plusSeconds(MARGEM_MINIMA_SEGUNDOS))) {
+                return atual.accessToken();
+            }
+            return renovarToken().accessToken();
+        } finally {
+            lockRenovacao.unlock();
         }
-        return accessToken;
     }
 
-    private boolean tokenExpirado() {
-        return accessToken == null || 
-               tokenExpiration == null || 
-               LocalDateTime.now().isAfter(tokenExpiration.minusMinutes(5));
+    /**
+     * RENOVAÇÃO PROATIVA EM BACKGROUND
+     *
+     * Renova o token quando ele entra na janela de renovação antecipada.
+     * Se outra thread já estiver renovando, não faz nada nesta execução.
+     */
+    @Scheduled(fixedDelayString = "${odontoprev.api.token.verificacao-ms:10000}")
+    public void renovarProativamente() {
+        TokenAtual atual = tokenAtual;
+        Instant agora = Instant.now();
+        if (atual == null || !atual.validoEm(agora.plusSeconds(renovacaoAntecipadaSegundos))) {
+            if (agora.isBefore(proximaTentativa) || !lockRenovacao.tryLock()) {
+                return;
+            }
+            try {
+                // Confere de novo: uma renovação sob demanda pode ter acabado de acontecer
+                atual = tokenAtual;
+                if (atual == null || !atual.validoEm(Instant.now().plusSeconds(renovacaoAntecipadaSegundos))) {
+                    renovarToken();
+                }
+            } catch (Exception e) {
+                agendarNovaTentativa(atual);
+            } finally {
+                lockRenovacao.unlock();
+            }
+        }
     }
 
-    private void renovarToken() {
+    private void agendarNovaTentativa(TokenAtual atual) {
+        int falhas = ++falhasConsecutivas;
+        long base = Math.min(retryMaxMs, retryBaseMs << Math.min(falhas - 1, 20));
+        long espera = base / 2 + ThreadLocalRandom.current().nextLong(base / 2 + 1);
+        proximaTentativa = Instant.now().plusMillis(espera);
+
+        if (atual != null && atual.validoEm(Instant.now())) {
+            log.warn("Falha ao renovar token antecipadamente (tentativa {}). Token atual segue válido até {}. Nova tentativa em {}ms",
+                    falhas, atual.expiraEm(), espera);
+        } else {
+            log.error("Falha ao renovar token (tentativa {}) e não há token válido. Nova tentativa em {}ms", falhas, espera);
+        }
+    }
+
+    private TokenAtual renovarToken() {
         try {
             log.info("Renovando token de acesso da Odontoprev");
-            
+
             String authorization = "Basic " + credentialsToken;
             TokenRequest request = new TokenRequest();
-            
+
             TokenResponse response = authClient.obterToken(authorization, request.getGrantType());
-            
-            this.accessToken = response.getAccessToken();
-            this.tokenExpiration = LocalDateTime.now().plusSeconds(response.getExpiresIn());
-            
-            log.info("Token renovado com sucesso. Expira em: {}", tokenExpiration);
-            
+
+            TokenAtual novo = new TokenAtual(response.getAccessToken(),
+                    Instant.now().plus(Duration.ofSeconds(response.getExpiresIn())));
+            this.tokenAtual = novo;
+            this.falhasConsecutivas = 0;
+            this.proximaTentativa = Instant.EPOCH;
+
+            log.info("Token renovado com sucesso. Expira em: {}", novo.expiraEm());
+            return novo;
+
         } catch (Exception e) {
             log.error("Erro ao renovar token da Odontoprev", e);
             throw new RuntimeException("Falha na autenticação com Odontoprev", e);
         }
     }
-}
\ No newline at end of file
+
+    private record TokenAtual(String accessToken, Instant expiraEm) {
+
+        boolean validoEm(Instant instante) {
+            return expiraEm.isAfter(instante);
+        }
+    }
+}
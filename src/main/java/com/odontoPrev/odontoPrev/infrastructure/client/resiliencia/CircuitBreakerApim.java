@@ -0,0 +1,233 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CIRCUIT BREAKER POR FAMÍLIA DE ENDPOINTS DO APIM
+ *
+ * Evita que uma indisponibilidade da OdontoPrev custe o timeout completo de
+ * cada empresa/beneficiário. Cada família (empresa, beneficiário, auth) tem
+ * seu próprio circuito.
+ *
+ * ESTADOS:
+ * - FECHADO: chamadas passam normalmente; o resultado das últimas N chamadas
+ *   é registrado em uma janela deslizante
+ * - ABERTO: a taxa de falhas ou de chamadas lentas da janela passou do limite;
+ *   as chamadas falham na hora com CircuitoAbertoException (sem ir à rede)
+ * - MEIO_ABERTO: após o tempo de espera, algumas chamadas de teste passam;
+ *   se todas tiverem sucesso o circuito fecha, se alguma falhar ele reabre
+ *
+ * Falha = erro de I/O (conexão, timeout) ou HTTP 502/503/504.
+ * Erros 4xx e 500 de negócio não abrem o circuito.
+ */
+@Slf4j
+@Component
+public class CircuitBreakerApim {
+
+    public enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    @Value("${odontoprev.http.circuit-breaker.enabled:true}")
+    private boolean habilitado;
+
+    // Quantidade de chamadas consideradas na janela deslizante
+    @Value("${odontoprev.http.circuit-breaker.tamanho-janela:20}")
+    private int tamanhoJanela;
+
+    // Mínimo de chamadas na janela antes de avaliar as taxas
+    @Value("${odontoprev.http.circuit-breaker.minimo-chamadas:10}")
+    private int minimoChamadas;
+
+    @Value("${odontoprev.http.circuit-breaker.taxa-falha-percentual:50}")
+    private int taxaFalhaPercentual;
+
+    @Value("${odontoprev.http.circuit-breaker.taxa-lenta-percentual:80}")
+    private int taxaLentaPercentual;
+
+    // Chamadas acima deste tempo contam como lentas
+    @Value("${odontoprev.http.circuit-breaker.chamada-lenta-ms:20000}")
+    private long chamadaLentaMs;
+
+    // Tempo que o circuito fica aberto antes de liberar chamadas de teste
+    @Value("${odontoprev.http.circuit-breaker.tempo-aberto-ms:30000}")
+    private long tempoAbertoMs;
+
+    @Value("${odontoprev.http.circuit-breaker.chamadas-teste:3}")
+    private int chamadasTeste;
+
+    private final Map<FamiliaEndpointApim, Circuito> circuitos = new EnumMap<>(FamiliaEndpointApim.class);
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * VERIFICA SE A FAMÍLIA ACEITA CHAMADAS NESTE MOMENTO (SEM CONSUMIR VAGA DE TESTE)
+     *
+     * Usado pelos loops de sincronização para adiar o restante do lote sem
+     * precisar tentar item a item.
+     */
+    public boolean permiteChamadas(FamiliaEndpointApim familia) {
+        if (!habilitado) {
+            return true;
+        }
+        Circuito circuito = circuito(familia);
+        synchronized (circuito) {
+            return circuito.estado != Estado.ABERTO || System.nanoTime() >= circuito.abertoAteNanos;
+        }
+    }
+
+    /**
+     * AUTORIZA UMA CHAMADA OU FALHA NA HORA
+     *
+     * @throws CircuitoAbertoException se o circuito estiver aberto ou sem vagas de teste
+     */
+    public void autorizar(FamiliaEndpointApim familia) {
+        Circuito circuito = circuito(familia);
+        synchronized (circuito) {
+            long agora = System.nanoTime();
+            if (circuito.estado == Estado.ABERTO) {
+                if (agora < circuito.abertoAteNanos) {
+                    throw new CircuitoAbertoException(familia.name(),
+                            TimeUnit.NANOSECONDS.toSeconds(circuito.abertoAteNanos - agora) + 1);
+                }
+                circuito.mudarPara(Estado.MEIO_ABERTO, familia);
+            }
+            if (circuito.estado == Estado.MEIO_ABERTO) {
+                if (circuito.testesEmAndamento + circuito.testesComSucesso >= chamadasTeste) {
+                    throw new CircuitoAbertoException(familia.name(), 1);
+                }
+                circuito.testesEmAndamento++;
+            }
+        }
+    }
+
+    /**
+     * REGISTRA O RESULTADO DE UMA CHAMADA AUTORIZADA
+     *
+     * @param falha true para erro de I/O ou 502/503/504
+     * @param duracaoMs duração da chamada
+     */
+    public void registrarResultado(FamiliaEndpointApim familia, boolean falha, long duracaoMs) {
+        Circuito circuito = circuito(familia);
+        boolean lenta = duracaoMs >= chamadaLentaMs;
+        synchronized (circuito) {
+            if (circuito.estado == Estado.MEIO_ABERTO) {
+                circuito.testesEmAndamento = Math.max(0, circuito.testesEmAndamento - 1);
+                if (falha || lenta) {
+                    abrir(circuito, familia, "chamada de teste " + (falha ? "falhou" : "lenta (" + duracaoMs + "ms)"));
+                } else if (++circuito.testesComSucesso >= chamadasTeste) {
+                    circuito.mudarPara(Estado.FECHADO, familia);
+                }
+                return;
+            }
+            if (circuito.estado == Estado.ABERTO) {
+                return;
+            }
+
+            circuito.registrar(falha, lenta);
+            if (circuito.total >= minimoChamadas) {
+                int percentualFalhas = circuito.falhas * 100 / circuito.total;
+                int percentualLentas = circuito.lentas * 100 / circuito.total;
+                if (percentualFalhas >= taxaFalhaPercentual) {
+                    abrir(circuito, familia, percentualFalhas + "% de falhas nas últimas " + circuito.total + " chamadas");
+                } else if (percentualLentas >= taxaLentaPercentual) {
+                    abrir(circuito, familia, percentualLentas + "% de chamadas lentas nas últimas " + circuito.total + " chamadas");
+                }
+            }
+        }
+    }
+
+    /**
+     * DEVOLVE A VAGA DE TESTE DE UMA CHAMADA AUTORIZADA QUE NÃO CHEGOU A SER FEITA
+     */
+    public void cancelar(FamiliaEndpointApim familia) {
+        Circuito circuito = circuito(familia);
+        synchronized (circuito) {
+            if (circuito.estado == Estado.MEIO_ABERTO) {
+                circuito.testesEmAndamento = Math.max(0, circuito.testesEmAndamento - 1);
+            }
+        }
+    }
+
+    public Estado estado(FamiliaEndpointApim familia) {
+        Circuito circuito = circuito(familia);
+        synchronized (circuito) {
+            return circuito.estado;
+        }
+    }
+
+    private void abrir(Circuito circuito, FamiliaEndpointApim familia, String motivo) {
+        circuito.mudarPara(Estado.ABERTO, familia);
+        circuito.abertoAteNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tempoAbertoMs);
+        log.error("🔴 [CIRCUIT BREAKER {}] Circuito ABERTO: {} - chamadas bloqueadas por {}ms", familia, motivo, tempoAbertoMs);
+    }
+
+    private Circuito circuito(FamiliaEndpointApim familia) {
+        synchronized (circuitos) {
+            return circuitos.computeIfAbsent(familia, f -> new Circuito(tamanhoJanela));
+        }
+    }
+
+    /**
+     * ESTADO DE UM CIRCUITO (ACESSADO SEMPRE SOB LOCK DO PRÓPRIO OBJETO)
+     */
+    private static final class Circuito {
+        private final byte[] janela;
+        private int posicao;
+        private int total;
+        private int falhas;
+        private int lentas;
+        private Estado estado = Estado.FECHADO;
+        private long abertoAteNanos;
+        private int testesEmAndamento;
+        private int testesComSucesso;
+
+        private static final byte FALHA = 1;
+        private static final byte LENTA = 2;
+
+        private Circuito(int tamanhoJanela) {
+            this.janela = new byte[Math.max(1, tamanhoJanela)];
+        }
+
+        private void registrar(boolean falha, boolean lenta) {
+            if (total == janela.length) {
+                byte saindo = janela[posicao];
+                if ((saindo & FALHA) != 0) falhas--;
+                if ((saindo & LENTA) != 0) lentas--;
+            } else {
+                total++;
+            }
+            byte valor = (byte) ((falha ? FALHA : 0) | (lenta ? LENTA : 0));
+            janela[posicao] = valor;
+            if (falha) falhas++;
+            if (lenta) lentas++;
+            posicao = (posicao + 1) % janela.length;
+        }
+
+        private void mudarPara(Estado novo, FamiliaEndpointApim familia) {
+            Estado anterior = estado;
+            estado = novo;
+            testesEmAndamento = 0;
+            testesComSucesso = 0;
+            if (novo == Estado.FECHADO) {
+                Arrays.fill(janela, (byte) 0);
+                posicao = 0;
+                total = 0;
+                falhas = 0;
+                lentas = 0;
+                log.info("🟢 [CIRCUIT BREAKER {}] Circuito FECHADO - API respondendo normalmente", familia);
+            } else if (novo == Estado.MEIO_ABERTO) {
+                log.warn("🟡 [CIRCUIT BREAKER {}] Circuito MEIO_ABERTO - liberando chamadas de teste (estado anterior: {})",
+                        familia, anterior);
+            }
+        }
+    }
+}
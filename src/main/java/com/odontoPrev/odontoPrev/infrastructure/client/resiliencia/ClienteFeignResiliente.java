@@ -0,0 +1,193 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.HttpHostConnectException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * CLIENTE FEIGN COM PROTEÇÕES DE CHAMADA AO APIM
+ *
+ * Envolve o cliente HTTP real (pool Apache HttpClient 5 ou HTTP/2) e aplica,
+ * por família de endpoint, o circuit breaker e o limitador adaptativo de concorrência.
+ *
+ * FLUXO:
+ * 1. Identifica a família da requisição (empresa, beneficiário, auth)
+ * 2. Circuit breaker: falha na hora se o circuito estiver aberto
+ * 3. Aguarda vaga no limitador
+ * 4. Executa a chamada e informa o resultado aos dois
+ * 5. Libera a vaga quando o corpo da resposta é fechado (o download do corpo
+ *    também ocupa o APIM e a conexão), ou na hora se não houver corpo ou a
+ *    chamada falhar
+ *
+ * SINAIS DE SOBRECARGA PARA O LIMITADOR:
+ * HTTP 429/503, timeout de leitura (SocketTimeoutException), timeout de conexão
+ * (ConnectTimeoutException do HttpClient 5, HttpTimeoutException do HTTP/2) e
+ * conexão recusada (HttpHostConnectException).
+ */
+@Slf4j
+public class ClienteFeignResiliente implements Client {
+
+    private final Client delegate;
+    private final LimitadorAdaptativoApim limitador;
+    private final CircuitBreakerApim circuitBreaker;
+
+    public ClienteFeignResiliente(Client delegate, LimitadorAdaptativoApim limitador, CircuitBreakerApim circuitBreaker) {
+        this.delegate = delegate;
+        this.limitador = limitador;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        boolean limitar = limitador.isHabilitado();
+        boolean protegerCircuito = circuitBreaker.isHabilitado();
+        if (!limitar && !protegerCircuito) {
+            return delegate.execute(request, options);
+        }
+
+        FamiliaEndpointApim familia = FamiliaEndpointApim.de(request);
+        if (protegerCircuito) {
+            circuitBreaker.autorizar(familia);
+        }
+        if (limitar) {
+            try {
+                limitador.adquirir(familia);
+            } catch (IOException e) {
+                if (protegerCircuito) {
+                    circuitBreaker.cancelar(familia);
+                }
+                throw e;
+            }
+        }
+
+        long inicio = System.currentTimeMillis();
+        boolean falha = true;
+        boolean vagaComCorpo = false;
+        try {
+            Response response = delegate.execute(request, options);
+            int status = response.status();
+            falha = status == 502 || status == 503 || status == 504;
+            if (limitar) {
+                if (status == 429 || status == 503) {
+                    limitador.registrarSobrecarga(familia, "HTTP " + status, primeiroHeader(response.headers(), "Retry-After"));
+                } else if (status < 500) {
+                    limitador.registrarSucesso(familia);
+                }
+            }
+            if (limitar && response.body() != null) {
+                Response comVaga = response.toBuilder()
+                        .body(new CorpoComVaga(response.body(), () -> limitador.liberar(familia)))
+                        .build();
+                vagaComCorpo = true;
+                return comVaga;
+            }
+            return response;
+        } catch (IOException e) {
+            String motivo = motivoSobrecarga(e);
+            if (limitar && motivo != null) {
+                limitador.registrarSobrecarga(familia, motivo, null);
+            }
+            throw e;
+        } finally {
+            if (protegerCircuito) {
+                circuitBreaker.registrarResultado(familia, falha, System.currentTimeMillis() - inicio);
+            }
+            if (limitar && !vagaComCorpo) {
+                limitador.liberar(familia);
+            }
+        }
+    }
+
+    /**
+     * FALHAS DE I/O QUE INDICAM SOBRECARGA DO APIM
+     *
+     * @return motivo para o log do limitador, ou null se a falha não é sinal de sobrecarga
+     */
+    private static String motivoSobrecarga(IOException e) {
+        if (e instanceof ConnectTimeoutException || e instanceof HttpConnectTimeoutException) {
+            return "Timeout de conexão";
+        }
+        if (e instanceof SocketTimeoutException || e instanceof HttpTimeoutException) {
+            return "Timeout";
+        }
+        if (e instanceof HttpHostConnectException) {
+            return "Conexão recusada";
+        }
+        return null;
+    }
+
+    /**
+     * CORPO DA RESPOSTA QUE DEVOLVE A VAGA DO LIMITADOR AO SER FECHADO
+     *
+     * O decoder do Feign fecha a resposta depois de ler o corpo; o hedge fecha a
+     * resposta perdedora. A vaga é devolvida uma única vez.
+     */
+    private static final class CorpoComVaga implements Response.Body {
+
+        private final Response.Body corpo;
+        private final Runnable liberarVaga;
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        private CorpoComVaga(Response.Body corpo, Runnable liberarVaga) {
+            this.corpo = corpo;
+            this.liberarVaga = liberarVaga;
+        }
+
+        @Override
+        public Integer length() {
+            return corpo.length();
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return corpo.isRepeatable();
+        }
+
+        @Override
+        public InputStream asInputStream() throws IOException {
+            return corpo.asInputStream();
+        }
+
+        @Override
+        public Reader asReader(Charset charset) throws IOException {
+            return corpo.asReader(charset);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                corpo.close();
+            } finally {
+                if (liberada.compareAndSet(false, true)) {
+                    liberarVaga.run();
+                }
+            }
+        }
+    }
+
+    private static String primeiroHeader(Map<String, Collection<String>> headers, String nome) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, Collection<String>> entry : headers.entrySet()) {
+            if (nome.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().iterator().next();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import feign.Request;
+
+/**
+ * FAMÍLIAS DE ENDPOINTS DO APIM DA ODONTOPREV
+ *
+ * Cada família tem seu próprio orçamento de concorrência e seu próprio estado
+ * de proteção, para que problemas em uma API (ex: beneficiários) não
+ * derrubem as demais (ex: autenticação).
+ *
+ * A família é identificada pelo nome do Feign client que originou a requisição.
+ */
+public enum FamiliaEndpointApim {
+
+    EMPRESA,
+    BENEFICIARIO,
+    AUTH;
+
+    /**
+     * IDENTIFICA A FAMÍLIA DE UMA REQUISIÇÃO FEIGN
+     *
+     * @param request requisição montada pelo Feign
+     * @return família do endpoint (EMPRESA quando não for possível identificar)
+     */
+    public static FamiliaEndpointApim de(Request request) {
+        String nomeCliente = null;
+        if (request.requestTemplate() != null && request.requestTemplate().feignTarget() != null) {
+            nomeCliente = request.requestTemplate().feignTarget().name();
+        }
+        if (nomeCliente == null) {
+            return EMPRESA;
+        }
+        if (nomeCliente.contains("auth")) {
+            return AUTH;
+        }
+        if (nomeCliente.contains("beneficiario")) {
+            return BENEFICIARIO;
+        }
+        return EMPRESA;
+    }
+}
@@ -0,0 +1,337 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * REQUISIÇÕES "HEDGED" PARA GETs IDEMPOTENTES DA ODONTOPREV
+ *
+ * Um nó lento do APIM pode segurar uma consulta até o timeout de leitura.
+ * Com o hedge habilitado, se o GET não responder dentro do percentil de
+ * latência configurado (ex: p95 das últimas chamadas da mesma família),
+ * uma segunda requisição idêntica é enviada e vence a primeira que responder.
+ *
+ * REGRAS:
+ * - Só GET (consultas idempotentes); POST/PUT nunca são duplicados
+ * - Orçamento: no máximo N% das consultas podem gerar hedge (token bucket),
+ *   para não dobrar a carga no APIM quando ele todo estiver lento
+ * - As tentativas nunca são canceladas: cancelar o CompletableFuture não
+ *   interrompe a chamada HTTP e a resposta que chegasse depois se perderia sem
+ *   ser fechada, prendendo a conexão. Cada tentativa segue até o fim; a primeira
+ *   resposta é marcada como vencedora e a perdedora é fechada assim que chegar,
+ *   devolvendo a conexão ao pool
+ * - Se a thread chamadora for interrompida, a resposta que ainda vier também é
+ *   fechada ao chegar
+ * - Se uma tentativa falhar, vale a outra; se as duas falharem, propaga o erro
+ *   da primeira
+ *
+ * THREADS:
+ * O atraso do hedge só pode contar o tempo da chamada HTTP; espera em fila
+ * contaria como lentidão do APIM e geraria hedges à toa. Por isso nenhuma
+ * tentativa espera em fila:
+ * - A primeira tentativa roda numa thread própria criada sob demanda (o total é
+ *   limitado pelas threads que chamam a API), liberando a thread chamadora para
+ *   ficar com a resposta que chegar primeiro
+ * - O hedge usa um pool de "threads" fixas, sem fila: com todas ocupadas, a
+ *   consulta não ganha hedge e aguarda a primeira tentativa
+ */
+@Slf4j
+@Component
+public class HedgeRequisicoesApim {
+
+    @Value("${odontoprev.http.hedge.enabled:false}")
+    private boolean habilitado;
+
+    // Percentil da latência usado como atraso antes do hedge
+    @Value("${odontoprev.http.hedge.percentil:95}")
+    private int percentil;
+
+    // Atraso usado enquanto não há amostras suficientes
+    @Value("${odontoprev.http.hedge.atraso-padrao-ms:3000}")
+    private long atrasoPadraoMs;
+
+    // Piso do atraso, para não duplicar chamadas que já são rápidas
+    @Value("${odontoprev.http.hedge.atraso-minimo-ms:200}")
+    private long atrasoMinimoMs;
+
+    @Value("${odontoprev.http.hedge.amostras:200}")
+    private int quantidadeAmostras;
+
+    // Percentual máximo de consultas que podem gerar hedge
+    @Value("${odontoprev.http.hedge.orcamento-percentual:10}")
+    private double orcamentoPercentual;
+
+    // Threads do hedge (segundas tentativas simultâneas)
+    @Value("${odontoprev.http.hedge.threads:16}")
+    private int threads;
+
+    private final Map<FamiliaEndpointApim, Latencias> latencias = new EnumMap<>(FamiliaEndpointApim.class);
+    private final Object lockOrcamento = new Object();
+    private double tokensOrcamento;
+    private volatile ExecutorService executorPrimeiras;
+    private volatile ExecutorService executorHedge;
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * EXECUTA A REQUISIÇÃO, COM HEDGE QUANDO APLICÁVEL
+     */
+    public Response executar(Request request, Request.Options options, Client delegate) throws IOException {
+        if (!habilitado || request.httpMethod() != Request.HttpMethod.GET) {
+            return delegate.execute(request, options);
+        }
+
+        FamiliaEndpointApim familia = FamiliaEndpointApim.de(request);
+        long atrasoMs = atrasoHedge(familia);
+        ganharOrcamento();
+
+        long inicio = System.currentTimeMillis();
+        CompletableFuture<Response> primeira = enviar(request, options, delegate, executorPrimeiras());
+        try {
+            Response response = primeira.get(atrasoMs, TimeUnit.MILLISECONDS);
+            registrarLatencia(familia, System.currentTimeMillis() - inicio);
+            return response;
+        } catch (TimeoutException e) {
+            // Sem resposta dentro do percentil: tenta o hedge
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            descartarQuandoChegar(primeira);
+            throw new IOException("Interrompido aguardando resposta da OdontoPrev", e);
+        } catch (ExecutionException e) {
+            throw propagar(e.getCause());
+        }
+
+        if (!consumirOrcamento()) {
+            log.debug("⏱️ [HEDGE {}] Orçamento esgotado - aguardando a primeira tentativa de {}", familia, request.url());
+            return aguardar(primeira, familia, inicio);
+        }
+
+        CompletableFuture<Response> segunda;
+        try {
+            segunda = enviar(request, options, delegate, executorHedge());
+        } catch (RejectedExecutionException e) {
+            devolverOrcamento();
+            log.debug("⏱️ [HEDGE {}] Todas as {} threads de hedge ocupadas - aguardando a primeira tentativa de {}",
+                    familia, threads, request.url());
+            return aguardar(primeira, familia, inicio);
+        }
+        log.info("⏱️ [HEDGE {}] Sem resposta em {}ms - enviando segunda tentativa de {}", familia, atrasoMs, request.url());
+
+        // Cada tentativa fecha a própria resposta se outra já tiver vencido
+        CompletableFuture<Response> vencedora = new CompletableFuture<>();
+        AtomicInteger falhas = new AtomicInteger();
+        Throwable[] primeiroErro = new Throwable[1];
+        List<CompletableFuture<Response>> tentativas = List.of(primeira, segunda);
+        for (CompletableFuture<Response> tentativa : tentativas) {
+            tentativa.whenComplete((response, erro) -> {
+                if (erro == null) {
+                    if (!vencedora.complete(response)) {
+                        fechar(response);
+                    }
+                } else {
+                    synchronized (primeiroErro) {
+                        if (primeiroErro[0] == null || tentativa == primeira) {
+                            primeiroErro[0] = erro;
+                        }
+                    }
+                    if (falhas.incrementAndGet() == 2) {
+                        vencedora.completeExceptionally(primeiroErro[0]);
+                    }
+                }
+            });
+        }
+
+        return aguardar(vencedora, familia, inicio);
+    }
+
+    private Response aguardar(CompletableFuture<Response> futuro, FamiliaEndpointApim familia, long inicio) throws IOException {
+        try {
+            Response response = futuro.get();
+            registrarLatencia(familia, System.currentTimeMillis() - inicio);
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            descartarQuandoChegar(futuro);
+            throw new IOException("Interrompido aguardando resposta da OdontoPrev", e);
+        } catch (ExecutionException e) {
+            throw propagar(e.getCause());
+        }
+    }
+
+    private CompletableFuture<Response> enviar(Request request, Request.Options options, Client delegate,
+                                               ExecutorService executor) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return delegate.execute(request, options);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    private IOException propagar(Throwable erro) {
+        Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+        if (causa instanceof UncheckedIOException unchecked) {
+            return unchecked.getCause();
+        }
+        if (causa instanceof IOException io) {
+            return io;
+        }
+        if (causa instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        return new IOException(causa);
+    }
+
+    private void descartarQuandoChegar(CompletableFuture<Response> futuro) {
+        futuro.whenComplete((response, erro) -> fechar(response));
+    }
+
+    private static void fechar(Response response) {
+        if (response != null) {
+            try {
+                response.close();
+            } catch (Exception ignored) {
+                // resposta descartada: nada a fazer
+            }
+        }
+    }
+
+    private long atrasoHedge(FamiliaEndpointApim familia) {
+        Latencias amostras = latencias(familia);
+        synchronized (amostras) {
+            if (amostras.total < Math.min(20, amostras.valores.length)) {
+                return atrasoPadraoMs;
+            }
+            long[] copia = Arrays.copyOf(amostras.valores, amostras.total);
+            Arrays.sort(copia);
+            int indice = (int) Math.ceil(percentil / 100.0 * copia.length) - 1;
+            return Math.max(atrasoMinimoMs, copia[Math.max(0, Math.min(indice, copia.length - 1))]);
+        }
+    }
+
+    private void registrarLatencia(FamiliaEndpointApim familia, long ms) {
+        Latencias amostras = latencias(familia);
+        synchronized (amostras) {
+            amostras.valores[amostras.posicao] = ms;
+            amostras.posicao = (amostras.posicao + 1) % amostras.valores.length;
+            amostras.total = Math.min(amostras.total + 1, amostras.valores.length);
+        }
+    }
+
+    private void ganharOrcamento() {
+        synchronized (lockOrcamento) {
+            // Cada consulta rende uma fração de hedge; acumula no máximo 10 hedges
+            tokensOrcamento = Math.min(10.0, tokensOrcamento + orcamentoPercentual / 100.0);
+        }
+    }
+
+    private void devolverOrcamento() {
+        synchronized (lockOrcamento) {
+            tokensOrcamento = Math.min(10.0, tokensOrcamento + 1.0);
+        }
+    }
+
+    private boolean consumirOrcamento() {
+        synchronized (lockOrcamento) {
+            if (tokensOrcamento >= 1.0) {
+                tokensOrcamento -= 1.0;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private Latencias latencias(FamiliaEndpointApim familia) {
+        synchronized (latencias) {
+            return latencias.computeIfAbsent(familia, f -> new Latencias(quantidadeAmostras));
+        }
+    }
+
+    private ExecutorService executorPrimeiras() {
+        ExecutorService atual = executorPrimeiras;
+        if (atual == null) {
+            synchronized (this) {
+                atual = executorPrimeiras;
+                if (atual == null) {
+                    // Sem limite e sem fila: cada consulta começa na hora
+                    executorPrimeiras = atual = criarExecutor("OdontoPrev-Consulta-", 0, Integer.MAX_VALUE);
+                }
+            }
+        }
+        return atual;
+    }
+
+    private ExecutorService executorHedge() {
+        ExecutorService atual = executorHedge;
+        if (atual == null) {
+            synchronized (this) {
+                atual = executorHedge;
+                if (atual == null) {
+                    int tamanho = Math.max(1, threads);
+                    executorHedge = atual = criarExecutor("OdontoPrev-Hedge-", tamanho, tamanho);
+                }
+            }
+        }
+        return atual;
+    }
+
+    private static ExecutorService criarExecutor(String prefixo, int minimo, int maximo) {
+        AtomicInteger contador = new AtomicInteger();
+        // SynchronousQueue: a tarefa vai direto para uma thread livre ou é recusada
+        ThreadPoolExecutor novo = new ThreadPoolExecutor(minimo, maximo, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), r -> {
+                    Thread thread = new Thread(r, prefixo + contador.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        novo.allowCoreThreadTimeOut(true);
+        return novo;
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        encerrar(executorPrimeiras);
+        encerrar(executorHedge);
+    }
+
+    private static void encerrar(ExecutorService executor) {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Latencias {
+        private final long[] valores;
+        private int posicao;
+        private int total;
+
+        private Latencias(int tamanho) {
+            this.valores = new long[Math.max(1, tamanho)];
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LIMITADOR ADAPTATIVO (AIMD) DAS CHAMADAS AO APIM
+ *
+ * Controla quantas requisições podem estar em andamento ao mesmo tempo para
+ * cada família de endpoints (empresa, beneficiário, auth), ajustando o limite
+ * conforme a resposta da OdontoPrev:
+ *
+ * - Sucesso: aumento aditivo (+1 a cada "janela" de respostas bem-sucedidas)
+ * - 429 / 503 / timeout: redução multiplicativa (limite * fator), no máximo uma
+ *   vez por intervalo, para uma rajada de erros não zerar o limite
+ * - Retry-After: a família fica pausada até o instante indicado pelo servidor
+ *
+ * Como o tempo de resposta é praticamente constante, limitar a concorrência
+ * também limita a taxa. O resultado é uma vazão próxima do teto real da
+ * OdontoPrev, sem provocar ondas de throttling.
+ */
+@Slf4j
+@Component
+public class LimitadorAdaptativoApim {
+
+    private static final DateTimeFormatter FORMATO_HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    @Value("${odontoprev.http.limitador.enabled:true}")
+    private boolean habilitado;
+
+    @Value("${odontoprev.http.limitador.limite-inicial:4}")
+    private double limiteInicial;
+
+    @Value("${odontoprev.http.limitador.limite-minimo:1}")
+    private double limiteMinimo;
+
+    @Value("${odontoprev.http.limitador.limite-maximo:32}")
+    private double limiteMaximo;
+
+    // Fator aplicado ao limite quando há sinal de sobrecarga
+    @Value("${odontoprev.http.limitador.fator-reducao:0.5}")
+    private double fatorReducao;
+
+    // Intervalo mínimo entre duas reduções consecutivas
+    @Value("${odontoprev.http.limitador.intervalo-reducao-ms:1000}")
+    private long intervaloReducaoMs;
+
+    // Tempo máximo que uma chamada aguarda por uma vaga antes de falhar
+    @Value("${odontoprev.http.limitador.espera-maxima-ms:120000}")
+    private long esperaMaximaMs;
+
+    // Teto para pausas pedidas via Retry-After
+    @Value("${odontoprev.http.limitador.retry-after-maximo-segundos:300}")
+    private long retryAfterMaximoSegundos;
+
+    private final Map<FamiliaEndpointApim, EstadoFamilia> estados = new EnumMap<>(FamiliaEndpointApim.class);
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * AGUARDA UMA VAGA PARA A FAMÍLIA
+     *
+     * @throws IOException se a vaga não for obtida dentro da espera máxima
+     */
+    public void adquirir(FamiliaEndpointApim familia) throws IOException {
+        EstadoFamilia estado = estado(familia);
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+
+        estado.lock.lock();
+        try {
+            while (true) {
+                long agora = System.nanoTime();
+                long pausaRestante = estado.pausadoAteNanos - agora;
+                if (pausaRestante <= 0 && estado.emAndamento < Math.floor(estado.limite)) {
+                    estado.emAndamento++;
+                    return;
+                }
+
+                long esperaRestante = prazo - agora;
+                if (esperaRestante <= 0) {
+                    throw new IOException("Limite de concorrência da API " + familia + " não liberou vaga em "
+                            + esperaMaximaMs + "ms (limite atual: " + (int) Math.floor(estado.limite) + ")");
+                }
+                estado.vagaLiberada.awaitNanos(pausaRestante > 0 ? Math.min(pausaRestante, esperaRestante) : esperaRestante);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando vaga na API " + familia, e);
+        } finally {
+            estado.lock.unlock();
+        }
+    }
+
+    /**
+     * LIBERA A VAGA OCUPADA POR UMA CHAMADA
+     */
+    public void liberar(FamiliaEndpointApim familia) {
+        EstadoFamilia estado = estado(familia);
+        estado.lock.lock();
+        try {
+            estado.emAndamento--;
+            estado.vagaLiberada.signalAll();
+        } finally {
+            estado.lock.unlock();
+        }
+    }
+
+    /**
+     * AUMENTO ADITIVO APÓS RESPOSTA BEM-SUCEDIDA
+     */
+    public void registrarSucesso(FamiliaEndpointApim familia) {
+        EstadoFamilia estado = estado(familia);
+        estado.lock.lock();
+        try {
+            // +1/limite por sucesso = +1 a cada janela completa de respostas
+            estado.limite = Math.min(limiteMaximo, estado.limite + 1.0 / estado.limite);
+        } finally {
+            estado.lock.unlock();
+        }
+    }
+
+    /**
+     * REDUÇÃO MULTIPLICATIVA APÓS SINAL DE SOBRECARGA (429, 503, TIMEOUT)
+     *
+     * @param retryAfter valor do header Retry-After (segundos ou data HTTP), pode ser null
+     */
+    public void registrarSobrecarga(FamiliaEndpointApim familia, String motivo, String retryAfter) {
+        EstadoFamilia estado = estado(familia);
+        Duration pausa = interpretarRetryAfter(retryAfter);
+
+        estado.lock.lock();
+        try {
+            long agora = System.nanoTime();
+            if (agora - estado.ultimaReducaoNanos >= TimeUnit.MILLISECONDS.toNanos(intervaloReducaoMs)) {
+                double anterior = estado.limite;
+                estado.limite = Math.max(limiteMinimo, estado.limite * fatorReducao);
+                estado.ultimaReducaoNanos = agora;
+                log.warn("🚦 [LIMITADOR {}] {} - limite reduzido de {} para {}",
+                        familia, motivo, (int) Math.floor(anterior), (int) Math.floor(estado.limite));
+            }
+            if (pausa != null) {
+                estado.pausadoAteNanos = Math.max(estado.pausadoAteNanos, agora + pausa.toNanos());
+                log.warn("⏸️ [LIMITADOR {}] Retry-After recebido - chamadas pausadas por {}s", familia, pausa.toSeconds());
+            }
+        } finally {
+            estado.lock.unlock();
+        }
+    }
+
+    /**
+     * LIMITE ATUAL DE CONCORRÊNCIA DA FAMÍLIA (PARA LOGS E MONITORAMENTO)
+     */
+    public int limiteAtual(FamiliaEndpointApim familia) {
+        EstadoFamilia estado = estado(familia);
+        estado.lock.lock();
+        try {
+            return (int) Math.floor(estado.limite);
+        } finally {
+            estado.lock.unlock();
+        }
+    }
+
+    private Duration interpretarRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return null;
+        }
+        Duration pausa;
+        try {
+            pausa = Duration.ofSeconds(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                pausa = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(retryAfter.trim(), FORMATO_HTTP_DATE));
+            } catch (Exception ex) {
+                log.debug("Retry-After inválido ignorado: {}", retryAfter);
+                return null;
+            }
+        }
+        if (pausa.isNegative() || pausa.isZero()) {
+            return null;
+        }
+        Duration maximo = Duration.ofSeconds(retryAfterMaximoSegundos);
+        return pausa.compareTo(maximo) > 0 ? maximo : pausa;
+    }
+
+    private EstadoFamilia estado(FamiliaEndpointApim familia) {
+        synchronized (estados) {
+            return estados.computeIfAbsent(familia, f -> new EstadoFamilia(limiteInicial));
+        }
+    }
+
+    private static final class EstadoFamilia {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition vagaLiberada = lock.newCondition();
+        private double limite;
+        private int emAndamento;
+        private long pausadoAteNanos = System.nanoTime();
+        private long ultimaReducaoNanos = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+
+        private EstadoFamilia(double limiteInicial) {
+            this.limite = limiteInicial;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * POLÍTICA DE RETENTATIVA DOS ERROS DE SINCRONIZAÇÃO
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Decide, a partir da mensagem gravada no controle da TBSYNC, se o erro vale
+ * uma nova tentativa automática e quando ela deve acontecer
+ * (DATA_PROXIMA_TENTATIVA).
+ *
+ * CLASSES DE ERRO:
+ * - TERMINAL: HTTP 4xx (dados recusados, autorização) - repetir o mesmo
+ *   payload daria o mesmo resultado; só volta quando a view mudar.
+ *   Exceções: 408 e 429, que são sobrecarga/tempo e não problema do dado
+ * - RETENTÁVEL: HTTP 5xx, 408, 429 e falhas de I/O sem status HTTP (timeout,
+ *   conexão recusada/derrubada, circuito aberto) - limitado pelo máximo de tentativas
+ * - TERMINAL também: qualquer outro erro sem status HTTP (validação, mapeamento,
+ *   dado inválido, erro interno) - o reenvio do mesmo registro falharia igual
+ *
+ * FALHAS DE I/O PELA MENSAGEM:
+ * Só a mensagem chega ao controle. O Feign embrulha toda IOException da chamada
+ * (SocketTimeoutException, conexão recusada, limitador/hedge sem resposta) em
+ * RetryableException com a mensagem "<causa> executing <MÉTODO> <url>"; esse
+ * marcador e os nomes/textos das exceções de timeout e conexão identificam a
+ * falha transitória.
+ *
+ * BACKOFF EXPONENCIAL COM JITTER:
+ * espera = min(maximo, inicial * multiplicador^(tentativas - 1)),
+ * sorteada entre metade e o valor cheio. O jitter espalha no tempo os
+ * registros que falharam juntos (ex.: queda da API), para a volta não virar
+ * uma rajada.
+ *
+ * CONFIGURAÇÕES (application.yml):
+ * - odontoprev.controle-sync.retentativa.backoff-inicial-segundos
+ * - odontoprev.controle-sync.retentativa.backoff-maximo-segundos
+ * - odontoprev.controle-sync.retentativa.multiplicador
+ * - odontoprev.controle-sync.retentativa.max-tentativas-empresa
+ */
+@Component
+public class PoliticaRetentativa {
+
+    public enum ClasseErro { TERMINAL, RETENTAVEL }
+
+    // Formatos do FeignException: "[503 Service Unavailable] during [POST] to [...]" e "status 503 reading ..."
+    private static final Pattern STATUS_HTTP = Pattern.compile("\\[(\\d{3})\\b[^\\]]*\\]|status (\\d{3}) reading");
+
+    // IOException da chamada HTTP (RetryableException do Feign), timeout, conexão e circuito aberto
+    private static final Pattern FALHA_TRANSITORIA = Pattern.compile(
+            "executing (GET|POST|PUT|PATCH|DELETE) |RetryableException|IOException|SocketTimeoutException"
+                    + "|ConnectTimeoutException|HttpHostConnectException|UnknownHostException|timed out|timeout"
+                    + "|connection (refused|reset)|circuito aberto",
+            Pattern.CASE_INSENSITIVE);
+
+    @Value("${odontoprev.controle-sync.retentativa.enabled:false}")
+    private boolean habilitada;
+
+    @Value("${odontoprev.controle-sync.retentativa.backoff-inicial-segundos:60}")
+    private long backoffInicialSegundos;
+
+    @Value("${odontoprev.controle-sync.retentativa.backoff-maximo-segundos:3600}")
+    private long backoffMaximoSegundos;
+
+    @Value("${odontoprev.controle-sync.retentativa.multiplicador:2.0}")
+    private double multiplicador;
+
+    // A tabela de empresa não tem MAX_TENTATIVAS por registro (a de beneficiário tem)
+    @Value("${odontoprev.controle-sync.retentativa.max-tentativas-empresa:5}")
+    private int maxTentativasEmpresa;
+
+    public boolean isHabilitada() {
+        return habilitada;
+    }
+
+    public int getMaxTentativasEmpresa() {
+        return maxTentativasEmpresa;
+    }
+
+    /**
+     * CLASSIFICA O ERRO PELA MENSAGEM GRAVADA
+     */
+    public ClasseErro classificar(String erroMensagem) {
+        if (erroMensagem == null || erroMensagem.isBlank()) {
+            return ClasseErro.TERMINAL;
+        }
+        Matcher matcher = STATUS_HTTP.matcher(erroMensagem);
+        if (matcher.find()) {
+            int status = Integer.parseInt(matcher.group(1) != null ? matcher.group(1) : matcher.group(2));
+            boolean terminal = status >= 400 && status < 500 && status != 408 && status != 429;
+            return terminal ? ClasseErro.TERMINAL : ClasseErro.RETENTAVEL;
+        }
+        // Sem status HTTP: só falha de I/O volta; validação, mapeamento e erro interno não
+        return FALHA_TRANSITORIA.matcher(erroMensagem).find() ? ClasseErro.RETENTAVEL : ClasseErro.TERMINAL;
+    }
+
+    /**
+     * CALCULA A PRÓXIMA TENTATIVA DE UM REGISTRO COM ERRO
+     *
+     * @param erroMensagem mensagem gravada no controle
+     * @param tentativasRealizadas tentativas já feitas, contando a que acabou de falhar
+     * @param maxTentativas limite de tentativas do registro
+     * @return data/hora da próxima tentativa, ou null quando não há retentativa
+     *         (desabilitada, erro terminal ou tentativas esgotadas)
+     */
+    public LocalDateTime proximaTentativa(String erroMensagem, int tentativasRealizadas, int maxTentativas) {
+        if (!habilitada || tentativasRealizadas >= maxTentativas) {
+            return null;
+        }
+        if (classificar(erroMensagem) == ClasseErro.TERMINAL) {
+            return null;
+        }
+        return LocalDateTime.now().plusSeconds(esperaSegundos(tentativasRealizadas));
+    }
+
+    private long esperaSegundos(int tentativasRealizadas) {
+        int expoente = Math.max(0, tentativasRealizadas - 1);
+        double espera = backoffInicialSegundos * Math.pow(Math.max(1.0, multiplicador), expoente);
+        long teto = Math.max(1, (long) Math.min(espera, backoffMaximoSegundos));
+        long metade = teto / 2;
+        return metade + ThreadLocalRandom.current().nextLong(teto - metade + 1);
+    }
+}
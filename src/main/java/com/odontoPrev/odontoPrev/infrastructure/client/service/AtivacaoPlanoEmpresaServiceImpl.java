@@ -1,6 +1,7 @@
 package com.odontoPrev.odontoPrev.infrastructure.client.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontoPrev.odontoPrev.infrastructure.client.RespostaBrutaApi;
 import com.odontoPrev.odontoPrev.infrastructure.client.BeneficiarioOdontoprevFeignClient;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaAtivacaoPlanoRequest;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaAtivacaoPlanoResponse;
@@ -8,6 +9,7 @@ import com.odontoPrev.odontoPrev.infrastructure.client.domain.service.TokenServi
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.ControleSyncRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.TransicaoControleSync;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -44,6 +46,7 @@ public class AtivacaoPlanoEmpresaServiceImpl implements AtivacaoPlanoEmpresaServ
 
     private final BeneficiarioOdontoprevFeignClient feignClient;
     private final ControleSyncRepository controleSyncRepository;
+    private final TransicaoControleSync transicaoControleSync;
     private final ObjectMapper objectMapper;
     private final TokenService tokenService;
 
@@ -372,24 +375,21 @@ public class AtivacaoPlanoEmpresaServiceImpl implements AtivacaoPlanoEmpresaServ
      */
     private void processarSucessoAtivacao(ControleSync controleSync, EmpresaAtivacaoPlanoResponse response) {
         try {
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = RespostaBrutaApi.jsonDe(response, objectMapper);
             
             // VALIDAÇÃO: Verificar se a resposta da API contém codigoEmpresa válido
+            String codigoEmpresaApi = null;
             if (response != null && response.getCodigoEmpresa() != null && !response.getCodigoEmpresa().trim().isEmpty()) {
                 // Se a API retornou um codigoEmpresa válido, atualizar o controle
                 log.info("🔄 [ATIVAÇÃO PLANO] Atualizando codigoEmpresa do controle: {} -> {}", 
                         controleSync.getCodigoEmpresa(), response.getCodigoEmpresa());
-                controleSync.setCodigoEmpresa(response.getCodigoEmpresa());
+                codigoEmpresaApi = response.getCodigoEmpresa();
             } else {
                 log.warn("⚠️ [ATIVAÇÃO PLANO] API retornou codigoEmpresa vazio - mantendo codigoEmpresa original: {}", 
                         controleSync.getCodigoEmpresa());
             }
             
-            controleSync.setStatusSync(ControleSync.StatusSync.SUCCESS);
-            controleSync.setResponseApi(responseJson);
-            controleSync.setDataSucesso(LocalDateTime.now());
-            
-            controleSyncRepository.save(controleSync);
+            transicaoControleSync.sucesso(controleSync, codigoEmpresaApi, responseJson);
             
             log.info("✅ [ATIVAÇÃO PLANO] Status atualizado para SUCESSO - Empresa: {}", 
                     controleSync.getCodigoEmpresa());
@@ -419,12 +419,11 @@ public class AtivacaoPlanoEmpresaServiceImpl implements AtivacaoPlanoEmpresaServ
                         .statusSync(ControleSync.StatusSync.ERROR)
                         .dataCriacao(LocalDateTime.now())
                         .build();
+                controleSync.setErroMensagem(mensagemErro);
+                controleSyncRepository.save(controleSync);
             } else {
-                controleSync.setStatusSync(ControleSync.StatusSync.ERROR);
+                transicaoControleSync.erro(controleSync, mensagemErro);
             }
-
-            controleSync.setErroMensagem(mensagemErro);
-            controleSyncRepository.save(controleSync);
             
             log.info("❌ [ATIVAÇÃO PLANO] Status atualizado para ERRO - Empresa: {}", codigoEmpresa);
             
@@ -1,12 +1,22 @@
 package com.odontoPrev.odontoPrev.infrastructure.client.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odontoPrev.odontoPrev.infrastructure.client.OdontoprevAuthClient;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.LoginEmpresaRequest;
+import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.TokenResponse;
+import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
 /**
  * SERVIÇO DE AUTENTICAÇÃO ESPECÍFICO PARA API DE BENEFICIÁRIOS
  *
@@ -18,6 +28,14 @@ import org.springframework.stereotype.Service;
  * 1. Obtém token OAuth2 usando app-token
  * 2. Usa token OAuth2 para obter token de login empresa
  * 3. Retorna ambos os tokens para uso nas chamadas da API
+ *
+ * CACHE DO PAR DE TOKENS:
+ * - O par é reutilizado até a menor das validades (expires_in do OAuth2 e
+ *   claim "exp" do JWT de login empresa) menos a margem de segurança
+ * - A margem fica limitada à metade da vida do par: um token com validade menor
+ *   que a margem configurada ainda é reutilizado na primeira metade da vida
+ * - A renovação é feita por uma única thread; as demais aguardam e usam o par novo
+ * - Em 401 o par é invalidado e a chamada é repetida uma vez com tokens novos
  */
 @Slf4j
 @Service
@@ -25,7 +43,21 @@ import org.springframework.stereotype.Service;
 public class BeneficiarioTokenService {
 
     private final OdontoprevAuthClient odontoprevAuthClient;
+    private final ObjectMapper objectMapper;
+
+    // Par de tokens em cache (null = precisa renovar)
+    private volatile ParTokens parTokens;
+
+    // Garante uma única renovação por vez (single-flight)
+    private final Object lockRenovacao = new Object();
 
+    // Antecedência para renovar antes da expiração real (no máximo metade da vida do par)
+    @Value("${odontoprev.api.token.margem-seguranca-segundos:120}")
+    private long margemSegurancaSegundos;
+
+    // Validade assumida quando a resposta não informa expiração
+    @Value("${odontoprev.api.token.validade-padrao-segundos:1800}")
+    private long validadePadraoSegundos;
 
     @Value("${odontoprev.api.app-token}")
     private String appToken;
@@ -45,6 +77,10 @@ public class BeneficiarioTokenService {
      * @return token OAuth2 (Bearer 1)
      */
     public String obterTokenOAuth2() {
+        return "Bearer " + solicitarTokenOAuth2().getAccessToken();
+    }
+
+    private TokenResponse solicitarTokenOAuth2() {
         try {
             log.info("🔑 [TOKEN OAUTH2] Iniciando obtenção do token OAuth2 para API de beneficiários");
             log.info("🔑 [TOKEN OAUTH2] URL: https://apim-hml.odontoprev.com.br/oauth2/token");
@@ -56,10 +92,10 @@ public class BeneficiarioTokenService {
             long tempo = System.currentTimeMillis() - inicio;
             
             String token = "Bearer " + response.getAccessToken();
-            log.info("✅ [TOKEN OAUTH2] Token OAuth2 obtido com sucesso em {}ms", tempo);
+            log.info("✅ [TOKEN OAUTH2] Token OAuth2 obtido com sucesso em {}ms (expires_in: {}s)", tempo, response.getExpiresIn());
             log.info("✅ [TOKEN OAUTH2] Token: {}...", token.substring(0, Math.min(30, token.length())));
             
-            return token;
+            return response;
         } catch (Exception e) {
             log.error("❌ [TOKEN OAUTH2] Erro ao obter token OAuth2 para beneficiários: {}", e.getMessage());
             throw new RuntimeException("Falha na autenticação OAuth2 para beneficiários", e);
@@ -116,24 +152,124 @@ public class BeneficiarioTokenService {
     /**
      * OBTÉM AMBOS OS TOKENS NECESSÁRIOS PARA API DE BENEFICIÁRIOS
      *
+     * Retorna o par em cache enquanto estiver válido. Quando precisa renovar,
+     * apenas uma thread chama a autenticação; as demais aguardam e recebem o mesmo par.
+     *
      * @return array com [tokenOAuth2, tokenLoginEmpresa]
      */
     public String[] obterTokensCompletos() {
-        log.info("🚀 [AUTENTICAÇÃO COMPLETA] Iniciando processo de autenticação dupla para API de beneficiários");
-        log.info("🚀 [AUTENTICAÇÃO COMPLETA] Etapa 1: Obtendo token OAuth2");
-        log.info("🚀 [AUTENTICAÇÃO COMPLETA] Etapa 2: Obtendo token de login empresa");
-        
+        ParTokens atual = parTokens;
+        if (atual != null && atual.reutilizavelEm(Instant.now())) {
+            return atual.comoArray();
+        }
+
+        synchronized (lockRenovacao) {
+            // Outra thread pode ter renovado enquanto esta aguardava o lock
+            atual = parTokens;
+            if (atual != null && atual.reutilizavelEm(Instant.now())) {
+                return atual.comoArray();
+            }
+            parTokens = renovarParTokens();
+            return parTokens.comoArray();
+        }
+    }
+
+    /**
+     * INVALIDA O PAR DE TOKENS EM CACHE
+     *
+     * Só descarta o par se ainda for o mesmo usado na chamada que falhou,
+     * evitando jogar fora um par que outra thread acabou de renovar.
+     *
+     * @param tokensUsados par usado na chamada que recebeu 401
+     */
+    public void invalidarTokens(String[] tokensUsados) {
+        synchronized (lockRenovacao) {
+            ParTokens atual = parTokens;
+            if (atual != null && (tokensUsados == null || atual.tokenOAuth2().equals(tokensUsados[0]))) {
+                log.warn("🔄 [AUTENTICAÇÃO COMPLETA] Par de tokens invalidado");
+                parTokens = null;
+            }
+        }
+    }
+
+    /**
+     * EXECUTA CHAMADA À API DE BENEFICIÁRIOS COM OS TOKENS EM CACHE
+     *
+     * Se a API responder 401, invalida o par e repete a chamada uma única vez
+     * com tokens novos.
+     *
+     * @param chamada função que recebe [tokenOAuth2, tokenLoginEmpresa] e faz a chamada
+     * @return resultado da chamada
+     */
+    public <T> T executarComTokens(Function<String[], T> chamada) {
+        String[] tokens = obterTokensCompletos();
+        try {
+            return chamada.apply(tokens);
+        } catch (FeignException.Unauthorized e) {
+            log.warn("🔐 [AUTENTICAÇÃO COMPLETA] 401 na API de beneficiários - renovando tokens e repetindo a chamada");
+            invalidarTokens(tokens);
+            return chamada.apply(obterTokensCompletos());
+        }
+    }
+
+    private ParTokens renovarParTokens() {
+        log.info("🚀 [AUTENTICAÇÃO COMPLETA] Renovando par de tokens para API de beneficiários");
         long inicioTotal = System.currentTimeMillis();
-        
-        String tokenOAuth2 = obterTokenOAuth2();
+
+        TokenResponse respostaOAuth2 = solicitarTokenOAuth2();
+        String tokenOAuth2 = "Bearer " + respostaOAuth2.getAccessToken();
         String tokenLoginEmpresa = obterTokenLoginEmpresa(tokenOAuth2);
-        
-        long tempoTotal = System.currentTimeMillis() - inicioTotal;
-        
-        log.info("🎉 [AUTENTICAÇÃO COMPLETA] Processo de autenticação dupla concluído com sucesso em {}ms", tempoTotal);
-        log.info("🎉 [AUTENTICAÇÃO COMPLETA] Token OAuth2: {}...", tokenOAuth2.substring(0, Math.min(30, tokenOAuth2.length())));
-        log.info("🎉 [AUTENTICAÇÃO COMPLETA] Token Login Empresa: {}...", tokenLoginEmpresa.substring(0, Math.min(30, tokenLoginEmpresa.length())));
-        
-        return new String[]{tokenOAuth2, tokenLoginEmpresa};
+
+        Instant agora = Instant.now();
+        Instant expiracaoOAuth2 = respostaOAuth2.getExpiresIn() != null
+                ? agora.plusSeconds(respostaOAuth2.getExpiresIn())
+                : agora.plusSeconds(validadePadraoSegundos);
+        Instant expiracaoLogin = extrairExpiracaoJwt(tokenLoginEmpresa);
+        if (expiracaoLogin == null) {
+            expiracaoLogin = agora.plusSeconds(validadePadraoSegundos);
+        }
+        Instant expiraEm = expiracaoOAuth2.isBefore(expiracaoLogin) ? expiracaoOAuth2 : expiracaoLogin;
+
+        // Com a margem cheia, um token de vida curta (ex: 60s com margem de 120s) já
+        // nasceria vencido e cada chamada renovaria o par
+        long vidaSegundos = Math.max(0, Duration.between(agora, expiraEm).getSeconds());
+        long margemSegundos = Math.min(margemSegurancaSegundos, vidaSegundos / 2);
+        Instant renovarEm = expiraEm.minusSeconds(margemSegundos);
+
+        log.info("🎉 [AUTENTICAÇÃO COMPLETA] Par de tokens renovado em {}ms - válido até {} (renova a partir de {})",
+                System.currentTimeMillis() - inicioTotal, expiraEm, renovarEm);
+        return new ParTokens(tokenOAuth2, tokenLoginEmpresa, renovarEm);
+    }
+
+    /**
+     * LÊ O CLAIM "exp" DO JWT DE LOGIN EMPRESA (SEM VALIDAR ASSINATURA)
+     *
+     * @return instante de expiração ou null se o token não for um JWT legível
+     */
+    private Instant extrairExpiracaoJwt(String tokenBearer) {
+        try {
+            String jwt = tokenBearer.startsWith("Bearer ") ? tokenBearer.substring(7) : tokenBearer;
+            String[] partes = jwt.split("\\.");
+            if (partes.length < 2) {
+                return null;
+            }
+            String payload = new String(Base64.getUrlDecoder().decode(partes[1]), StandardCharsets.UTF_8);
+            JsonNode exp = objectMapper.readTree(payload).get("exp");
+            return exp != null && exp.canConvertToLong() ? Instant.ofEpochSecond(exp.asLong()) : null;
+        } catch (Exception e) {
+            log.debug("Não foi possível ler expiração do token de login empresa: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private record ParTokens(String tokenOAuth2, String tokenLoginEmpresa, Instant renovarEm) {
+
+        boolean reutilizavelEm(Instant instante) {
+            return renovarEm.isAfter(instante);
+        }
+
+        String[] comoArray() {
+            return new String[]{tokenOAuth2, tokenLoginEmpresa};
+        }
     }
 }
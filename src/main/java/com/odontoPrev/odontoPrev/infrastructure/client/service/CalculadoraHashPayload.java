@@ -0,0 +1,75 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.service;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * CALCULADORA DE HASH DE PAYLOAD
+ *
+ * Gera um hash SHA-256 estável do payload que será enviado para a OdontoPrev.
+ * O JSON é serializado de forma canônica (propriedades e chaves de mapas em
+ * ordem alfabética), então o mesmo conteúdo sempre gera o mesmo hash,
+ * independente da ordem de preenchimento dos campos.
+ *
+ * USO:
+ * As alterações de empresa e beneficiário comparam o hash do payload atual com
+ * o hash gravado na última sincronização com sucesso. Se forem iguais, o
+ * registro não teve mudança relevante e a chamada HTTP é evitada.
+ */
+@Slf4j
+@Component
+public class CalculadoraHashPayload {
+
+    private final ObjectMapper mapperCanonico;
+
+    public CalculadoraHashPayload(ObjectMapper objectMapper) {
+        // Cópia do ObjectMapper da aplicação (mesmos módulos e formatos) com ordenação estável.
+        // O bean do Spring Boot é um ObjectMapper simples (sem rebuild() do JsonMapper), então a
+        // ordenação das propriedades entra pela SerializationConfig da cópia
+        ObjectMapper copia = objectMapper.copy();
+        copia.setConfig(copia.getSerializationConfig()
+                .with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+        this.mapperCanonico = copia;
+    }
+
+    /**
+     * CALCULA O HASH DO PAYLOAD
+     *
+     * @param payload objeto que será enviado para a API
+     * @return hash SHA-256 em hexadecimal (64 caracteres) ou null se não for possível serializar
+     */
+    public String calcular(Object payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            byte[] json = mapperCanonico.writeValueAsBytes(payload);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível na JVM", e);
+        } catch (Exception e) {
+            log.warn("⚠️ [HASH PAYLOAD] Não foi possível calcular hash do payload {}: {}",
+                    payload.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * VERIFICA SE O PAYLOAD É IGUAL AO ÚLTIMO SINCRONIZADO
+     *
+     * @param hashAtual hash do payload atual
+     * @param hashUltimoSucesso hash gravado na última sincronização com sucesso
+     * @return true se os dois hashes existem e são iguais
+     */
+    public boolean semMudanca(String hashAtual, String hashUltimoSucesso) {
+        return hashAtual != null && hashAtual.equals(hashUltimoSucesso);
+    }
+}
@@ -4,6 +4,7 @@ import com.odontoPrev.odontoPrev.domain.service.ConsultaEmpresaOdontoprevService
 import com.odontoPrev.odontoPrev.infrastructure.client.OdontoprevClient;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaResponse;
 import com.odontoPrev.odontoPrev.infrastructure.client.domain.service.TokenService;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -39,6 +40,7 @@ public class ConsultaEmpresaOdontoprevServiceImpl implements ConsultaEmpresaOdon
     @Override
     @Retryable(
             value = { FeignException.TooManyRequests.class, FeignException.ServiceUnavailable.class, FeignException.GatewayTimeout.class },
+            notRecoverable = CircuitoAbertoException.class,
             maxAttempts = 5,
             backoff = @Backoff(delay = 15000, multiplier = 1.5)
     )
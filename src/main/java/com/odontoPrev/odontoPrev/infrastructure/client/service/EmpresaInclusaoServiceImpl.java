@@ -1,19 +1,21 @@
 package com.odontoPrev.odontoPrev.infrastructure.client.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.odontoPrev.odontoPrev.infrastructure.client.RespostaBrutaApi;
 import com.odontoPrev.odontoPrev.infrastructure.client.BeneficiarioOdontoprevFeignClient;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaAtivacaoPlanoRequest;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaAtivacaoPlanoResponse;
 import com.odontoPrev.odontoPrev.infrastructure.client.domain.service.TokenService;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevRepository;
 import com.odontoPrev.odontoPrev.infrastructure.repository.ControleSyncRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.TransicaoControleSync;
+import com.odontoPrev.odontoPrev.infrastructure.repository.ProcedureTasyLoteExecutor;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.jdbc.core.CallableStatementCallback;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
@@ -32,7 +34,8 @@ public class EmpresaInclusaoServiceImpl {
     private final TokenService tokenService;
     private final ObjectMapper objectMapper;
     private final ControleSyncRepository controleSyncRepository;
-    private final JdbcTemplate jdbcTemplate;
+    private final ProcedureTasyLoteExecutor procedureLoteExecutor;
+    private final TransicaoControleSync transicaoControleSync;
 
     @Value("${odontoprev.api.codigo-grupo-gerencial:787392}")
     private String codigoGrupoGerencialPadrao;
@@ -134,6 +137,12 @@ public class EmpresaInclusaoServiceImpl {
             return response;
 
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Inclusão da empresa {} adiada - {}", codigoEmpresaOrigem, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             // 8) Atualizar controle como ERROR - LOGS DETALHADOS DO ERRO
             log.error("❌ [INCLUSAO EMPRESA] ===== ERRO NA CHAMADA POST =====");
             log.error("❌ [INCLUSAO EMPRESA] Empresa: {}", codigoEmpresaOrigem);
@@ -187,27 +196,16 @@ public class EmpresaInclusaoServiceImpl {
         log.info("✅ [INCLUSAO EMPRESA] Validações passaram - todos os parâmetros são válidos");
         
         try {
-            String sql = "{ call TASY.SS_PLS_CAD_CODEMPRESA_ODONTOPREV(?, ?) }";
-            log.info("🔧 [INCLUSAO EMPRESA] SQL da procedure: {}", sql);
-            
-            log.info("🔄 [INCLUSAO EMPRESA] Executando CallableStatement...");
-            
-            jdbcTemplate.execute(sql, (CallableStatementCallback<Void>) cs -> {
-                log.info("🔗 [INCLUSAO EMPRESA] Conexão obtida - criando CallableStatement");
-                
-                // Configurar os parâmetros IN
-                cs.setLong(1, nrSequencia); // p_nr_sequencia as NUMBER
-                cs.setString(2, codigoEmpresaApi); // p_codigo_empresa as VARCHAR2
-                
-                log.info("📝 [INCLUSAO EMPRESA] Parâmetros setados - p_nr_sequencia={}, p_codigo_empresa='{}'", 
-                        nrSequencia, codigoEmpresaApi);
-                
-                log.info("⚡ [INCLUSAO EMPRESA] Executando cs.execute()...");
-                boolean result = cs.execute();
-                log.info("✅ [INCLUSAO EMPRESA] cs.execute() retornou: {}", result);
-                
-                return null;
-            });
+            if (procedureLoteExecutor.isLoteHabilitado()) {
+                log.info("📦 [INCLUSAO EMPRESA] Executando procedure em lote para nrSequencia={}", nrSequencia);
+                procedureLoteExecutor.executarCodigoEmpresaEmLote(nrSequencia, codigoEmpresaApi);
+                log.info("✅ [INCLUSAO EMPRESA] Procedure SS_PLS_CAD_CODEMPRESA_ODONTOPREV executada com sucesso (lote)");
+                return;
+            }
+
+            log.info("⚡ [INCLUSAO EMPRESA] Executando {} com p_nr_sequencia={}, p_codigo_empresa='{}'",
+                    ProcedureTasyLoteExecutor.SQL_CODEMPRESA, nrSequencia, codigoEmpresaApi);
+            procedureLoteExecutor.executarCodigoEmpresa(nrSequencia, codigoEmpresaApi);
             
             log.info("✅ [INCLUSAO EMPRESA] Procedure SS_PLS_CAD_CODEMPRESA_ODONTOPREV executada com sucesso");
             log.info("🎯 [INCLUSAO EMPRESA] Empresa {} agora deve ter codigoEmpresa atualizado na view", nrSequencia);
@@ -278,15 +276,10 @@ public class EmpresaInclusaoServiceImpl {
     private void processarSucessoControle(ControleSync controle, EmpresaAtivacaoPlanoResponse response) {
         if (controle == null) return;
         try {
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = RespostaBrutaApi.jsonDe(response, objectMapper);
             // Ajustar o codigoEmpresa do controle para o retornado pela API, se existir
-            if (response != null && response.getCodigoEmpresa() != null) {
-                controle.setCodigoEmpresa(response.getCodigoEmpresa());
-            }
-            controle.setStatusSync(ControleSync.StatusSync.SUCCESS);
-            controle.setResponseApi(responseJson);
-            controle.setDataSucesso(LocalDateTime.now());
-            controleSyncRepository.save(controle);
+            String codigoEmpresaApi = response != null ? response.getCodigoEmpresa() : null;
+            transicaoControleSync.sucesso(controle, codigoEmpresaApi, responseJson);
         } catch (Exception e) {
             log.error("❌ [CONTROLE] Erro ao processar sucesso da inclusão: {}", e.getMessage(), e);
         }
@@ -295,9 +288,7 @@ public class EmpresaInclusaoServiceImpl {
     private void processarErroControle(ControleSync controle, String mensagemErro) {
         if (controle == null) return;
         try {
-            controle.setStatusSync(ControleSync.StatusSync.ERROR);
-            controle.setErroMensagem(mensagemErro);
-            controleSyncRepository.save(controle);
+            transicaoControleSync.erro(controle, mensagemErro);
         } catch (Exception e) {
             log.error("❌ [CONTROLE] Erro ao registrar erro da inclusão: {}", e.getMessage(), e);
         }
@@ -0,0 +1,92 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.service;
+
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
+import feign.FeignException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * ENVIO DE LOTES PARA A ODONTOPREV COM DIVISÃO EM CASO DE REJEIÇÃO
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Centraliza a regra usada pelos envios em lote de beneficiários (alteração e
+ * inativação): a API recusa o lote inteiro quando um único item é inválido, então
+ * o lote é dividido ao meio até isolar os itens com problema.
+ *
+ * COMO FUNCIONA:
+ * 1. Executa o envio do lote
+ * 2. Circuit breaker aberto: o lote é adiado (nenhum item muda de status)
+ * 3. Rejeição de dados (4xx de validação) com mais de um item: divide em duas
+ *    metades e envia cada uma
+ * 4. Qualquer outra falha (ou rejeição de um item só): o callback de falha
+ *    registra o erro dos itens restantes
+ */
+@Slf4j
+@Component
+public class EnvioLoteComDivisao {
+
+    /**
+     * ENVIO DE UM LOTE
+     *
+     * @return quantidade de itens processados com sucesso
+     */
+    @FunctionalInterface
+    public interface EnvioLote<T> {
+        int enviar(List<T> lote) throws Exception;
+    }
+
+    /**
+     * ENVIA O LOTE, DIVIDINDO AO MEIO ENQUANTO A API REJEITAR OS DADOS
+     *
+     * @param lote itens do lote
+     * @param operacao rótulo dos logs (ex.: "ALTERAÇÃO LOTE")
+     * @param envio chamada à API e registro do resultado dos itens
+     * @param aoFalhar registro do erro dos itens quando o lote não pode mais ser dividido
+     * @return quantidade de itens processados com sucesso
+     */
+    public <T> int enviar(List<T> lote, String operacao, EnvioLote<T> envio,
+                          BiConsumer<List<T>, Exception> aoFalhar) {
+        try {
+            return envio.enviar(lote);
+
+        } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Lote de {} itens adiado ({}) - {}",
+                        lote.size(), operacao, circuitoAberto.getMessage());
+                return 0;
+            }
+
+            if (lote.size() > 1 && isRejeicaoDeDados(e)) {
+                // A API rejeita o lote inteiro por causa de um item: divide ao meio para isolar
+                int meio = lote.size() / 2;
+                log.warn("⚠️ [{}] Lote de {} itens rejeitado ({}), dividindo em {} + {}",
+                        operacao, lote.size(), e.getMessage(), meio, lote.size() - meio);
+                return enviar(lote.subList(0, meio), operacao, envio, aoFalhar)
+                        + enviar(lote.subList(meio, lote.size()), operacao, envio, aoFalhar);
+            }
+
+            log.error("❌ [{}] Falha no envio de {} itens: {}", operacao, lote.size(), e.getMessage());
+            aoFalhar.accept(lote, e);
+            return 0;
+        }
+    }
+
+    /**
+     * IDENTIFICA REJEIÇÃO DE DADOS PELA API
+     *
+     * Só vale dividir o lote quando a API recusou o conteúdo (4xx de validação).
+     * Falhas de autenticação, limite de requisições, timeout e 5xx afetariam
+     * igualmente as metades, então o lote inteiro é marcado com erro.
+     */
+    public boolean isRejeicaoDeDados(Exception e) {
+        if (e instanceof FeignException fe) {
+            int status = fe.status();
+            return status >= 400 && status < 500 && status != 401 && status != 403 && status != 429;
+        }
+        return false;
+    }
+}
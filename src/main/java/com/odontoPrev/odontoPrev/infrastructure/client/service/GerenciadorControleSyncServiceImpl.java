@@ -4,10 +4,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.odontoPrev.odontoPrev.domain.service.GerenciadorControleSyncService;
 import com.odontoPrev.odontoPrev.infrastructure.repository.ControleSyncRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.MergeControleSync;
+import com.odontoPrev.odontoPrev.infrastructure.repository.TransicaoControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,10 +28,16 @@ public class GerenciadorControleSyncServiceImpl implements GerenciadorControleSy
 
     private final ControleSyncRepository repository;
     private final ObjectMapper objectMapper;
+    private final TransicaoControleSync transicaoControleSync;
+    private final MergeControleSync mergeControleSync;
+
+    @Value("${odontoprev.controle-sync.merge.enabled:false}")
+    private boolean mergeHabilitado;
 
     @Override
     public ControleSync criarControle(String codigoEmpresa, IntegracaoOdontoprev dados) {
-        return criarOuAtualizarControle(codigoEmpresa, dados, ControleSync.TipoOperacao.CREATE, ControleSync.TipoControle.ADICAO);
+        return criarOuAtualizarControle(codigoEmpresa, serializar(codigoEmpresa, dados),
+                ControleSync.TipoOperacao.CREATE, ControleSync.TipoControle.ADICAO);
     }
     
     @Override
@@ -40,7 +49,41 @@ public class GerenciadorControleSyncServiceImpl implements GerenciadorControleSy
     
     @Override
     public ControleSync criarControle(String codigoEmpresa, IntegracaoOdontoprev dados, ControleSync.TipoOperacao tipoOperacao, ControleSync.TipoControle tipoControle) {
-        return criarOuAtualizarControle(codigoEmpresa, dados, tipoOperacao, tipoControle);
+        return criarOuAtualizarControle(codigoEmpresa, serializar(codigoEmpresa, dados), tipoOperacao, tipoControle);
+    }
+    
+    /**
+     * CRIA OU REAPROVEITA E GRAVA O CONTROLE
+     * 
+     * Os dados são serializados uma única vez. Com o MERGE habilitado, a busca
+     * do registro anterior e a gravação viram uma única chamada ao banco
+     * (MergeControleSync); senão, segue criarOuAtualizarControle + salvar.
+     */
+    @Override
+    public ControleSync registrarControle(String codigoEmpresa, IntegracaoOdontoprev dados,
+                                          ControleSync.TipoOperacao tipoOperacao, ControleSync.TipoControle tipoControle) {
+        String dadosJson = serializar(codigoEmpresa, dados);
+        
+        if (!mergeHabilitado) {
+            return salvar(criarOuAtualizarControle(codigoEmpresa, dadosJson, tipoOperacao, tipoControle));
+        }
+        
+        ControleSync controle = mergeControleSync.criarOuReaproveitar(codigoEmpresa, tipoOperacao, tipoControle,
+                determinarEndpoint(tipoOperacao, codigoEmpresa), dadosJson);
+        log.info("💾 [MERGE CONTROLE] Controle da empresa {} - ID: {}, Tipo: {}, Status: {}", 
+                codigoEmpresa, controle.getId(), tipoControle, controle.getStatusSync());
+        return controle;
+    }
+    
+    private String serializar(String codigoEmpresa, IntegracaoOdontoprev dados) {
+        try {
+            String dadosJson = objectMapper.writeValueAsString(dados);
+            log.debug("📄 [CRIAR CONTROLE] Dados JSON gerados: {} caracteres", dadosJson.length());
+            return dadosJson;
+        } catch (JsonProcessingException e) {
+            log.error("Erro ao serializar dados da empresa {}: {}", codigoEmpresa, e.getMessage());
+            throw new RuntimeException("Falha na criação do controle de sync", e);
+        }
     }
     
     /**
@@ -51,92 +94,84 @@ public class GerenciadorControleSyncServiceImpl implements GerenciadorControleSy
      * Se existir e o status for ERROR ou PENDING, atualiza o registro existente.
      * Se não existir, cria um novo registro.
      */
-    private ControleSync criarOuAtualizarControle(String codigoEmpresa, IntegracaoOdontoprev dados, 
+    private ControleSync criarOuAtualizarControle(String codigoEmpresa, String dadosJson, 
                                                   ControleSync.TipoOperacao tipoOperacao, ControleSync.TipoControle tipoControle) {
         log.info("🔧 [CRIAR CONTROLE] Iniciando criação/atualização para empresa: {}, Tipo: {}", 
                 codigoEmpresa, tipoControle);
         
-        try {
-            String dadosJson = objectMapper.writeValueAsString(dados);
-            log.debug("📄 [CRIAR CONTROLE] Dados JSON gerados: {} caracteres", dadosJson.length());
+        // Verificar se já existe um registro de controle para esta empresa e tipo
+        // Usa findFirst para evitar erro quando há múltiplos registros
+        log.debug("🔍 [CRIAR CONTROLE] Buscando registro existente para empresa: {}, tipo: {}", codigoEmpresa, tipoControle.getCodigo());
+        
+        // DEBUG: Verificar se há múltiplos registros
+        List<ControleSyncRepository.ResumoControle> todosControles = repository
+                .findResumosByChave(codigoEmpresa, tipoControle.getCodigo());
+        log.debug("🔍 [CRIAR CONTROLE] Total de registros encontrados: {}", todosControles.size());
+        
+        if (todosControles.size() > 1) {
+            log.warn("⚠️ [CRIAR CONTROLE] MÚLTIPLOS REGISTROS ENCONTRADOS para empresa {} - tipo {}: {}", 
+                    codigoEmpresa, tipoControle.getCodigo(), todosControles.size());
+            for (int i = 0; i < todosControles.size(); i++) {
+                ControleSyncRepository.ResumoControle c = todosControles.get(i);
+                log.warn("⚠️ [CRIAR CONTROLE] Registro {}: ID={}, Status={}, Data={}", 
+                        i + 1, c.getId(), c.getStatusSync(), c.getDataCriacao());
+            }
+        }
+        
+        Optional<ControleSync> controleExistente = repository
+                .findFirstByCodigoEmpresaAndTipoControleOrderByDataCriacaoDesc(codigoEmpresa, tipoControle.getCodigo());
+        
+        log.debug("🔍 [CRIAR CONTROLE] Resultado da busca: {}", controleExistente.isPresent() ? "ENCONTRADO" : "NÃO ENCONTRADO");
+        
+        if (controleExistente.isPresent()) {
+            ControleSync controle = controleExistente.get();
+            log.info("🔄 [CRIAR CONTROLE] Registro existente encontrado - ID: {}, Status: {}", 
+                    controle.getId(), controle.getStatusSync());
             
-            // Verificar se já existe um registro de controle para esta empresa e tipo
-            // Usa findFirst para evitar erro quando há múltiplos registros
-            log.debug("🔍 [CRIAR CONTROLE] Buscando registro existente para empresa: {}, tipo: {}", codigoEmpresa, tipoControle.getCodigo());
+            // Se já foi processado com sucesso, não criar novo registro
+            if (controle.getStatusSync() == ControleSync.StatusSync.SUCCESS) {
+                log.info("✅ [CRIAR CONTROLE] Empresa {} já foi processada com sucesso, não criando novo registro", codigoEmpresa);
+                log.info("✅ [CRIAR CONTROLE] Retornando registro existente com ID: {}", controle.getId());
+                return controle;
+            }
             
-            // DEBUG: Verificar se há múltiplos registros
-            List<ControleSync> todosControles = repository
-                    .findByCodigoEmpresaAndTipoControleOrderByDataCriacaoDesc(codigoEmpresa, tipoControle.getCodigo());
-            log.debug("🔍 [CRIAR CONTROLE] Total de registros encontrados: {}", todosControles.size());
+            // Se está em erro ou pendente, atualizar o registro existente
+            log.info("🔄 [CRIAR CONTROLE] REUTILIZANDO registro existente para empresa {} - Status atual: {}", 
+                    codigoEmpresa, controle.getStatusSync());
+            log.info("🔄 [CRIAR CONTROLE] ATENÇÃO: Não criando novo registro - reutilizando ID: {}", controle.getId());
+            log.info("🔄 [CRIAR CONTROLE] Atualizando dados do registro existente...");
             
-            if (todosControles.size() > 1) {
-                log.warn("⚠️ [CRIAR CONTROLE] MÚLTIPLOS REGISTROS ENCONTRADOS para empresa {} - tipo {}: {}", 
-                        codigoEmpresa, tipoControle.getCodigo(), todosControles.size());
-                for (int i = 0; i < todosControles.size(); i++) {
-                    ControleSync c = todosControles.get(i);
-                    log.warn("⚠️ [CRIAR CONTROLE] Registro {}: ID={}, Status={}, Data={}", 
-                            i + 1, c.getId(), c.getStatusSync(), c.getDataCriacao());
-                }
-            }
+            controle.setDadosJson(dadosJson);
+            controle.setStatusSync(ControleSync.StatusSync.PENDING);
+            controle.setDataCriacao(LocalDateTime.now());
+            controle.setResponseApi(null);
+            controle.setErroMensagem(null);
+            controle.setDataProximaTentativa(null);
             
-            Optional<ControleSync> controleExistente = repository
-                    .findFirstByCodigoEmpresaAndTipoControleOrderByDataCriacaoDesc(codigoEmpresa, tipoControle.getCodigo());
+            return controle;
+        } else {
+            // Criar novo registro APENAS se não existir nenhum
+            log.info("🆕 [CRIAR CONTROLE] Nenhum registro existente encontrado - Criando novo para empresa {}", codigoEmpresa);
+            log.info("🆕 [CRIAR CONTROLE] ATENÇÃO: Este é um NOVO registro - empresa {} não tinha registro anterior", codigoEmpresa);
             
-            log.debug("🔍 [CRIAR CONTROLE] Resultado da busca: {}", controleExistente.isPresent() ? "ENCONTRADO" : "NÃO ENCONTRADO");
+            String endpoint = determinarEndpoint(tipoOperacao, codigoEmpresa);
+            log.debug("🌐 [CRIAR CONTROLE] Endpoint determinado: {}", endpoint);
             
-            if (controleExistente.isPresent()) {
-                ControleSync controle = controleExistente.get();
-                log.info("🔄 [CRIAR CONTROLE] Registro existente encontrado - ID: {}, Status: {}", 
-                        controle.getId(), controle.getStatusSync());
-                
-                // Se já foi processado com sucesso, não criar novo registro
-                if (controle.getStatusSync() == ControleSync.StatusSync.SUCCESS) {
-                    log.info("✅ [CRIAR CONTROLE] Empresa {} já foi processada com sucesso, não criando novo registro", codigoEmpresa);
-                    log.info("✅ [CRIAR CONTROLE] Retornando registro existente com ID: {}", controle.getId());
-                    return controle;
-                }
-                
-                // Se está em erro ou pendente, atualizar o registro existente
-                log.info("🔄 [CRIAR CONTROLE] REUTILIZANDO registro existente para empresa {} - Status atual: {}", 
-                        codigoEmpresa, controle.getStatusSync());
-                log.info("🔄 [CRIAR CONTROLE] ATENÇÃO: Não criando novo registro - reutilizando ID: {}", controle.getId());
-                log.info("🔄 [CRIAR CONTROLE] Atualizando dados do registro existente...");
-                
-                controle.setDadosJson(dadosJson);
-                controle.setStatusSync(ControleSync.StatusSync.PENDING);
-                controle.setDataCriacao(LocalDateTime.now());
-                controle.setResponseApi(null);
-                controle.setErroMensagem(null);
-                
-                return controle;
-            } else {
-                // Criar novo registro APENAS se não existir nenhum
-                log.info("🆕 [CRIAR CONTROLE] Nenhum registro existente encontrado - Criando novo para empresa {}", codigoEmpresa);
-                log.info("🆕 [CRIAR CONTROLE] ATENÇÃO: Este é um NOVO registro - empresa {} não tinha registro anterior", codigoEmpresa);
-                
-                String endpoint = determinarEndpoint(tipoOperacao, codigoEmpresa);
-                log.debug("🌐 [CRIAR CONTROLE] Endpoint determinado: {}", endpoint);
-                
-                ControleSync novoControle = ControleSync.builder()
-                        .codigoEmpresa(codigoEmpresa)
-                        .tipoOperacao(tipoOperacao)
-                        .tipoControle(tipoControle.getCodigo())
-                        .endpointDestino(endpoint)
-                        .dadosJson(dadosJson)
-                        .statusSync(ControleSync.StatusSync.PENDING)
-                        .dataCriacao(LocalDateTime.now())
-                        .build();
-                
-                log.info("📋 [CRIAR CONTROLE] Novo controle criado - Empresa: {}, Tipo: {}, Status: {}", 
-                        novoControle.getCodigoEmpresa(), novoControle.getTipoControle(), novoControle.getStatusSync());
-                log.info("🆕 [CRIAR CONTROLE] ATENÇÃO: Este é um NOVO registro - empresa {} não tinha registro anterior", codigoEmpresa);
-                
-                return novoControle;
-            }
-                    
-        } catch (JsonProcessingException e) {
-            log.error("Erro ao serializar dados da empresa {}: {}", codigoEmpresa, e.getMessage());
-            throw new RuntimeException("Falha na criação do controle de sync", e);
+            ControleSync novoControle = ControleSync.builder()
+                    .codigoEmpresa(codigoEmpresa)
+                    .tipoOperacao(tipoOperacao)
+                    .tipoControle(tipoControle.getCodigo())
+                    .endpointDestino(endpoint)
+                    .dadosJson(dadosJson)
+                    .statusSync(ControleSync.StatusSync.PENDING)
+                    .dataCriacao(LocalDateTime.now())
+                    .build();
+            
+            log.info("📋 [CRIAR CONTROLE] Novo controle criado - Empresa: {}, Tipo: {}, Status: {}", 
+                    novoControle.getCodigoEmpresa(), novoControle.getTipoControle(), novoControle.getStatusSync());
+            log.info("🆕 [CRIAR CONTROLE] ATENÇÃO: Este é um NOVO registro - empresa {} não tinha registro anterior", codigoEmpresa);
+            
+            return novoControle;
         }
     }
     
@@ -167,10 +202,7 @@ public class GerenciadorControleSyncServiceImpl implements GerenciadorControleSy
         log.info("🔄 [ATUALIZAR SUCESSO] Iniciando atualização de sucesso para empresa: {}", controle.getCodigoEmpresa());
         log.info("🔄 [ATUALIZAR SUCESSO] ID do controle: {}, Status atual: {}", controle.getId(), controle.getStatusSync());
         
-        controle.setStatusSync(ControleSync.StatusSync.SUCCESS);
-        controle.setResponseApi(responseJson);
-        controle.setDataSucesso(LocalDateTime.now());
-        controle.setErroMensagem(null);
+        transicaoControleSync.sucesso(controle, null, responseJson);
         
         log.info("✅ [ATUALIZAR SUCESSO] Controle atualizado - Status: {}, Data sucesso: {}", 
                 controle.getStatusSync(), controle.getDataSucesso());
@@ -180,9 +212,7 @@ public class GerenciadorControleSyncServiceImpl implements GerenciadorControleSy
 
     @Override
     public void atualizarErro(ControleSync controle, String mensagemErro) {
-        controle.setStatusSync(ControleSync.StatusSync.ERROR);
-        controle.setErroMensagem(mensagemErro);
-        controle.setResponseApi(null);
+        transicaoControleSync.erro(controle, mensagemErro);
         
         log.error("Erro na sincronização da empresa {}: {}", 
                 controle.getCodigoEmpresa(), mensagemErro);
@@ -206,4 +236,9 @@ public class GerenciadorControleSyncServiceImpl implements GerenciadorControleSy
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public void atualizarDadosJson(ControleSync controle, String dadosJson) {
+        transicaoControleSync.dadosEnviados(controle, dadosJson);
+    }
+}
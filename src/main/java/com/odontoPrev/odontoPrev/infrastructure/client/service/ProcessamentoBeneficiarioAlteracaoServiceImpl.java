@@ -8,17 +8,25 @@ import com.odontoPrev.odontoPrev.domain.service.ProcessamentoBeneficiarioAlterac
 import com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.BeneficiarioOdontoprevFeignClient;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.BeneficiarioAlteracaoRequestNew;
+import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.BeneficiarioAlteracaoResponseNew;
 import com.odontoPrev.odontoPrev.infrastructure.exception.ProcessamentoBeneficiarioException;
+import com.odontoPrev.odontoPrev.infrastructure.repository.TransicaoControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioRepository;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiario;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao.TipoExcecao.PROCESSAMENTO_BENEFICIARIO;
@@ -51,9 +59,18 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
 
     private final BeneficiarioOdontoprevFeignClient odontoprevClient;
     private final ControleSyncBeneficiarioRepository controleSyncRepository;
+    private final TransicaoControleSync transicaoControleSync;
     private final IntegracaoOdontoprevBeneficiarioRepository integracaoOdontoprevBeneficiarioRepository;
     private final BeneficiarioTokenService beneficiarioTokenService;
     private final ObjectMapper objectMapper;
+    private final CalculadoraHashPayload calculadoraHashPayload;
+    private final EnvioLoteComDivisao envioLoteComDivisao;
+
+    @Value("${odontoprev.sync.alteracao.ignorar-sem-mudanca:true}")
+    private boolean ignorarSemMudanca;
+
+    @Value("${odontoprev.sync.beneficiario.alteracao.tamanho-lote:20}")
+    private int tamanhoLoteAlteracao;
 
     /**
      * PROCESSA ALTERAÇÃO DE UM ÚNICO BENEFICIÁRIO
@@ -83,6 +100,14 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
             // Etapa 2: Conversão para DTO de alteração
             BeneficiarioAlteracaoRequestNew request = converterParaAlteracaoRequestNew(beneficiario);
 
+            // Etapa 2.1: Ignorar alteração sem mudança desde a última sincronização com sucesso
+            String hashPayload = calculadoraHashPayload.calcular(request);
+            if (alteracaoSemMudanca(beneficiario, hashPayload)) {
+                log.info("⏭️ [ALTERAÇÃO] Beneficiário {} sem mudanças desde a última sincronização - chamada ignorada",
+                        codigoMatricula);
+                return;
+            }
+
             // Etapa 3: Criar ou atualizar registro de controle
             log.info("🔍 [ALTERAÇÃO] Verificando se já existe registro de controle para beneficiário {}", codigoMatricula);
             controleSync = criarOuAtualizarRegistroControle(beneficiario, request);
@@ -99,20 +124,14 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
             log.info("🚀 [ALTERAÇÃO] Enviando alteração do beneficiário {} (cdAssociado: {}) para OdontoPrev",
                     codigoMatricula, cdAssociado);
 
-            // Obter tokens para autenticação dupla
-            String[] tokens = beneficiarioTokenService.obterTokensCompletos();
-            String tokenOAuth2 = tokens[0];
-            String tokenLoginEmpresa = tokens[1];
-            
-            log.info("🔑 [ALTERAÇÃO] Tokens obtidos - OAuth2: {}..., LoginEmpresa: {}...",
-                    tokenOAuth2.substring(0, Math.min(20, tokenOAuth2.length())),
-                    tokenLoginEmpresa.substring(0, Math.min(20, tokenLoginEmpresa.length())));
-
+            // Tokens da autenticação dupla vêm do cache; em 401 são renovados e a chamada repetida
             long inicioChamada = System.currentTimeMillis();
-            odontoprevClient.alterarBeneficiarioNew(
-                    tokenOAuth2,
-                    tokenLoginEmpresa,
-                    List.of(request) // Enviar como array conforme documentação da API
+            beneficiarioTokenService.executarComTokens(
+                    tokens -> odontoprevClient.alterarBeneficiarioNew(
+                            tokens[0],
+                            tokens[1],
+                            List.of(request) // Enviar como array conforme documentação da API
+                    )
             );
             long tempoResposta = System.currentTimeMillis() - inicioChamada;
             
@@ -120,9 +139,15 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
                     codigoMatricula, tempoResposta);
 
             // Etapa 5: Atualização do status no banco
-            atualizarStatusSucesso(beneficiario, controleSync);
+            atualizarStatusSucesso(beneficiario, controleSync, hashPayload);
 
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Alteração do beneficiário {} adiada - {}", codigoMatricula, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             // Tratamento de erro abrangente
             String mensagem = "Erro durante processamento de alteração: " + e.getMessage();
             atualizarStatusErro(beneficiario, mensagem, controleSync);
@@ -135,6 +160,189 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
         }
     }
 
+    /**
+     * PROCESSA ALTERAÇÕES EM LOTE
+     *
+     * FLUXO:
+     * 1. Valida, converte e descarta (hash) as alterações sem mudança
+     * 2. Cria/atualiza o registro de controle de cada beneficiário (PROCESSING)
+     * 3. Agrupa por empresa em lotes de até tamanho-lote itens
+     * 4. Envia cada lote em uma única chamada PUT /alterar
+     * 5. Em caso de rejeição (4xx), divide o lote ao meio até isolar os itens com erro
+     * 6. Em resposta 2xx, só os itens confirmados em dadosAlteracao ficam com SUCESSO;
+     *    os demais seguem o fluxo de erro/retentativa
+     *
+     * TRANSAÇÃO:
+     * Diferente da alteração individual, não é @Transactional: cada transição do
+     * controle (TransicaoControleSync) é um UPDATE próprio e já atômico por item.
+     * Uma transação do lote inteiro prenderia uma conexão de escrita durante todas
+     * as chamadas à API e, numa falha tardia, desfaria o registro de itens que a
+     * OdontoPrev já confirmou.
+     */
+    @Override
+    @MonitorarOperacao(
+            operacao = "PROCESSAR_ALTERACOES_EM_LOTE",
+            excecaoEmErro = PROCESSAMENTO_BENEFICIARIO
+    )
+    public int processarAlteracoesEmLote(List<BeneficiarioOdontoprev> beneficiarios) {
+        Map<String, List<ItemAlteracao>> itensPorEmpresa = new LinkedHashMap<>();
+
+        for (BeneficiarioOdontoprev beneficiario : beneficiarios) {
+            try {
+                if (!validarBeneficiarioParaAlteracao(beneficiario)) {
+                    atualizarStatusErro(beneficiario, "Beneficiário não atende pré-requisitos para alteração", null);
+                    continue;
+                }
+
+                BeneficiarioAlteracaoRequestNew request = converterParaAlteracaoRequestNew(beneficiario);
+                String hashPayload = calculadoraHashPayload.calcular(request);
+                if (alteracaoSemMudanca(beneficiario, hashPayload)) {
+                    log.info("⏭️ [ALTERAÇÃO LOTE] Beneficiário {} sem mudanças desde a última sincronização - ignorado",
+                            beneficiario.getCodigoMatricula());
+                    continue;
+                }
+
+                ControleSyncBeneficiario controle = criarOuAtualizarRegistroControle(beneficiario, request);
+                if (controle == null) {
+                    log.error("❌ [ALTERAÇÃO LOTE] Falha ao criar registro de controle para beneficiário {}",
+                            beneficiario.getCodigoMatricula());
+                    continue;
+                }
+
+                itensPorEmpresa.computeIfAbsent(beneficiario.getCodigoEmpresa(), k -> new ArrayList<>())
+                        .add(new ItemAlteracao(beneficiario, request, hashPayload, controle));
+            } catch (Exception e) {
+                log.error("❌ [ALTERAÇÃO LOTE] Erro ao preparar alteração do beneficiário {}: {}",
+                        beneficiario.getCodigoMatricula(), e.getMessage());
+                atualizarStatusErro(beneficiario, "Erro durante processamento de alteração: " + e.getMessage(), null);
+            }
+        }
+
+        int tamanhoLote = Math.max(1, tamanhoLoteAlteracao);
+        int sucesso = 0;
+        for (Map.Entry<String, List<ItemAlteracao>> empresa : itensPorEmpresa.entrySet()) {
+            List<ItemAlteracao> itens = empresa.getValue();
+            for (int inicio = 0; inicio < itens.size(); inicio += tamanhoLote) {
+                List<ItemAlteracao> lote = itens.subList(inicio, Math.min(inicio + tamanhoLote, itens.size()));
+                log.info("🚀 [ALTERAÇÃO LOTE] Enviando lote de {} alterações da empresa {}", lote.size(), empresa.getKey());
+                sucesso += enviarLoteAlteracao(lote);
+            }
+        }
+
+        log.info("✅ [ALTERAÇÃO LOTE] {} de {} alterações processadas com sucesso", sucesso, beneficiarios.size());
+        return sucesso;
+    }
+
+    /**
+     * ENVIA UM LOTE DE ALTERAÇÕES (COM DIVISÃO EM CASO DE REJEIÇÃO)
+     *
+     * @return quantidade de itens alterados com sucesso
+     */
+    private int enviarLoteAlteracao(List<ItemAlteracao> lote) {
+        return envioLoteComDivisao.enviar(lote, "ALTERAÇÃO LOTE", parte -> {
+            List<BeneficiarioAlteracaoRequestNew> requests = parte.stream().map(ItemAlteracao::request).toList();
+
+            long inicioChamada = System.currentTimeMillis();
+            BeneficiarioAlteracaoResponseNew response = beneficiarioTokenService.executarComTokens(
+                    tokens -> odontoprevClient.alterarBeneficiarioNew(tokens[0], tokens[1], requests)
+            );
+            log.info("✅ [ALTERAÇÃO LOTE] Lote de {} alterações respondido em {}ms",
+                    parte.size(), System.currentTimeMillis() - inicioChamada);
+
+            return registrarResultadoLote(parte, response);
+        }, (parte, e) -> {
+            String mensagem = "Erro durante processamento de alteração: " + e.getMessage();
+            parte.forEach(item -> atualizarStatusErro(item.beneficiario(), mensagem, item.controle()));
+        });
+    }
+
+    /**
+     * REGISTRA O RESULTADO DE CADA ITEM DO LOTE
+     *
+     * A resposta 2xx vale para o lote, mas a API confirma item a item em
+     * dadosAlteracao (codigoAssociado + nmrImportacao). Item confirmado fica com
+     * SUCESSO guardando seu número de importação; item ausente da lista ou sem
+     * nmrImportacao foi recusado e vai para o fluxo de erro/retentativa.
+     * Sem dadosAlteracao na resposta não há detalhe por item e vale o mesmo
+     * critério da alteração individual (2xx = sucesso).
+     *
+     * @return quantidade de itens confirmados
+     */
+    private int registrarResultadoLote(List<ItemAlteracao> lote, BeneficiarioAlteracaoResponseNew response) {
+        List<BeneficiarioAlteracaoResponseNew.DadosAlteracao> itensResposta =
+                response != null ? response.getDadosAlteracao() : null;
+        if (itensResposta == null || itensResposta.isEmpty()) {
+            lote.forEach(item -> atualizarStatusSucesso(item.beneficiario(), item.controle(), item.hashPayload()));
+            return lote.size();
+        }
+
+        Map<String, BeneficiarioAlteracaoResponseNew.DadosAlteracao> dadosPorAssociado = new HashMap<>();
+        for (BeneficiarioAlteracaoResponseNew.DadosAlteracao dados : itensResposta) {
+            if (dados.getCodigoAssociado() != null) {
+                dadosPorAssociado.put(dados.getCodigoAssociado(), dados);
+            }
+        }
+
+        int confirmados = 0;
+        for (ItemAlteracao item : lote) {
+            BeneficiarioAlteracaoResponseNew.DadosAlteracao dados =
+                    dadosPorAssociado.get(item.beneficiario().getCdAssociado());
+            if (dados == null || !StringUtils.hasText(dados.getNmrImportacao())) {
+                String mensagem = "Alteração não confirmada pela OdontoPrev no retorno do lote"
+                        + (response.getMensagem() != null ? ": " + response.getMensagem() : "");
+                log.warn("⚠️ [ALTERAÇÃO LOTE] Beneficiário {} (cdAssociado: {}) recusado no lote",
+                        item.beneficiario().getCodigoMatricula(), item.beneficiario().getCdAssociado());
+                atualizarStatusErro(item.beneficiario(), mensagem, item.controle());
+                continue;
+            }
+
+            String responseApi = "Alteração realizada com sucesso";
+            try {
+                responseApi = objectMapper.writeValueAsString(dados);
+            } catch (Exception e) {
+                log.debug("Não foi possível serializar resposta do item {}: {}",
+                        item.beneficiario().getCodigoMatricula(), e.getMessage());
+            }
+            atualizarStatusSucesso(item.beneficiario(), item.controle(), item.hashPayload(), responseApi);
+            confirmados++;
+        }
+
+        if (confirmados < lote.size()) {
+            log.warn("⚠️ [ALTERAÇÃO LOTE] {} de {} itens do lote confirmados pela OdontoPrev", confirmados, lote.size());
+        }
+        return confirmados;
+    }
+
+    private record ItemAlteracao(BeneficiarioOdontoprev beneficiario,
+                                 BeneficiarioAlteracaoRequestNew request,
+                                 String hashPayload,
+                                 ControleSyncBeneficiario controle) {
+    }
+
+    /**
+     * VERIFICA SE A ALTERAÇÃO É IGUAL À ÚLTIMA ENVIADA COM SUCESSO
+     *
+     * Compara o hash do payload atual com o hash gravado no registro de controle
+     * de ALTERACAO. O Tasy reapresenta linhas na view de alteração mesmo sem
+     * mudança nos campos enviados; nesses casos não há o que sincronizar.
+     */
+    private boolean alteracaoSemMudanca(BeneficiarioOdontoprev beneficiario, String hashPayload) {
+        if (!ignorarSemMudanca || hashPayload == null) {
+            return false;
+        }
+        try {
+            return controleSyncRepository
+                    .findResumoByChave(beneficiario.getCodigoEmpresa(), beneficiario.getCodigoMatricula(), "ALTERACAO")
+                    .filter(c -> "SUCESSO".equals(c.getStatusSync()) || "SUCCESS".equals(c.getStatusSync()))
+                    .map(c -> calculadoraHashPayload.semMudanca(hashPayload, c.getHashPayload()))
+                    .orElse(false);
+        } catch (Exception e) {
+            log.warn("⚠️ [ALTERAÇÃO] Erro ao comparar hash do beneficiário {}: {}",
+                    beneficiario.getCodigoMatricula(), e.getMessage());
+            return false; // Em caso de dúvida, envia a alteração
+        }
+    }
+
     /**
      * VALIDA SE BENEFICIÁRIO PODE SER ALTERADO
      *
@@ -344,6 +552,7 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
                 controle.setDataUltimaTentativa(LocalDateTime.now());
                 controle.setResponseApi(null); // Limpar resposta anterior
                 controle.setErroMensagem(null); // Limpar erro anterior
+                controle.setDataProximaTentativa(null); // Esta é a tentativa que estava agendada
                 
                 log.info("🔄 [CONTROLE] Atualizando registro existente para beneficiário {} - ID: {}, Tentativa: {}", 
                         codigoMatricula, controle.getId(), controle.getTentativas());
@@ -382,13 +591,16 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
      *
      * Atualiza o registro de controle com o resultado de sucesso.
      */
-    private void atualizarStatusSucesso(BeneficiarioOdontoprev beneficiario, ControleSyncBeneficiario controle) {
+    private void atualizarStatusSucesso(BeneficiarioOdontoprev beneficiario, ControleSyncBeneficiario controle,
+                                        String hashPayload) {
+        atualizarStatusSucesso(beneficiario, controle, hashPayload, "Alteração realizada com sucesso");
+    }
+
+    private void atualizarStatusSucesso(BeneficiarioOdontoprev beneficiario, ControleSyncBeneficiario controle,
+                                        String hashPayload, String responseApi) {
         if (controle != null) {
             try {
-                controle.setStatusSync("SUCESSO");
-                controle.setDataSucesso(LocalDateTime.now());
-                controle.setResponseApi("Alteração realizada com sucesso");
-                controleSyncRepository.save(controle);
+                transicaoControleSync.sucesso(controle, responseApi, hashPayload);
                 log.info("Status do beneficiário {} atualizado para SUCESSO no controle de sincronização", beneficiario.getCodigoMatricula());
             } catch (Exception e) {
                 log.error("Erro ao registrar sucesso no controle: {}", e.getMessage(), e);
@@ -430,13 +642,12 @@ public class ProcessamentoBeneficiarioAlteracaoServiceImpl implements Processame
                         .erroMensagem(mensagemErro)
                         .dataUltimaTentativa(LocalDateTime.now())
                         .build();
+                controle.setDataProximaTentativa(transicaoControleSync.proximaTentativa(controle, mensagemErro, 0));
+                controleSyncRepository.save(controle);
             } else {
-                controle.setStatusSync("ERRO");
-                controle.setDataUltimaTentativa(LocalDateTime.now());
-                controle.setErroMensagem(mensagemErro);
+                transicaoControleSync.erro(controle, "ERRO", mensagemErro, 0);
             }
 
-            controleSyncRepository.save(controle);
             log.info("Status do beneficiário {} atualizado para ERRO no controle de sincronização: {}", beneficiario.getCodigoMatricula(), mensagemErro);
         } catch (Exception e) {
             log.error("Erro ao registrar erro no controle: {}", e.getMessage(), e);
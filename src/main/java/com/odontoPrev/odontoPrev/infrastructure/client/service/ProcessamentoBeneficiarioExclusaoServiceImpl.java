@@ -10,6 +10,8 @@ import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.BeneficiarioO
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.AssociadoInativacao;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresarialModelInativacao;
 import com.odontoPrev.odontoPrev.infrastructure.exception.ProcessamentoBeneficiarioException;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
+import com.odontoPrev.odontoPrev.infrastructure.repository.TransicaoControleSync;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,6 +21,10 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Collections;
 
@@ -52,12 +58,17 @@ public class ProcessamentoBeneficiarioExclusaoServiceImpl implements Processamen
 
     private final BeneficiarioOdontoprevFeignClient odontoprevClient;
     private final ControleSyncBeneficiarioRepository controleSyncRepository;
+    private final TransicaoControleSync transicaoControleSync;
     private final BeneficiarioTokenService beneficiarioTokenService;
     private final ObjectMapper objectMapper;
+    private final EnvioLoteComDivisao envioLoteComDivisao;
 
     @Value("${odontoprev.api.login.usuario}")
     private String cdUsuario;
 
+    @Value("${odontoprev.sync.beneficiario.exclusao.tamanho-lote:50}")
+    private int tamanhoLoteExclusao;
+
     /**
      * PROCESSA INATIVAÇÃO DE UM ÚNICO BENEFICIÁRIO
      *
@@ -93,34 +104,30 @@ public class ProcessamentoBeneficiarioExclusaoServiceImpl implements Processamen
             // Etapa 4: Serializar EmpresarialModel para JSON string
             String empresarialModelJson = objectMapper.writeValueAsString(empresarialModel);
 
-            // Etapa 5: Obter tokens para autenticação dupla
-            String[] tokens = beneficiarioTokenService.obterTokensCompletos();
-            String tokenOAuth2 = tokens[0];
-            String tokenLoginEmpresa = tokens[1];
-            
-            log.info("🔑 [EXCLUSÃO] Tokens obtidos - OAuth2: {}..., LoginEmpresa: {}...",
-                    tokenOAuth2.substring(0, Math.min(20, tokenOAuth2.length())),
-                    tokenLoginEmpresa.substring(0, Math.min(20, tokenLoginEmpresa.length())));
-
-            // Etapa 6: Chamada para API da OdontoPrev
+            // Etapa 5: Chamada para API da OdontoPrev (tokens em cache, renovados em 401)
             log.info("🚀 [EXCLUSÃO] Enviando inativação do beneficiário {} (cdAssociado: {}) para OdontoPrev",
                     codigoMatricula, cdAssociado);
 
             long inicioChamada = System.currentTimeMillis();
-            odontoprevClient.inativarBeneficiario(
-                    tokenOAuth2,
-                    tokenLoginEmpresa,
-                    empresarialModelJson
-            );
+            beneficiarioTokenService.executarComTokens(tokens -> {
+                odontoprevClient.inativarBeneficiario(tokens[0], tokens[1], empresarialModelJson);
+                return null;
+            });
             long tempoResposta = System.currentTimeMillis() - inicioChamada;
             
             log.info("✅ [EXCLUSÃO] Inativação do beneficiário {} processada com sucesso em {}ms", 
                     codigoMatricula, tempoResposta);
 
-            // Etapa 7: Atualização do status no banco
+            // Etapa 6: Atualização do status no banco
             atualizarStatusSucesso(beneficiario, controleSync);
 
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Inativação do beneficiário {} adiada - {}", codigoMatricula, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             // Tratamento de erro abrangente
             String mensagem = "Erro durante processamento de inativação: " + e.getMessage();
             atualizarStatusErro(beneficiario, mensagem, controleSync);
@@ -135,6 +142,103 @@ public class ProcessamentoBeneficiarioExclusaoServiceImpl implements Processamen
         }
     }
 
+    /**
+     * PROCESSA INATIVAÇÕES EM LOTE
+     *
+     * FLUXO:
+     * 1. Valida cada beneficiário e cria/atualiza seu registro de controle (PROCESSING)
+     * 2. Agrupa por empresa + data de inativação em lotes de até tamanho-lote associados
+     * 3. Envia cada lote em uma única chamada multipart /inativar
+     * 4. Em caso de rejeição (4xx), divide o lote ao meio até isolar os associados com erro
+     */
+    @Override
+    @MonitorarOperacao(
+            operacao = "PROCESSAR_INATIVACOES_EM_LOTE",
+            excecaoEmErro = PROCESSAMENTO_BENEFICIARIO
+    )
+    public int processarInativacoesEmLote(List<BeneficiarioOdontoprev> beneficiarios) {
+        Map<String, List<ItemInativacao>> itensPorEmpresaEData = new LinkedHashMap<>();
+
+        for (BeneficiarioOdontoprev beneficiario : beneficiarios) {
+            try {
+                if (!validarBeneficiarioParaInativacao(beneficiario)) {
+                    atualizarStatusErro(beneficiario, "Beneficiário não atende pré-requisitos para inativação", null);
+                    continue;
+                }
+
+                // O registro de controle guarda o payload individual do associado (usado em reprocessamento)
+                EmpresarialModelInativacao modeloIndividual = converterParaEmpresarialModel(beneficiario);
+                ControleSyncBeneficiario controle = criarOuAtualizarRegistroControle(beneficiario, modeloIndividual);
+
+                String chave = modeloIndividual.getCdEmpresa() + "|" + modeloIndividual.getDataInativacao();
+                itensPorEmpresaEData.computeIfAbsent(chave, k -> new ArrayList<>())
+                        .add(new ItemInativacao(beneficiario, modeloIndividual, controle));
+            } catch (Exception e) {
+                log.error("❌ [EXCLUSÃO LOTE] Erro ao preparar inativação do beneficiário {}: {}",
+                        beneficiario.getCodigoMatricula(), e.getMessage());
+                atualizarStatusErro(beneficiario, "Erro durante processamento de inativação: " + e.getMessage(), null);
+            }
+        }
+
+        int tamanhoLote = Math.max(1, tamanhoLoteExclusao);
+        int sucesso = 0;
+        for (Map.Entry<String, List<ItemInativacao>> grupo : itensPorEmpresaEData.entrySet()) {
+            List<ItemInativacao> itens = grupo.getValue();
+            for (int inicio = 0; inicio < itens.size(); inicio += tamanhoLote) {
+                List<ItemInativacao> lote = itens.subList(inicio, Math.min(inicio + tamanhoLote, itens.size()));
+                log.info("🚀 [EXCLUSÃO LOTE] Enviando inativação de {} associados - empresa/data: {}",
+                        lote.size(), grupo.getKey());
+                sucesso += enviarLoteInativacao(lote);
+            }
+        }
+
+        log.info("✅ [EXCLUSÃO LOTE] {} de {} inativações processadas com sucesso", sucesso, beneficiarios.size());
+        return sucesso;
+    }
+
+    /**
+     * ENVIA UM LOTE DE INATIVAÇÕES (COM DIVISÃO EM CASO DE REJEIÇÃO)
+     *
+     * @return quantidade de associados inativados com sucesso
+     */
+    private int enviarLoteInativacao(List<ItemInativacao> lote) {
+        return envioLoteComDivisao.enviar(lote, "EXCLUSÃO LOTE", parte -> {
+            String empresarialModelJson = objectMapper.writeValueAsString(modeloDoLote(parte));
+
+            long inicioChamada = System.currentTimeMillis();
+            beneficiarioTokenService.executarComTokens(tokens -> {
+                odontoprevClient.inativarBeneficiario(tokens[0], tokens[1], empresarialModelJson);
+                return null;
+            });
+            log.info("✅ [EXCLUSÃO LOTE] Inativação de {} associados aceita em {}ms",
+                    parte.size(), System.currentTimeMillis() - inicioChamada);
+
+            parte.forEach(item -> atualizarStatusSucesso(item.beneficiario(), item.controle()));
+            return parte.size();
+        }, (parte, e) -> {
+            String mensagem = "Erro durante processamento de inativação: " + e.getMessage();
+            parte.forEach(item -> atualizarStatusErro(item.beneficiario(), mensagem, item.controle()));
+        });
+    }
+
+    /**
+     * MONTA UM ÚNICO EmpresarialModelInativacao COM OS ASSOCIADOS DO LOTE
+     */
+    private EmpresarialModelInativacao modeloDoLote(List<ItemInativacao> lote) {
+        EmpresarialModelInativacao primeiro = lote.get(0).modelo();
+        return EmpresarialModelInativacao.builder()
+                .cdEmpresa(primeiro.getCdEmpresa())
+                .cdUsuario(primeiro.getCdUsuario())
+                .associado(lote.stream().flatMap(item -> item.modelo().getAssociado().stream()).toList())
+                .dataInativacao(primeiro.getDataInativacao())
+                .build();
+    }
+
+    private record ItemInativacao(BeneficiarioOdontoprev beneficiario,
+                                  EmpresarialModelInativacao modelo,
+                                  ControleSyncBeneficiario controle) {
+    }
+
     /**
      * VALIDA SE BENEFICIÁRIO PODE SER INATIVADO
      *
@@ -253,6 +357,7 @@ public class ProcessamentoBeneficiarioExclusaoServiceImpl implements Processamen
                 controle.setDataUltimaTentativa(LocalDateTime.now());
                 controle.setResponseApi(null); // Limpar resposta anterior
                 controle.setErroMensagem(null); // Limpar erro anterior
+                controle.setDataProximaTentativa(null); // Esta é a tentativa que estava agendada
                 
                 log.info("🔄 [CONTROLE] Atualizando registro existente para beneficiário {} - ID: {}, Tentativa: {}", 
                         codigoMatricula, controle.getId(), controle.getTentativas());
@@ -295,10 +400,7 @@ public class ProcessamentoBeneficiarioExclusaoServiceImpl implements Processamen
     private void atualizarStatusSucesso(BeneficiarioOdontoprev beneficiario, ControleSyncBeneficiario controle) {
         if (controle != null) {
             try {
-                controle.setStatusSync("SUCESSO");
-                controle.setDataSucesso(LocalDateTime.now());
-                controle.setResponseApi("Inativação realizada com sucesso");
-                controleSyncRepository.save(controle);
+                transicaoControleSync.sucesso(controle, "Inativação realizada com sucesso", null);
                 log.info("Status do beneficiário {} atualizado para SUCESSO no controle de sincronização", beneficiario.getCodigoMatricula());
             } catch (Exception e) {
                 log.error("Erro ao registrar sucesso no controle: {}", e.getMessage(), e);
@@ -338,13 +440,12 @@ public class ProcessamentoBeneficiarioExclusaoServiceImpl implements Processamen
                         .erroMensagem(mensagemErro)
                         .dataUltimaTentativa(LocalDateTime.now())
                         .build();
+                controle.setDataProximaTentativa(transicaoControleSync.proximaTentativa(controle, mensagemErro, 0));
+                controleSyncRepository.save(controle);
             } else {
-                controle.setStatusSync("ERRO");
-                controle.setDataUltimaTentativa(LocalDateTime.now());
-                controle.setErroMensagem(mensagemErro);
+                transicaoControleSync.erro(controle, "ERRO", mensagemErro, 0);
             }
 
-            controleSyncRepository.save(controle);
             log.info("Status do beneficiário {} atualizado para ERRO no controle de sincronização: {}", beneficiario.getCodigoMatricula(), mensagemErro);
         } catch (Exception e) {
             log.error("Erro ao registrar erro no controle: {}", e.getMessage(), e);
@@ -8,22 +8,23 @@ import com.odontoPrev.odontoPrev.domain.service.ProcessamentoBeneficiarioService
 import com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao;
 import com.odontoPrev.odontoPrev.domain.repository.BeneficiarioOdontoprevRepository;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.ProcedureTasyLoteExecutor;
+import com.odontoPrev.odontoPrev.infrastructure.repository.TransicaoControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiario;
+import com.odontoPrev.odontoPrev.infrastructure.client.RespostaBrutaApi;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.BeneficiarioOdontoprevFeignClient;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.BeneficiarioInclusaoRequestNew;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.BeneficiarioInclusaoResponseNew;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.BeneficiarioDependenteInclusaoRequest;
 import com.odontoPrev.odontoPrev.infrastructure.client.service.BeneficiarioTokenService;
 import com.odontoPrev.odontoPrev.infrastructure.exception.ProcessamentoBeneficiarioException;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.CallableStatementCallback;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
-import java.sql.CallableStatement;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -57,10 +58,11 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
     private final ControleSyncBeneficiarioRepository controleSyncRepository;
     private final BeneficiarioOdontoprevRepository beneficiarioRepository;
     private final IntegracaoOdontoprevBeneficiarioRepository integracaoRepository;
-    private final JdbcTemplate jdbcTemplate;
     private final OdontoprevApiHeaderService headerService;
     private final BeneficiarioTokenService beneficiarioTokenService;
     private final ObjectMapper objectMapper;
+    private final ProcedureTasyLoteExecutor procedureLoteExecutor;
+    private final TransicaoControleSync transicaoControleSync;
 
     /**
      * PROCESSA INCLUSÃO DE UM ÚNICO BENEFICIÁRIO
@@ -152,36 +154,19 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
             // Etapa 5: Chamada para API da OdontoPrev
             log.info("🚀 INICIANDO CHAMADA API - Enviando beneficiário {} para inclusão na OdontoPrev", codigoMatricula);
 
-            // Obter tokens para autenticação dupla
-            String[] tokens = beneficiarioTokenService.obterTokensCompletos();
-            String tokenOAuth2 = tokens[0];
-            String tokenLoginEmpresa = tokens[1];
-            
-            // DEBUG: Log detalhado dos tokens para investigar erro 403
-            log.info("🔑 DEBUG TOKENS - Beneficiário {}: OAuth2: {}..., LoginEmpresa: {}...", 
-                     codigoMatricula,
-                     tokenOAuth2.substring(0, Math.min(30, tokenOAuth2.length())),
-                     tokenLoginEmpresa.substring(0, Math.min(30, tokenLoginEmpresa.length())));
-            
-            log.debug("🔑 TOKENS OBTIDOS - OAuth2: {}...{}, LoginEmpresa: {}...{}", 
-                     tokenOAuth2.substring(0, Math.min(20, tokenOAuth2.length())),
-                     tokenOAuth2.length() > 20 ? "..." : "",
-                     tokenLoginEmpresa.substring(0, Math.min(20, tokenLoginEmpresa.length())),
-                     tokenLoginEmpresa.length() > 20 ? "..." : "");
-
+            // Tokens da autenticação dupla vêm do cache; em 401 são renovados e a chamada repetida
             long inicioChamada = System.currentTimeMillis();
-            BeneficiarioInclusaoResponseNew response = odontoprevClient.incluirBeneficiario(
-                    tokenOAuth2,
-                    tokenLoginEmpresa,
-                    request
+            BeneficiarioInclusaoResponseNew response = beneficiarioTokenService.executarComTokens(
+                    tokens -> odontoprevClient.incluirBeneficiario(tokens[0], tokens[1], request)
             );
             long tempoResposta = System.currentTimeMillis() - inicioChamada;
             
             log.info("✅ RESPOSTA RECEBIDA DA API - Beneficiário {} processado em {}ms", codigoMatricula, tempoResposta);
             
-            // LOG DETALHADO DA RESPOSTA DA API
+            // LOG DETALHADO DA RESPOSTA DA API (JSON lido uma vez e reaproveitado na TBSYNC)
+            String responseJson = null;
             try {
-                String responseJson = objectMapper.writeValueAsString(response);
+                responseJson = RespostaBrutaApi.jsonDe(response, objectMapper);
                 log.info("📥 RESPOSTA COMPLETA DA API - Beneficiário {}: {}", codigoMatricula, responseJson);
             } catch (Exception e) {
                 log.error("❌ ERRO AO SERIALIZAR RESPOSTA DA API - Beneficiário {}: {}", codigoMatricula, e.getMessage());
@@ -202,7 +187,6 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
                 
                 // Quando status 417, NÃO executar procedure (beneficiário já existe)
                 // Apenas marcar como sucesso na TBSYNC
-                String responseJson = objectMapper.writeValueAsString(response);
                 registrarTentativaSucesso(controleSync, responseJson);
                 log.info("✅ BENEFICIÁRIO JÁ CADASTRADO - Marcado como SUCESSO na TBSYNC (sem executar procedure) | Matrícula: {}", codigoMatricula);
                 return; // Não processar mais, apenas retornar
@@ -292,16 +276,22 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
             // IMPORTANTE: Executar procedure APENAS UMA VEZ com o cdAssociado correto
             log.info("🔄 EXECUTANDO PROCEDURE - Chamando SS_PLS_CAD_CARTEIRINHA_ODONTOPREV para beneficiário {} com cdAssociado {}", 
                     codigoMatricula, cdAssociado);
-            executarProcedureTasy(beneficiario, cdAssociado);
+            executarProcedureTasy(beneficiario, cdAssociado, controleSync);
             log.info("✅ PROCEDURE EXECUTADA - SS_PLS_CAD_CARTEIRINHA_ODONTOPREV concluída com sucesso para beneficiário {}", codigoMatricula);
 
             // Etapa 8: Registrar sucesso no controle
-            registrarTentativaSucesso(controleSync, objectMapper.writeValueAsString(response));
+            registrarTentativaSucesso(controleSync, responseJson);
 
             log.info("🎉 BENEFICIÁRIO PROCESSADO COM SUCESSO - {} | CdAssociado: {} | Tempo total: {}ms",
                     codigoMatricula, cdAssociado, tempoResposta);
 
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Inclusão do beneficiário {} adiada - {}", codigoMatricula, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             log.error("Erro durante processamento de inclusão: {}", e.getMessage(), e);
             
             // Verificar se é erro de beneficiário já cadastrado
@@ -565,7 +555,8 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
             incluirParametros = {"beneficiario.codigoMatricula", "cdAssociado"},
             excecaoEmErro = PROCESSAMENTO_BENEFICIARIO
     )
-    private void executarProcedureTasy(BeneficiarioOdontoprev beneficiario, String cdAssociado) {
+    private void executarProcedureTasy(BeneficiarioOdontoprev beneficiario, String cdAssociado,
+                                       ControleSyncBeneficiario controle) {
         log.info("🚀 INICIANDO EXECUÇÃO DA PROCEDURE - SS_PLS_CAD_CARTEIRINHA_ODONTOPREV para beneficiário {}", beneficiario.getCodigoMatricula());
         log.info("📋 PARÂMETROS DA PROCEDURE - Beneficiário {}: nrSequencia={}, cdCgcEstipulante={}, cdAssociado={}", 
                 beneficiario.getCodigoMatricula(), beneficiario.getNrSequencia(), beneficiario.getCdCgcEstipulante(), cdAssociado);
@@ -601,31 +592,34 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
 
         log.info("✅ VALIDAÇÕES PASSARAM - Todos os parâmetros são válidos para beneficiário {}", beneficiario.getCodigoMatricula());
 
+        if (procedureLoteExecutor.isLoteHabilitado()) {
+            // Carga em massa: a procedure entra no próximo lote (após o commit) e a falha
+            // de um item é registrada na TBSYNC sem afetar os demais
+            // A falha volta para ERROR só o registro desta tentativa (pelo ID), nunca o histórico da chave
+            String codigoMatricula = beneficiario.getCodigoMatricula();
+            Long idControle = controle != null ? controle.getId() : null;
+            procedureLoteExecutor.agendarCarteirinha(beneficiario.getNrSequencia(), cdCgcEstipulante, cdAssociado,
+                    codigoMatricula, erro -> {
+                        if (idControle == null) {
+                            log.warn("⚠️ [PROCEDURE LOTE] Falha da procedure para {} sem registro de controle para marcar: {}",
+                                    codigoMatricula, erro.getMessage());
+                            return;
+                        }
+                        controleSyncRepository.marcarErroProcedure(idControle, LocalDateTime.now(),
+                                "ERRO_PROCEDURE: " + erro.getMessage());
+                    });
+            log.info("📦 PROCEDURE AGENDADA EM LOTE - SS_PLS_CAD_CARTEIRINHA_ODONTOPREV para beneficiário {} com cdAssociado {}",
+                    codigoMatricula, cdAssociado);
+            return;
+        }
+
         try {
-            // Para Oracle, usar a sintaxe correta para procedures com schema
-            String sql = "{ call TASY.SS_PLS_CAD_CARTEIRINHA_ODONTOPREV(?, ?, ?) }";
-            log.info("🔧 SQL DA PROCEDURE - {} para beneficiário {}", sql, beneficiario.getCodigoMatricula());
+            log.info("⚡ EXECUTANDO PROCEDURE - {} para beneficiário {} (p_nr_seq_segurado={}, p_cd_cgc_estipulante={}, p_cd_associado={})",
+                    ProcedureTasyLoteExecutor.SQL_CARTEIRINHA, beneficiario.getCodigoMatricula(),
+                    beneficiario.getNrSequencia(), cdCgcEstipulante, cdAssociado);
 
-            log.info("🔄 EXECUTANDO CALLABLE STATEMENT - Preparando execução da procedure para beneficiário {}", beneficiario.getCodigoMatricula());
-            
-            // Usar a sintaxe correta do Spring JDBC para Oracle
-            jdbcTemplate.execute(sql, (CallableStatementCallback<Void>) cs -> {
-                log.info("🔗 CONEXÃO OBTIDA - Criando CallableStatement para beneficiário {}", beneficiario.getCodigoMatricula());
-                
-                // Configurar os parâmetros IN
-                cs.setLong(1, beneficiario.getNrSequencia()); // p_nr_seq_segurado as NUMBER
-                cs.setString(2, cdCgcEstipulante); // p_cd_cgc_estipulante as VARCHAR2
-                cs.setString(3, cdAssociado); // p_cd_associado as VARCHAR2
-                
-                log.info("📝 PARÂMETROS SETADOS - p_nr_seq_segurado={}, p_cd_cgc_estipulante={}, p_cd_associado={} para beneficiário {}", 
-                        beneficiario.getNrSequencia(), cdCgcEstipulante, cdAssociado, beneficiario.getCodigoMatricula());
-                
-                log.info("⚡ EXECUTANDO PROCEDURE - Chamando cs.execute() para beneficiário {}", beneficiario.getCodigoMatricula());
-                boolean result = cs.execute();
-                log.info("✅ PROCEDURE EXECUTADA - cs.execute() retornou {} para beneficiário {}", result, beneficiario.getCodigoMatricula());
-                
-                return null;
-            });
+            // Chamada individual na transação corrente: falha desfaz a inclusão junto
+            procedureLoteExecutor.executarCarteirinha(beneficiario.getNrSequencia(), cdCgcEstipulante, cdAssociado);
 
             log.info("✅ Procedure SS_PLS_CAD_CARTEIRINHA_ODONTOPREV executada com sucesso para beneficiário {} com cdAssociado {}", 
                     beneficiario.getCodigoMatricula(), cdAssociado);
@@ -828,18 +822,12 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
                 );
             }
 
-            // Etapa 4: Obter tokens para autenticação dupla
-            String[] tokens = beneficiarioTokenService.obterTokensCompletos();
-            String tokenOAuth2 = tokens[0];
-            String tokenLoginEmpresa = tokens[1];
-
+            // Etapa 4: Chamada com tokens da autenticação dupla (cache + retry em 401)
             log.info("🚀 INICIANDO CHAMADA API DEPENDENTE - Enviando dependente {} para inclusão na OdontoPrev", codigoMatricula);
 
             long inicioChamada = System.currentTimeMillis();
-            BeneficiarioInclusaoResponseNew response = odontoprevClient.incluirDependente(
-                    tokenOAuth2,
-                    tokenLoginEmpresa,
-                    request
+            BeneficiarioInclusaoResponseNew response = beneficiarioTokenService.executarComTokens(
+                    tokens -> odontoprevClient.incluirDependente(tokens[0], tokens[1], request)
             );
             long tempoResposta = System.currentTimeMillis() - inicioChamada;
 
@@ -867,16 +855,22 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
             // Etapa 6: Executar procedure no Tasy (mesmo processo do titular)
             log.info("🔄 EXECUTANDO PROCEDURE - Chamando SS_PLS_CAD_CARTEIRINHA_ODONTOPREV para dependente {} com cdAssociado {}", 
                     codigoMatricula, cdAssociado);
-            executarProcedureTasy(beneficiario, cdAssociado);
+            executarProcedureTasy(beneficiario, cdAssociado, controleSync);
             log.info("✅ PROCEDURE EXECUTADA - SS_PLS_CAD_CARTEIRINHA_ODONTOPREV concluída com sucesso para dependente {}", codigoMatricula);
 
             // Etapa 7: Registrar sucesso no controle
-            registrarTentativaSucesso(controleSync, objectMapper.writeValueAsString(response));
+            registrarTentativaSucesso(controleSync, RespostaBrutaApi.jsonDe(response, objectMapper));
 
             log.info("🎉 DEPENDENTE PROCESSADO COM SUCESSO - {} | CdAssociado: {} | Tempo total: {}ms",
                     codigoMatricula, cdAssociado, tempoResposta);
 
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Inclusão do dependente {} adiada - {}", codigoMatricula, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             log.error("❌ Erro durante processamento de inclusão de dependente: {}", e.getMessage(), e);
             
             // Verificar se é erro de dependente já cadastrado (status 417 ou mensagem específica)
@@ -907,7 +901,7 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
                     String cdAssociadoParaProcedure = codigoMatricula;
                     log.info("🔄 USANDO CÓDIGO DA MATRÍCULA COMO IDENTIFICADOR - cdAssociado: {} para dependente já cadastrado {}", cdAssociadoParaProcedure, codigoMatricula);
                     
-                    executarProcedureTasy(beneficiario, cdAssociadoParaProcedure);
+                    executarProcedureTasy(beneficiario, cdAssociadoParaProcedure, controleSync);
                     log.info("✅ PROCEDURE EXECUTADA PARA DEPENDENTE JÁ CADASTRADO - SS_PLS_CAD_CARTEIRINHA_ODONTOPREV concluída para dependente {} com cdAssociado {}", codigoMatricula, cdAssociadoParaProcedure);
                     
                 } catch (Exception procedureException) {
@@ -1347,6 +1341,8 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
                             if (!"PENDING".equals(controleExistente.getStatusSync())) {
                                 controleExistente.setStatusSync("PENDING");
                             }
+                            // Esta é a tentativa que estava agendada (se havia uma)
+                            controleExistente.setDataProximaTentativa(null);
                             
                             // CRÍTICO: Garantir que maxTentativas não seja nulo
                             if (controleExistente.getMaxTentativas() == null) {
@@ -1596,12 +1592,10 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
     /**
      * REGISTRA TENTATIVA DE SUCESSO
      *
-     * Atualiza o registro de controle com o resultado de sucesso.
-     * IMPORTANTE: Usa saveAndFlush para garantir que o commit seja imediato
-     * e visível para outras threads/processos, evitando duplicação.
-     * 
-     * CRÍTICO: Se a transação atual estiver marcada como rollback-only,
-     * tenta buscar o registro novamente e atualizar em uma nova transação.
+     * Atualiza o registro de controle com o resultado de sucesso por um único
+     * UPDATE condicionado ao status atual (TransicaoControleSync), executado na
+     * hora dentro da transação do processamento. Se outro processo já tiver
+     * mudado o registro, a transição é ignorada e registrada no log.
      */
     private void registrarTentativaSucesso(ControleSyncBeneficiario controle, String responseJson) {
         if (controle == null) {
@@ -1616,47 +1610,13 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
         }
         
         try {
-            controle.setStatusSync("SUCESSO");
-            controle.setDataSucesso(LocalDateTime.now());
-            if (responseJson != null) {
-                controle.setResponseApi(responseJson);
-            }
-            // IMPORTANTE: Usar saveAndFlush para garantir commit imediato e visibilidade
-            controleSyncRepository.saveAndFlush(controle);
+            transicaoControleSync.sucesso(controle, responseJson, null);
             log.info("✅ [TBSYNC] Registro atualizado como SUCESSO - ID: {} | Matrícula: {} | Status: SUCESSO | Data: {}", 
                     controle.getId(), controle.getCodigoBeneficiario(), controle.getDataSucesso());
         } catch (Exception e) {
-            log.error("❌ [TBSYNC] Erro ao registrar sucesso no controle (primeira tentativa) - ID: {} | Matrícula: {} | Erro: {}", 
+            log.error("❌ [TBSYNC] Erro ao registrar sucesso no controle - ID: {} | Matrícula: {} | Erro: {}", 
                     controle.getId(), controle.getCodigoBeneficiario(), e.getMessage(), e);
-            
-            // TENTATIVA DE RECUPERAÇÃO: Se a transação atual está rollback-only, buscar o registro novamente
-            try {
-                log.info("🔄 [TBSYNC] Tentando recuperar registro para atualização - ID: {} | Matrícula: {}", 
-                        controle.getId(), controle.getCodigoBeneficiario());
-                
-                // Buscar o registro novamente do banco (fora da transação atual)
-                var controleRecuperado = controleSyncRepository.findById(controle.getId());
-                
-                if (controleRecuperado.isPresent()) {
-                    ControleSyncBeneficiario controleAtualizado = controleRecuperado.get();
-                    controleAtualizado.setStatusSync("SUCESSO");
-                    controleAtualizado.setDataSucesso(LocalDateTime.now());
-                    if (responseJson != null) {
-                        controleAtualizado.setResponseApi(responseJson);
-                    }
-                    controleSyncRepository.saveAndFlush(controleAtualizado);
-                    log.info("✅ [TBSYNC] Registro recuperado e atualizado com sucesso - ID: {} | Matrícula: {}", 
-                            controleAtualizado.getId(), controleAtualizado.getCodigoBeneficiario());
-                } else {
-                    log.error("❌ [TBSYNC] Registro não encontrado no banco para recuperação - ID: {} | Matrícula: {}", 
-                            controle.getId(), controle.getCodigoBeneficiario());
-                    throw e; // Relançar o erro original
-                }
-            } catch (Exception recoveryException) {
-                log.error("❌ [TBSYNC] Erro na tentativa de recuperação do registro - ID: {} | Matrícula: {} | Erro: {}", 
-                        controle.getId(), controle.getCodigoBeneficiario(), recoveryException.getMessage(), recoveryException);
-                throw e; // Relançar o erro original
-            }
+            throw e;
         }
     }
 
@@ -1991,6 +1951,9 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
                     controle.getStatusSync(), controle.getStatusSync() != null ? controle.getStatusSync().length() : 0,
                     controle.getTentativas(), controle.getMaxTentativas());
 
+            // Tentativas já atualizadas acima: define a retentativa automática (null = terminal ou esgotada)
+            controle.setDataProximaTentativa(transicaoControleSync.proximaTentativa(controle, controle.getErroMensagem(), 0));
+
             try {
                 ControleSyncBeneficiario controleSalvo = controleSyncRepository.saveAndFlush(controle);
                 
@@ -2046,6 +2009,8 @@ public class ProcessamentoBeneficiarioServiceImpl implements ProcessamentoBenefi
                             if (controleAtualizado.getMaxTentativas() == null || controleAtualizado.getMaxTentativas() < 0) {
                                 controleAtualizado.setMaxTentativas(3);
                             }
+                            controleAtualizado.setDataProximaTentativa(transicaoControleSync.proximaTentativa(
+                                    controleAtualizado, controleAtualizado.getErroMensagem(), 0));
                             controleSyncRepository.saveAndFlush(controleAtualizado);
                             log.info("✅ [TBSYNC] Registro de erro recuperado e atualizado com sucesso - ID: {} | Matrícula: {}", 
                                     controleAtualizado.getId(), codigoBeneficiario);
@@ -10,8 +10,10 @@ import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevA
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevAlteracao;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -65,6 +67,12 @@ public class ProcessamentoEmpresaAlteracaoServiceImpl implements ProcessamentoEm
     // ObjectMapper para serializar dados para JSON
     private final ObjectMapper objectMapper;
 
+    // Hash do payload para ignorar alterações sem mudança
+    private final CalculadoraHashPayload calculadoraHashPayload;
+
+    @Value("${odontoprev.sync.alteracao.ignorar-sem-mudanca:true}")
+    private boolean ignorarSemMudanca;
+
     /**
      * MÉTODO PRINCIPAL - PROCESSA UMA EMPRESA ALTERADA INDIVIDUAL
      * 
@@ -155,14 +163,12 @@ public class ProcessamentoEmpresaAlteracaoServiceImpl implements ProcessamentoEm
             // Converte dados para o tipo base para compatibilidade
             IntegracaoOdontoprev dadosBase = converterParaIntegracaoBase(dados);
             
-            ControleSync controle = gerenciadorControleSync.criarControle(
+            ControleSync salvo = gerenciadorControleSync.registrarControle(
                 codigoEmpresa, 
                 dadosBase, 
                 ControleSync.TipoOperacao.UPDATE,
                 ControleSync.TipoControle.ALTERACAO
             );
-            
-            ControleSync salvo = gerenciadorControleSync.salvar(controle);
             log.debug("Controle de alteração criado para empresa {} com ID: {}", codigoEmpresa, salvo.getId());
             return salvo;
             
@@ -203,10 +209,20 @@ public class ProcessamentoEmpresaAlteracaoServiceImpl implements ProcessamentoEm
             // Converte dados da view para o request completo da API
             EmpresaAlteracaoRequest requestCompleto = empresaAlteracaoMapper.toAlteracaoRequest(dadosAlteracao.get());
             
+            // Se o payload é igual ao da última sincronização com sucesso, não há o que enviar
+            String hashPayload = calculadoraHashPayload.calcular(requestCompleto);
+            if (ignorarSemMudanca
+                    && controleSync.getStatusSync() == ControleSync.StatusSync.SUCCESS
+                    && calculadoraHashPayload.semMudanca(hashPayload, controleSync.getHashPayload())) {
+                log.info("⏭️ [ALTERAÇÃO EMPRESA] Empresa {} sem mudanças desde a última sincronização - chamada ignorada",
+                        codigoEmpresa);
+                return;
+            }
+            
             // Atualiza dadosJson na TBSYNC com o request completo que será enviado
             try {
                 String dadosJsonCompleto = objectMapper.writeValueAsString(requestCompleto);
-                controleSync.setDadosJson(dadosJsonCompleto);
+                gerenciadorControleSync.atualizarDadosJson(controleSync, dadosJsonCompleto);
                 log.debug("💾 [TBSYNC] Dados JSON atualizados com request completo - tamanho: {} caracteres", dadosJsonCompleto.length());
             } catch (Exception e) {
                 log.warn("⚠️ [TBSYNC] Erro ao serializar request completo para TBSYNC: {}", e.getMessage());
@@ -221,19 +237,24 @@ public class ProcessamentoEmpresaAlteracaoServiceImpl implements ProcessamentoEm
             long tempoResposta = System.currentTimeMillis() - inicioTempo;
             
             // Atualiza controle com sucesso
+            controleSync.setHashPayload(hashPayload);
             gerenciadorControleSync.atualizarSucesso(controleSync, responseJson, tempoResposta);
-            gerenciadorControleSync.salvar(controleSync);
             
             log.info("✅ [TBSYNC] Registro de alteração salvo na TBSYNC - Empresa: {}, ID: {}, Status: SUCCESS", 
                     codigoEmpresa, controleSync.getId());
             log.info("Empresa alterada {} processada com sucesso em {}ms", codigoEmpresa, tempoResposta);
             
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Alteração da empresa {} adiada - {}", codigoEmpresa, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             long tempoResposta = System.currentTimeMillis() - inicioTempo;
             
             // Atualiza controle com erro
             gerenciadorControleSync.atualizarErro(controleSync, e.getMessage());
-            gerenciadorControleSync.salvar(controleSync);
             
             log.error("❌ [TBSYNC] Registro de alteração salvo na TBSYNC - Empresa: {}, ID: {}, Status: ERROR", 
                     codigoEmpresa, controleSync.getId());
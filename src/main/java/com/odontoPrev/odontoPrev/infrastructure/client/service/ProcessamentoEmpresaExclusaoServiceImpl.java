@@ -10,6 +10,7 @@ import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevE
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevExclusao;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -167,14 +168,12 @@ public class ProcessamentoEmpresaExclusaoServiceImpl implements ProcessamentoEmp
             IntegracaoOdontoprev dadosMinimos = new IntegracaoOdontoprev();
             dadosMinimos.setCodigoEmpresa(codigoEmpresa);
             
-            ControleSync controle = gerenciadorControleSync.criarControle(
+            ControleSync salvo = gerenciadorControleSync.registrarControle(
                 codigoEmpresa, 
                 dadosMinimos, 
                 ControleSync.TipoOperacao.DELETE,
                 ControleSync.TipoControle.EXCLUSAO
             );
-            
-            ControleSync salvo = gerenciadorControleSync.salvar(controle);
             log.debug("Controle de exclusão criado para empresa {} com ID: {}", codigoEmpresa, salvo.getId());
             return salvo;
             
@@ -224,7 +223,7 @@ public class ProcessamentoEmpresaExclusaoServiceImpl implements ProcessamentoEmp
             // Atualiza dadosJson na TBSYNC com o request completo que será enviado
             try {
                 String dadosJsonCompleto = objectMapper.writeValueAsString(requestCompleto);
-                controleSync.setDadosJson(dadosJsonCompleto);
+                gerenciadorControleSync.atualizarDadosJson(controleSync, dadosJsonCompleto);
                 log.info("💾 [TBSYNC] Dados JSON atualizados com request completo de exclusão - tamanho: {} caracteres", dadosJsonCompleto.length());
             } catch (Exception e) {
                 log.warn("⚠️ [TBSYNC] Erro ao serializar request completo de exclusão para TBSYNC: {}", e.getMessage());
@@ -244,13 +243,18 @@ public class ProcessamentoEmpresaExclusaoServiceImpl implements ProcessamentoEmp
             
             // Atualiza controle com sucesso
             gerenciadorControleSync.atualizarSucesso(controleSync, responseJson, tempoResposta);
-            gerenciadorControleSync.salvar(controleSync);
             
             log.info("✅ [TBSYNC] Registro de exclusão salvo na TBSYNC - Empresa: {}, ID: {}, Status: SUCCESS", 
                     codigoEmpresa, controleSync.getId());
             log.info("🎉 [INATIVAÇÃO EMPRESA] Empresa {} processada com sucesso em {}ms", codigoEmpresa, tempoResposta);
             
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Inativação da empresa {} adiada - {}", codigoEmpresa, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             long tempoResposta = System.currentTimeMillis() - inicioTempo;
             
             // LOG DE ERRO APÓS FALHA NA API
@@ -263,7 +267,6 @@ public class ProcessamentoEmpresaExclusaoServiceImpl implements ProcessamentoEmp
             
             // Atualiza controle com erro
             gerenciadorControleSync.atualizarErro(controleSync, e.getMessage());
-            gerenciadorControleSync.salvar(controleSync);
             
             log.error("❌ [TBSYNC] Registro de exclusão salvo na TBSYNC - Empresa: {}, ID: {}, Status: ERROR", 
                     codigoEmpresa, controleSync.getId());
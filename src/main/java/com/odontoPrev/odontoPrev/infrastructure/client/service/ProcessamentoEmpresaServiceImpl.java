@@ -5,6 +5,7 @@ import com.odontoPrev.odontoPrev.domain.service.ConsultaEmpresaOdontoprevService
 import com.odontoPrev.odontoPrev.domain.service.GerenciadorControleSyncService;
 import com.odontoPrev.odontoPrev.domain.service.ProcessamentoEmpresaService;
 import com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao;
+import com.odontoPrev.odontoPrev.infrastructure.client.RespostaBrutaApi;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaResponse;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaAtivacaoPlanoResponse;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.out.dto.EmpresaPmeRequest;
@@ -13,8 +14,11 @@ import com.odontoPrev.odontoPrev.infrastructure.client.BeneficiarioOdontoprevFei
 import com.odontoPrev.odontoPrev.infrastructure.client.domain.service.TokenService;
 import com.odontoPrev.odontoPrev.infrastructure.repository.ControleSyncRepository;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.ProcedureTasyLoteExecutor;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
+import com.odontoPrev.odontoPrev.infrastructure.exception.ProcessamentoEmpresaException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -23,6 +27,7 @@ import static com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao.Tip
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -95,6 +100,9 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
     // Conversor JSON para serializar respostas da API
     private final ObjectMapper objectMapper;
 
+    // Executor em lote das procedures do Tasy
+    private final ProcedureTasyLoteExecutor procedureLoteExecutor;
+
     /**
      * MÉTODO PRINCIPAL - PROCESSA UMA EMPRESA INDIVIDUAL
      * 
@@ -150,6 +158,12 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
             log.info("✅ [PROCESSAMENTO EMPRESA] Processamento concluído para empresa {}", codigoEmpresa);
             
         } catch (Exception e) {
+            // Só chega aqui como CircuitoAbertoException quando nenhuma chamada de escrita foi feita
+            if (e instanceof CircuitoAbertoException circuitoAberto) {
+                log.warn("⏸️ [CIRCUIT BREAKER] Processamento da empresa {} adiado - {}", codigoEmpresa, circuitoAberto.getMessage());
+                throw circuitoAberto;
+            }
+
             log.error("❌ [PROCESSAMENTO EMPRESA] Erro ao processar empresa {}: {}", codigoEmpresa, e.getMessage(), e);
             cadastrarErroProcessamentoTBSync(codigoEmpresa, e.getMessage());
         }
@@ -164,14 +178,21 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
      * 2. Procedure: Executa procedure para cadastrar código da empresa
      * 3. GET: Busca dados da empresa na API
      * 4. TBSYNC: Cadastra sucesso na tabela de controle
+     *
+     * CIRCUIT BREAKER:
+     * O adiamento só vale enquanto o POST não foi executado. Depois dele a empresa
+     * já existe na OdontoPrev e a procedure grava o codigoEmpresa, então a próxima
+     * execução pularia a empresa: o circuito aberto é registrado como erro.
      */
     private void executarFluxoInclusaoCompleto(ControleSync controleSync, String codigoEmpresa, IntegracaoOdontoprev dadosCompletos) {
         log.info("🚀 [FLUXO INCLUSÃO] Iniciando fluxo completo para empresa: {}", codigoEmpresa);
+        boolean postExecutado = false;
         
         try {
             // PASSO 1: POST - Incluir empresa na API
             log.info("📤 [FLUXO INCLUSÃO] PASSO 1 - Enviando POST para incluir empresa {}", codigoEmpresa);
             EmpresaAtivacaoPlanoResponse responsePost = empresaInclusaoService.incluirEmpresa(codigoEmpresa, dadosCompletos.getNrSeqContrato());
+            postExecutado = true;
             log.info("✅ [FLUXO INCLUSÃO] POST executado com sucesso para empresa {}", codigoEmpresa);
             
             // PASSO 2: Procedure - Cadastrar código da empresa
@@ -201,9 +222,18 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
             log.info("🎉 [FLUXO INCLUSÃO] Fluxo completo executado com sucesso para empresa {}", codigoEmpresa);
             
         } catch (Exception e) {
+            CircuitoAbertoException circuitoAberto = CircuitoAbertoException.encontrar(e);
+            if (circuitoAberto != null && !postExecutado) {
+                throw circuitoAberto;
+            }
+
             log.error("❌ [FLUXO INCLUSÃO] Erro no fluxo de inclusão para empresa {}: {}", codigoEmpresa, e.getMessage(), e);
             gerenciadorControleSync.atualizarErro(controleSync, e.getMessage());
-            gerenciadorControleSync.salvar(controleSync);
+            if (e instanceof CircuitoAbertoException) {
+                // Embrulha para o chamador registrar o erro em vez de adiar a empresa
+                throw new ProcessamentoEmpresaException(codigoEmpresa, "circuito aberto após o POST de inclusão",
+                        Map.of("codigoEmpresa", codigoEmpresa), e);
+            }
             throw e;
         }
     }
@@ -294,13 +324,11 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
     private ControleSync criarEMSalvarControleSync(String codigoEmpresa, IntegracaoOdontoprev dadosCompletos) {
         log.info("🔧 [CRIAR CONTROLE] Iniciando criação de controle para empresa: {}", codigoEmpresa);
         
-        // Cria ou atualiza objeto de controle com dados da empresa
-        ControleSync controleSync = gerenciadorControleSync.criarControle(codigoEmpresa, dadosCompletos);
+        // Cria ou atualiza o controle com dados da empresa e salva no banco (retorna com ID gerado)
+        ControleSync controleSalvo = gerenciadorControleSync.registrarControle(codigoEmpresa, dadosCompletos,
+                ControleSync.TipoOperacao.CREATE, ControleSync.TipoControle.ADICAO);
         log.info("📋 [CRIAR CONTROLE] Controle criado - Status: {}, Tipo: {}", 
-                controleSync.getStatusSync(), controleSync.getTipoControle());
-        
-        // Salva no banco e retorna com ID gerado
-        ControleSync controleSalvo = gerenciadorControleSync.salvar(controleSync);
+                controleSalvo.getStatusSync(), controleSalvo.getTipoControle());
         log.info("💾 [CRIAR CONTROLE] Controle salvo com ID: {} para empresa: {}", 
                 controleSalvo.getId(), controleSalvo.getCodigoEmpresa());
         
@@ -312,9 +340,6 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
     }
 
 
-    @org.springframework.beans.factory.annotation.Autowired
-    private org.springframework.jdbc.core.JdbcTemplate jdbcTemplate;
-
     /**
      * EXECUÇÃO DA PROCEDURE SS_PLS_CAD_CODEMPRESA_ODONTOPREV
      * 
@@ -345,29 +370,17 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
         log.info("✅ [PROCEDURE EMPRESA] Validações passaram - todos os parâmetros são válidos");
         
         try {
-            String sql = "{ call TASY.SS_PLS_CAD_CODEMPRESA_ODONTOPREV(?, ?) }";
-            log.info("🔧 [PROCEDURE EMPRESA] ANTES da procedure - SQL: {}", sql);
-            log.info("🔧 [PROCEDURE EMPRESA] ANTES da procedure - Parâmetros: nrSequenciaContrato={}, codigoEmpresaApi='{}'", 
-                    nrSequenciaContrato, codigoEmpresaApi);
-            
-            log.info("🔄 [PROCEDURE EMPRESA] ANTES da procedure - Executando CallableStatement...");
-            
-            jdbcTemplate.execute(sql, (org.springframework.jdbc.core.CallableStatementCallback<Void>) cs -> {
-                log.info("🔗 [PROCEDURE EMPRESA] ANTES da procedure - Conexão obtida - criando CallableStatement");
-                
-                // Configurar os parâmetros IN
-                cs.setLong(1, nrSequenciaContrato); // p_nr_sequencia as NUMBER
-                cs.setString(2, codigoEmpresaApi); // p_codigo_empresa as VARCHAR2
-                
-                log.info("📝 [PROCEDURE EMPRESA] ANTES da procedure - Parâmetros setados - p_nr_sequencia={}, p_codigo_empresa='{}'", 
-                        nrSequenciaContrato, codigoEmpresaApi);
-                
-                log.info("⚡ [PROCEDURE EMPRESA] ANTES da procedure - Executando cs.execute()...");
-                boolean result = cs.execute();
-                log.info("✅ [PROCEDURE EMPRESA] DEPOIS da procedure - cs.execute() retornou: {}", result);
-                
-                return null;
-            });
+            if (procedureLoteExecutor.isLoteHabilitado()) {
+                // Aguarda o lote: empresas processadas em paralelo compartilham a mesma ida ao banco
+                log.info("📦 [PROCEDURE EMPRESA] Executando procedure em lote para nrSequenciaContrato={}", nrSequenciaContrato);
+                procedureLoteExecutor.executarCodigoEmpresaEmLote(nrSequenciaContrato, codigoEmpresaApi);
+                log.info("✅ [PROCEDURE EMPRESA] DEPOIS da procedure - Código da empresa '{}' cadastrado no banco local", codigoEmpresaApi);
+                return;
+            }
+
+            log.info("⚡ [PROCEDURE EMPRESA] ANTES da procedure - {} com p_nr_sequencia={}, p_codigo_empresa='{}'",
+                    ProcedureTasyLoteExecutor.SQL_CODEMPRESA, nrSequenciaContrato, codigoEmpresaApi);
+            procedureLoteExecutor.executarCodigoEmpresa(nrSequenciaContrato, codigoEmpresaApi);
             
             log.info("✅ [PROCEDURE EMPRESA] DEPOIS da procedure - Procedure SS_PLS_CAD_CODEMPRESA_ODONTOPREV executada com sucesso!");
             log.info("✅ [PROCEDURE EMPRESA] DEPOIS da procedure - Empresa {} agora deve ter codigoEmpresa atualizado na view", nrSequenciaContrato);
@@ -442,17 +455,13 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
             log.info("🔄 [PROCESSAR SUCESSO] Iniciando processamento de sucesso para empresa: {}", controleSync.getCodigoEmpresa());
             
             // Converte objeto de resposta para JSON (String)
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = RespostaBrutaApi.jsonDe(response, objectMapper);
             log.debug("📄 [PROCESSAR SUCESSO] Response JSON gerado: {} caracteres", responseJson.length());
             
-            // Atualiza controle com dados de sucesso
+            // Atualiza controle com dados de sucesso (UPDATE único, gravado em segundo plano)
             gerenciadorControleSync.atualizarSucesso(controleSync, responseJson, tempoResposta);
-            log.info("✅ [PROCESSAR SUCESSO] Controle atualizado com sucesso");
-            
-            // Salva controle com informações de sucesso
-            ControleSync controleSalvo = gerenciadorControleSync.salvar(controleSync);
-            log.info("💾 [PROCESSAR SUCESSO] Controle salvo com ID: {} para empresa: {}", 
-                    controleSalvo.getId(), controleSalvo.getCodigoEmpresa());
+            log.info("💾 [PROCESSAR SUCESSO] Controle registrado com ID: {} para empresa: {}", 
+                    controleSync.getId(), controleSync.getCodigoEmpresa());
             
         } catch (Exception e) {
             // Erro na conversão para JSON (raro, mas pode acontecer)
@@ -463,8 +472,6 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
             // porque não conseguimos armazenar adequadamente
             gerenciadorControleSync.atualizarErro(controleSync, 
                     "Erro ao serializar resposta: " + e.getMessage());
-            
-            gerenciadorControleSync.salvar(controleSync);
         }
     }
 
@@ -1040,9 +1047,9 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
         log.info("🔄 [REPROCESSAMENTO PLANOS] Iniciando reprocessamento de empresas com erro na criação de planos");
         
         try {
-            // Buscar empresas com erro no tipo PLANOS
-            List<ControleSync> empresasComErro = controleSyncRepository
-                    .findByTipoControleAndStatusSyncOrderByDataCriacaoDesc(
+            // Buscar empresas com erro no tipo PLANOS (só os códigos, sem ler os CLOBs dos controles)
+            List<String> empresasComErro = controleSyncRepository
+                    .findDistinctCodigoEmpresaByTipoControleAndStatusSync(
                             ControleSync.TipoControle.PLANOS.getCodigo(), 
                             ControleSync.StatusSync.ERROR);
             
@@ -1058,8 +1065,7 @@ public class ProcessamentoEmpresaServiceImpl implements ProcessamentoEmpresaServ
             int sucesso = 0;
             int erro = 0;
             
-            for (ControleSync controleErro : empresasComErro) {
-                String codigoEmpresa = controleErro.getCodigoEmpresa();
+            for (String codigoEmpresa : empresasComErro) {
                 log.info("🔄 [REPROCESSAMENTO PLANOS] Reprocessando empresa: {}", codigoEmpresa);
                 
                 try {
@@ -3,14 +3,20 @@ package com.odontoPrev.odontoPrev.infrastructure.client.service;
 import com.odontoPrev.odontoPrev.domain.service.ProcessamentoEmpresaService;
 import com.odontoPrev.odontoPrev.domain.service.ProcessamentoLoteService;
 import com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao;
+import com.odontoPrev.odontoPrev.infrastructure.repository.AgendaRetentativaControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.CircuitBreakerApim;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.FamiliaEndpointApim;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao.TipoExcecao.*;
 
@@ -62,6 +68,12 @@ public class ProcessamentoLoteServiceImpl implements ProcessamentoLoteService {
     // Serviço responsável por processar cada empresa individualmente
     private final ProcessamentoEmpresaService processamentoEmpresaService;
 
+    // Circuit breaker da API: com o circuito aberto o restante da página é adiado
+    private final CircuitBreakerApim circuitBreakerApim;
+
+    // Empresas com retentativa agendada ficam com o agendador de retentativas
+    private final AgendaRetentativaControleSync agendaRetentativa;
+
     /**
      * MÉTODO PRINCIPAL - PROCESSA TODAS AS EMPRESAS EM LOTES
      * 
@@ -287,18 +299,34 @@ public class ProcessamentoLoteServiceImpl implements ProcessamentoLoteService {
     private long processarLote(List<String> codigosEmpresas) {
         log.info("🚀 [PROCESSAMENTO LOTE] Iniciando processamento de {} empresas", codigosEmpresas.size());
         long processadasNoLote = 0; // Contador de sucessos nesta página
+        Set<String> comRetentativaAgendada = agendaRetentativa.empresasAgendadas(
+                ControleSync.TipoControle.ADICAO, codigosEmpresas);
 
         // Processa cada empresa individualmente
         for (int i = 0; i < codigosEmpresas.size(); i++) {
             String codigoEmpresa = codigosEmpresas.get(i);
+            if (comRetentativaAgendada.contains(codigoEmpresa)) {
+                log.info("⏭️ [PROCESSAMENTO LOTE] Empresa {} com retentativa agendada - fica para o agendador de retentativas", codigoEmpresa);
+                continue;
+            }
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.EMPRESA)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de empresas indisponível - {} empresas restantes adiadas para a próxima execução",
+                        codigosEmpresas.size() - i);
+                break;
+            }
             log.info("🔍 [PROCESSAMENTO LOTE] Processando empresa {}/{}: {}", i + 1, codigosEmpresas.size(), codigoEmpresa);
             
             // Processa empresa com tratamento de erro
-            if (processarEmpresaComSeguranca(codigoEmpresa)) {
-                processadasNoLote++; // Incrementa apenas se deu certo
-                log.info("✅ [PROCESSAMENTO LOTE] Empresa {} processada com sucesso", codigoEmpresa);
-            } else {
-                log.warn("⚠️ [PROCESSAMENTO LOTE] Empresa {} teve erro no processamento", codigoEmpresa);
+            try {
+                if (processarEmpresaComSeguranca(codigoEmpresa)) {
+                    processadasNoLote++; // Incrementa apenas se deu certo
+                    log.info("✅ [PROCESSAMENTO LOTE] Empresa {} processada com sucesso", codigoEmpresa);
+                } else {
+                    log.warn("⚠️ [PROCESSAMENTO LOTE] Empresa {} teve erro no processamento", codigoEmpresa);
+                }
+            } catch (CircuitoAbertoException e) {
+                // Empresa não foi marcada como erro: volta na próxima execução
+                log.warn("⏸️ [PROCESSAMENTO LOTE] Empresa {} adiada - {}", codigoEmpresa, e.getMessage());
             }
             // Se der erro, empresa é pulada mas outras continuam
         }
@@ -0,0 +1,251 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.service;
+
+import com.odontoPrev.odontoPrev.domain.entity.BeneficiarioOdontoprev;
+import com.odontoPrev.odontoPrev.domain.repository.ControleSyncBeneficiarioRepository;
+import com.odontoPrev.odontoPrev.domain.service.ProcessamentoBeneficiarioAlteracaoService;
+import com.odontoPrev.odontoPrev.domain.service.ProcessamentoBeneficiarioExclusaoService;
+import com.odontoPrev.odontoPrev.domain.service.ProcessamentoBeneficiarioService;
+import com.odontoPrev.odontoPrev.domain.service.ProcessamentoEmpresaAlteracaoService;
+import com.odontoPrev.odontoPrev.domain.service.ProcessamentoEmpresaExclusaoService;
+import com.odontoPrev.odontoPrev.domain.service.ProcessamentoEmpresaService;
+import com.odontoPrev.odontoPrev.domain.service.RetentativaSincronizacaoService;
+import com.odontoPrev.odontoPrev.infrastructure.client.adapter.mapper.BeneficiarioViewMapper;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.CircuitBreakerApim;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.FamiliaEndpointApim;
+import com.odontoPrev.odontoPrev.infrastructure.repository.ControleSyncRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioAlteracaoRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioExclusaoRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioRepository;
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiario;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * REPROCESSAMENTO DAS RETENTATIVAS AGENDADAS DA TBSYNC
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Reenvia os registros com erro retentável cuja DATA_PROXIMA_TENTATIVA já
+ * chegou (backoff exponencial com jitter definido pela PoliticaRetentativa).
+ * O fluxo principal pula esses registros, então a retentativa não disputa
+ * vaga com o trabalho novo nem insiste numa API que está falhando.
+ *
+ * COMO FUNCIONA:
+ * 1. Busca até "tamanho-lote" beneficiários (findPendentesRetry) e empresas
+ *    vencidos, os mais antigos primeiro
+ * 2. Reserva cada registro (limpa DATA_PROXIMA_TENTATIVA com UPDATE condicionado
+ *    ao valor lido): com várias instâncias, só uma reenvia
+ * 3. Relê a linha atual da view e chama o mesmo serviço do fluxo principal,
+ *    que grava o resultado (sucesso, ou erro com a próxima tentativa)
+ * 4. Se a linha saiu da view, não há mais o que enviar: a retentativa termina
+ *
+ * ORÇAMENTO PRÓPRIO DE CONCORRÊNCIA:
+ * Roda num pool próprio de "max-threads" threads, separado do ExecutorService
+ * da sincronização. Com o circuit breaker aberto o ciclo para de reenviar, e
+ * os registros ainda não reservados continuam agendados.
+ *
+ * CONFIGURAÇÕES (application.yml):
+ * - odontoprev.controle-sync.retentativa.tamanho-lote: registros por tipo em cada ciclo
+ * - odontoprev.controle-sync.retentativa.max-threads: reenvios simultâneos
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RetentativaSincronizacaoServiceImpl implements RetentativaSincronizacaoService {
+
+    private final ControleSyncBeneficiarioRepository controleSyncBeneficiarioRepository;
+    private final ControleSyncRepository controleSyncRepository;
+
+    private final IntegracaoOdontoprevBeneficiarioRepository inclusaoRepository;
+    private final IntegracaoOdontoprevBeneficiarioAlteracaoRepository alteracaoRepository;
+    private final IntegracaoOdontoprevBeneficiarioExclusaoRepository exclusaoRepository;
+    private final BeneficiarioViewMapper beneficiarioViewMapper;
+
+    private final ProcessamentoBeneficiarioService processamentoInclusoes;
+    private final ProcessamentoBeneficiarioAlteracaoService processamentoAlteracoes;
+    private final ProcessamentoBeneficiarioExclusaoService processamentoExclusoes;
+    private final ProcessamentoEmpresaService processamentoEmpresa;
+    private final ProcessamentoEmpresaAlteracaoService processamentoEmpresaAlteracao;
+    private final ProcessamentoEmpresaExclusaoService processamentoEmpresaExclusao;
+
+    private final CircuitBreakerApim circuitBreakerApim;
+
+    @Value("${odontoprev.controle-sync.retentativa.tamanho-lote:50}")
+    private int tamanhoLote;
+
+    @Value("${odontoprev.controle-sync.retentativa.max-threads:2}")
+    private int maxThreads;
+
+    private ExecutorService executorRetentativas;
+
+    @PostConstruct
+    void iniciar() {
+        AtomicInteger contador = new AtomicInteger();
+        executorRetentativas = Executors.newFixedThreadPool(Math.max(1, maxThreads), tarefa -> {
+            Thread thread = new Thread(tarefa, "tbsync-retentativa-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executorRetentativas.shutdown();
+        try {
+            if (!executorRetentativas.awaitTermination(30, TimeUnit.SECONDS)) {
+                executorRetentativas.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorRetentativas.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public int processarRetentativasVencidas() {
+        LocalDateTime agora = LocalDateTime.now();
+        PageRequest lote = PageRequest.of(0, Math.max(1, tamanhoLote));
+
+        List<ControleSyncBeneficiarioRepository.ResumoControle> beneficiarios =
+                controleSyncBeneficiarioRepository.findPendentesRetry(agora, lote);
+        List<ControleSyncRepository.ResumoControle> empresas = controleSyncRepository.findRetentativasVencidas(
+                ControleSync.StatusSync.ERROR, agora, lote);
+        if (beneficiarios.isEmpty() && empresas.isEmpty()) {
+            return 0;
+        }
+        log.info("🔁 [RETENTATIVA] Retentativas vencidas - empresas: {}, beneficiários: {}",
+                empresas.size(), beneficiarios.size());
+
+        AtomicInteger reenviados = new AtomicInteger();
+        List<CompletableFuture<Void>> tarefas = new ArrayList<>();
+
+        for (ControleSyncRepository.ResumoControle controle : empresas) {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.EMPRESA)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de empresas indisponível - retentativas de empresas continuam agendadas");
+                break;
+            }
+            tarefas.add(CompletableFuture.runAsync(() -> {
+                if (reprocessarEmpresa(controle)) {
+                    reenviados.incrementAndGet();
+                }
+            }, executorRetentativas));
+        }
+
+        for (ControleSyncBeneficiarioRepository.ResumoControle controle : beneficiarios) {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.BENEFICIARIO)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de beneficiários indisponível - retentativas de beneficiários continuam agendadas");
+                break;
+            }
+            tarefas.add(CompletableFuture.runAsync(() -> {
+                if (reprocessarBeneficiario(controle)) {
+                    reenviados.incrementAndGet();
+                }
+            }, executorRetentativas));
+        }
+
+        CompletableFuture.allOf(tarefas.toArray(new CompletableFuture<?>[0])).join();
+        log.info("✅ [RETENTATIVA] Ciclo concluído - {} registros reenviados", reenviados.get());
+        return reenviados.get();
+    }
+
+    /**
+     * REENVIA UMA EMPRESA
+     *
+     * Os serviços de empresa releem a view pelo código e gravam o resultado no controle.
+     */
+    private boolean reprocessarEmpresa(ControleSyncRepository.ResumoControle controle) {
+        String codigoEmpresa = controle.getCodigoEmpresa();
+        try {
+            // O circuito pode ter aberto depois que a tarefa entrou na fila: sem reservar, o registro continua agendado
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.EMPRESA)
+                    || controleSyncRepository.reservarRetentativa(controle.getId(), controle.getDataProximaTentativa()) == 0) {
+                return false;
+            }
+            log.info("🔁 [RETENTATIVA] Empresa {} - tipo {} (tentativa {})",
+                    codigoEmpresa, controle.getTipoControle(), controle.getTentativas());
+
+            if (ControleSync.TipoControle.ADICAO.getCodigo().equals(controle.getTipoControle())) {
+                processamentoEmpresa.processar(codigoEmpresa);
+            } else if (ControleSync.TipoControle.ALTERACAO.getCodigo().equals(controle.getTipoControle())) {
+                processamentoEmpresaAlteracao.processar(codigoEmpresa);
+            } else if (ControleSync.TipoControle.EXCLUSAO.getCodigo().equals(controle.getTipoControle())) {
+                processamentoEmpresaExclusao.processar(codigoEmpresa);
+            } else {
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("❌ [RETENTATIVA] Erro ao reenviar empresa {}: {}", codigoEmpresa, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * REENVIA UM BENEFICIÁRIO
+     *
+     * Relê a linha atual da view correspondente à operação e chama o serviço
+     * de processamento unitário.
+     */
+    private boolean reprocessarBeneficiario(ControleSyncBeneficiarioRepository.ResumoControle controle) {
+        String matricula = controle.getCodigoBeneficiario();
+        try {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.BENEFICIARIO)
+                    || controleSyncBeneficiarioRepository.reservarRetentativa(controle.getId(), controle.getDataProximaTentativa()) == 0) {
+                return false;
+            }
+            BeneficiarioOdontoprev beneficiario = buscarNaView(controle);
+            if (beneficiario == null) {
+                log.info("ℹ️ [RETENTATIVA] Beneficiário {} ({}) não está mais na view - retentativa encerrada",
+                        matricula, controle.getTipoOperacao());
+                return false;
+            }
+            log.info("🔁 [RETENTATIVA] Beneficiário {} - {} (tentativa {} de {})",
+                    matricula, controle.getTipoOperacao(), controle.getTentativas(), controle.getMaxTentativas());
+
+            switch (controle.getTipoOperacao()) {
+                case "INCLUSAO" -> processamentoInclusoes.processarInclusaoBeneficiario(beneficiario);
+                case "ALTERACAO" -> processamentoAlteracoes.processarAlteracaoBeneficiario(beneficiario);
+                case "EXCLUSAO" -> processamentoExclusoes.processarInativacaoBeneficiario(beneficiario);
+                default -> {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("❌ [RETENTATIVA] Erro ao reenviar beneficiário {} ({}): {}",
+                    matricula, controle.getTipoOperacao(), e.getMessage());
+            return true;
+        }
+    }
+
+    private BeneficiarioOdontoprev buscarNaView(ControleSyncBeneficiarioRepository.ResumoControle controle) {
+        String empresa = controle.getCodigoEmpresa();
+        String matricula = controle.getCodigoBeneficiario();
+        String tipoOperacao = controle.getTipoOperacao() != null ? controle.getTipoOperacao() : "";
+        return switch (tipoOperacao) {
+            case "INCLUSAO" -> {
+                IntegracaoOdontoprevBeneficiario linha = inclusaoRepository.findByCodigoMatricula(matricula);
+                yield linha != null ? beneficiarioViewMapper.fromInclusaoView(linha) : null;
+            }
+            case "ALTERACAO" -> alteracaoRepository.findByCdEmpresaAndCodigoMatricula(empresa, matricula).stream()
+                    .findFirst().map(beneficiarioViewMapper::fromAlteracaoView).orElse(null);
+            case "EXCLUSAO" -> exclusaoRepository.findByCdEmpresaAndCodigoMatricula(empresa, matricula).stream()
+                    .findFirst().map(beneficiarioViewMapper::fromExclusaoView).orElse(null);
+            default -> null;
+        };
+    }
+}
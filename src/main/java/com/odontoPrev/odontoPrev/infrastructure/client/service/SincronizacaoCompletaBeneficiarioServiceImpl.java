@@ -6,10 +6,13 @@ import com.odontoPrev.odontoPrev.domain.repository.BeneficiarioOdontoprevReposit
 import com.odontoPrev.odontoPrev.domain.repository.ControleSyncBeneficiarioRepository;
 import com.odontoPrev.odontoPrev.domain.service.*;
 import com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao;
+import com.odontoPrev.odontoPrev.infrastructure.repository.AgendaRetentativaControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioRepository;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioAlteracaoRepository;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevBeneficiarioExclusaoRepository;
 import com.odontoPrev.odontoPrev.infrastructure.client.adapter.mapper.BeneficiarioViewMapper;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.CircuitBreakerApim;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.FamiliaEndpointApim;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +23,8 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.function.Function;
 
 import static com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao.TipoExcecao.*;
 
@@ -75,6 +80,12 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
     
     // Repositório de beneficiários para verificação por CPF
     private final BeneficiarioOdontoprevRepository beneficiarioRepository;
+
+    // Circuit breaker da API: com o circuito aberto o restante do lote é adiado
+    private final CircuitBreakerApim circuitBreakerApim;
+
+    // Beneficiários com retentativa agendada ficam com o agendador de retentativas
+    private final AgendaRetentativaControleSync agendaRetentativa;
     
     // Configurações
     @Value("${odontoprev.sync.beneficiario.batch-size:50}")
@@ -83,6 +94,14 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
     @Value("${odontoprev.sync.beneficiario.max-threads:5}")
     private int maxThreads;
 
+    // Quantidade de alterações por chamada ao endpoint /alterar (1 = uma chamada por beneficiário)
+    @Value("${odontoprev.sync.beneficiario.alteracao.tamanho-lote:20}")
+    private int tamanhoLoteAlteracao;
+
+    // Quantidade de associados por chamada ao endpoint /inativar (1 = uma chamada por beneficiário)
+    @Value("${odontoprev.sync.beneficiario.exclusao.tamanho-lote:50}")
+    private int tamanhoLoteExclusao;
+
     /**
      * MÉTODO PRINCIPAL - EXECUTA SINCRONIZAÇÃO COMPLETA
      * 
@@ -361,8 +380,32 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
      */
     private int processarLoteAlteracoes(java.util.List<com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiarioAlteracao> beneficiarios) {
         int processadosNoLote = 0;
+        beneficiarios = semRetentativaAgendada(beneficiarios, "ALTERACAO",
+                com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiarioAlteracao::getCodigoMatricula);
+        
+        // Modo lote: várias alterações da mesma empresa em uma única chamada
+        if (tamanhoLoteAlteracao > 1) {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.BENEFICIARIO)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de beneficiários indisponível - lote de alterações adiado para a próxima execução");
+                return 0;
+            }
+            var beneficiariosDominio = new java.util.ArrayList<BeneficiarioOdontoprev>();
+            for (var beneficiario : beneficiarios) {
+                try {
+                    beneficiariosDominio.add(beneficiarioViewMapper.fromAlteracaoView(beneficiario));
+                } catch (Exception e) {
+                    log.error("Erro ao converter alteração do beneficiário {}: {}", 
+                             beneficiario.getCdEmpresa(), e.getMessage());
+                }
+            }
+            return processamentoAlteracoes.processarAlteracoesEmLote(beneficiariosDominio);
+        }
         
         for (var beneficiario : beneficiarios) {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.BENEFICIARIO)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de beneficiários indisponível - alterações restantes do lote adiadas para a próxima execução");
+                break;
+            }
             try {
                 // Converte a view para entidade de domínio e processa
                 var beneficiarioDomínio = beneficiarioViewMapper.fromAlteracaoView(beneficiario);
@@ -385,8 +428,32 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
      */
     private int processarLoteExclusoes(java.util.List<com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiarioExclusao> beneficiarios) {
         int processadosNoLote = 0;
+        beneficiarios = semRetentativaAgendada(beneficiarios, "EXCLUSAO",
+                com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiarioExclusao::getCodigoMatricula);
+        
+        // Modo lote: vários associados da mesma empresa e data em uma única chamada
+        if (tamanhoLoteExclusao > 1) {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.BENEFICIARIO)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de beneficiários indisponível - lote de exclusões adiado para a próxima execução");
+                return 0;
+            }
+            var beneficiariosDominio = new java.util.ArrayList<BeneficiarioOdontoprev>();
+            for (var beneficiario : beneficiarios) {
+                try {
+                    beneficiariosDominio.add(beneficiarioViewMapper.fromExclusaoView(beneficiario));
+                } catch (Exception e) {
+                    log.error("Erro ao converter exclusão do beneficiário {}: {}", 
+                             beneficiario.getCodigoMatricula(), e.getMessage());
+                }
+            }
+            return processamentoExclusoes.processarInativacoesEmLote(beneficiariosDominio);
+        }
         
         for (var beneficiario : beneficiarios) {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.BENEFICIARIO)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de beneficiários indisponível - exclusões restantes do lote adiadas para a próxima execução");
+                break;
+            }
             try {
                 // Converte a view para entidade de domínio e processa
                 var beneficiarioDomínio = beneficiarioViewMapper.fromExclusaoView(beneficiario);
@@ -402,6 +469,26 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
         return processadosNoLote;
     }
 
+    /**
+     * REMOVE DO LOTE OS BENEFICIÁRIOS COM RETENTATIVA AGENDADA
+     * 
+     * Uma consulta por lote na TBSYNC. Esses beneficiários são reprocessados
+     * pelo RetentativaControleSyncScheduler quando o backoff vencer.
+     */
+    private <T> java.util.List<T> semRetentativaAgendada(java.util.List<T> beneficiarios, String tipoOperacao,
+                                                         Function<T, String> matricula) {
+        Set<String> agendados = agendaRetentativa.beneficiariosAgendados(tipoOperacao,
+                beneficiarios.stream().map(matricula).toList());
+        if (agendados.isEmpty()) {
+            return beneficiarios;
+        }
+        log.info("⏭️ [RETENTATIVA] {} beneficiários do lote ({}) com retentativa agendada - ficam para o agendador de retentativas",
+                agendados.size(), tipoOperacao);
+        return beneficiarios.stream()
+                .filter(beneficiario -> !agendados.contains(matricula.apply(beneficiario)))
+                .toList();
+    }
+
     /**
      * CONTA TOTAL DE BENEFICIÁRIOS PARA INCLUSÃO
      */
@@ -649,6 +736,8 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
     private int processarLoteInclusoes(java.util.List<com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiario> beneficiarios) {
         int processadosNoLote = 0;
         int jaProcessados = 0;
+        beneficiarios = semRetentativaAgendada(beneficiarios, "INCLUSAO",
+                com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiario::getCodigoMatricula);
         
         // Set para rastrear CPFs já processados neste lote (evitar processar o mesmo beneficiário duas vezes)
         java.util.Set<String> cpfProcessadosNoLote = new java.util.HashSet<>();
@@ -656,6 +745,10 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
         log.info("🔄 INICIANDO PROCESSAMENTO DO LOTE - {} beneficiários no lote", beneficiarios.size());
         
         for (var beneficiario : beneficiarios) {
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.BENEFICIARIO)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de beneficiários indisponível - inclusões restantes do lote adiadas para a próxima execução");
+                break;
+            }
             // Verificar se já foi processado neste lote (evitar duplicatas)
             String cpfBeneficiario = beneficiario.getCpf() != null ? beneficiario.getCpf().replaceAll("[^0-9]", "") : "";
             if (!cpfBeneficiario.isEmpty() && cpfProcessadosNoLote.contains(cpfBeneficiario)) {
@@ -1769,7 +1862,8 @@ public class SincronizacaoCompletaBeneficiarioServiceImpl implements Sincronizac
      */
     private boolean jaFoiProcessadoComSucesso(String codigoEmpresa, String codigoBeneficiario, String tipoOperacao) {
         try {
-            var controle = controleSyncRepository.findByCodigoEmpresaAndCodigoBeneficiarioAndTipoOperacao(
+            // Só o resumo (status e data): os CLOBs do controle não saem do banco
+            var controle = controleSyncRepository.findResumoByChave(
                     codigoEmpresa, codigoBeneficiario, tipoOperacao);
             
             if (controle.isPresent()) {
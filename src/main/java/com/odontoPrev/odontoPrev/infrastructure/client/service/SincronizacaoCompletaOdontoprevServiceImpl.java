@@ -2,9 +2,14 @@ package com.odontoPrev.odontoPrev.infrastructure.client.service;
 
 import com.odontoPrev.odontoPrev.domain.service.*;
 import com.odontoPrev.odontoPrev.infrastructure.aop.MonitorarOperacao;
+import com.odontoPrev.odontoPrev.infrastructure.repository.AgendaRetentativaControleSync;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevAlteracaoRepository;
 import com.odontoPrev.odontoPrev.infrastructure.repository.IntegracaoOdontoprevExclusaoRepository;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.CircuitBreakerApim;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.FamiliaEndpointApim;
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
 import java.util.List;
+import java.util.Set;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -50,6 +55,12 @@ public class SincronizacaoCompletaOdontoprevServiceImpl implements Sincronizacao
     // Repositórios para contagem
     private final IntegracaoOdontoprevAlteracaoRepository alteracaoRepository;
     private final IntegracaoOdontoprevExclusaoRepository exclusaoRepository;
+
+    // Circuit breaker da API: com o circuito aberto o restante do lote é adiado
+    private final CircuitBreakerApim circuitBreakerApim;
+
+    // Empresas com retentativa agendada ficam com o agendador de retentativas
+    private final AgendaRetentativaControleSync agendaRetentativa;
     
     // Configurações
     @Value("${odontoprev.sync.batch-size:50}")
@@ -287,8 +298,18 @@ public class SincronizacaoCompletaOdontoprevServiceImpl implements Sincronizacao
      */
     private long processarLoteAlteracoes(java.util.List<String> codigosEmpresas) {
         long processadasNoLote = 0;
+        Set<String> comRetentativaAgendada = agendaRetentativa.empresasAgendadas(
+                ControleSync.TipoControle.ALTERACAO, codigosEmpresas);
         
         for (String codigoEmpresa : codigosEmpresas) {
+            if (comRetentativaAgendada.contains(codigoEmpresa)) {
+                log.info("⏭️ [RETENTATIVA] Alteração da empresa {} com retentativa agendada - fica para o agendador de retentativas", codigoEmpresa);
+                continue;
+            }
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.EMPRESA)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de empresas indisponível - alterações restantes do lote adiadas para a próxima execução");
+                break;
+            }
             try {
                 // Chama o serviço de processamento de alterações
                 processamentoAlteracoes.processar(codigoEmpresa);
@@ -309,8 +330,18 @@ public class SincronizacaoCompletaOdontoprevServiceImpl implements Sincronizacao
      */
     private long processarLoteExclusoes(java.util.List<String> codigosEmpresas) {
         long processadasNoLote = 0;
+        Set<String> comRetentativaAgendada = agendaRetentativa.empresasAgendadas(
+                ControleSync.TipoControle.EXCLUSAO, codigosEmpresas);
         
         for (String codigoEmpresa : codigosEmpresas) {
+            if (comRetentativaAgendada.contains(codigoEmpresa)) {
+                log.info("⏭️ [RETENTATIVA] Exclusão da empresa {} com retentativa agendada - fica para o agendador de retentativas", codigoEmpresa);
+                continue;
+            }
+            if (!circuitBreakerApim.permiteChamadas(FamiliaEndpointApim.EMPRESA)) {
+                log.warn("⏸️ [CIRCUIT BREAKER] API de empresas indisponível - exclusões restantes do lote adiadas para a próxima execução");
+                break;
+            }
             try {
                 // Chama o serviço de processamento de exclusões
                 processamentoExclusoes.processar(codigoEmpresa);
@@ -0,0 +1,88 @@
+package com.odontoPrev.odontoPrev.infrastructure.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+
+/**
+ * AJUSTES DE DESEMPENHO DO DRIVER ORACLE NOS POOLS HIKARI
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Aplica as propriedades de conexão do driver Oracle em todo HikariDataSource
+ * da aplicação (pool único do Spring Boot ou os pools tasy-leitura e
+ * tasy-escrita), via dataSourceProperties do Hikari.
+ *
+ * PROPRIEDADES APLICADAS:
+ * - oracle.jdbc.defaultRowPrefetch: linhas trazidas por ida ao banco (o padrão
+ *   do driver é 10 - uma view com 50 mil linhas custava 5 mil idas e voltas).
+ *   O pool de leitura usa um valor próprio, maior
+ * - oracle.jdbc.implicitStatementCacheSize: cache de PreparedStatements por
+ *   conexão; os mesmos SQLs da TBSYNC e das views deixam de ser reanalisados
+ *   a cada execução
+ * - oracle.jdbc.defaultLobPrefetchSize: bytes de cada CLOB que já vêm junto
+ *   com a linha (DADOS_JSON, RESPONSE_API comprimidos cabem inteiros e não
+ *   custam uma ida extra ao banco por coluna)
+ *
+ * COMO FUNCIONA:
+ * Roda depois do binding das propriedades do pool e só preenche o que não foi
+ * configurado: data-source-properties explícitas no yml continuam valendo.
+ * As consultas de varredura das views ainda definem o próprio fetch size
+ * (FetchSizeView), que prevalece sobre o prefetch padrão da conexão.
+ *
+ * CONFIGURAÇÕES (application.yml, perfis jdbc-regime e jdbc-carga):
+ * - odontoprev.datasource.oracle.row-prefetch
+ * - odontoprev.datasource.oracle.row-prefetch-leitura
+ * - odontoprev.datasource.oracle.statement-cache-size
+ * - odontoprev.datasource.oracle.lob-prefetch-bytes
+ */
+@Slf4j
+@Component
+public class AjusteDriverOracle implements BeanPostProcessor, EnvironmentAware {
+
+    private static final String POOL_LEITURA = "tasy-leitura";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            aplicar(dataSource);
+        }
+        return bean;
+    }
+
+    private void aplicar(HikariDataSource dataSource) {
+        int rowPrefetch = environment.getProperty("odontoprev.datasource.oracle.row-prefetch", Integer.class, 50);
+        int rowPrefetchLeitura = environment.getProperty("odontoprev.datasource.oracle.row-prefetch-leitura", Integer.class, 200);
+        int statementCache = environment.getProperty("odontoprev.datasource.oracle.statement-cache-size", Integer.class, 50);
+        int lobPrefetch = environment.getProperty("odontoprev.datasource.oracle.lob-prefetch-bytes", Integer.class, 32768);
+
+        boolean poolLeitura = POOL_LEITURA.equals(dataSource.getPoolName());
+        Properties propriedades = dataSource.getDataSourceProperties();
+        definirSeAusente(propriedades, "oracle.jdbc.defaultRowPrefetch", poolLeitura ? rowPrefetchLeitura : rowPrefetch);
+        definirSeAusente(propriedades, "oracle.jdbc.implicitStatementCacheSize", statementCache);
+        definirSeAusente(propriedades, "oracle.jdbc.defaultLobPrefetchSize", lobPrefetch);
+
+        log.info("⚙️ [DRIVER ORACLE] Pool {}: rowPrefetch={}, statementCache={}, lobPrefetch={} bytes",
+                dataSource.getPoolName() != null ? dataSource.getPoolName() : "padrão",
+                propriedades.get("oracle.jdbc.defaultRowPrefetch"),
+                propriedades.get("oracle.jdbc.implicitStatementCacheSize"),
+                propriedades.get("oracle.jdbc.defaultLobPrefetchSize"));
+    }
+
+    private void definirSeAusente(Properties propriedades, String chave, int valor) {
+        if (!propriedades.containsKey(chave)) {
+            propriedades.setProperty(chave, String.valueOf(valor));
+        }
+    }
+}
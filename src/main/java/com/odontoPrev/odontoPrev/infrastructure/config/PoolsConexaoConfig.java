@@ -0,0 +1,169 @@
+package com.odontoPrev.odontoPrev.infrastructure.config;
+
+import com.odontoPrev.odontoPrev.infrastructure.config.RoteamentoDataSource.PapelConexao;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * CONFIGURAÇÃO DOS POOLS DE CONEXÃO SEPARADOS (LEITURA x ESCRITA)
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Troca o pool único do Spring Boot por dois pools Hikari no mesmo banco Tasy,
+ * para que varreduras longas das views não deixem as gravações curtas da TBSYNC
+ * esperando conexão.
+ *
+ * COMO FUNCIONA:
+ * 1. POOL DE LEITURA (tasy-leitura): somente leitura, timeouts longos e prefetch
+ *    de linhas maior (AjusteDriverOracle) - atende os repositórios
+ *    IntegracaoOdontoprev*Repository (views VW_INTEGRACAO_ODONTOPREV*) fora de transação
+ * 2. POOL DE ESCRITA (tasy-escrita): atende a TBSYNC, as procedures, o JdbcTemplate
+ *    e toda transação - inclusive as @Transactional de beneficiário, que seguram a
+ *    conexão durante a chamada à OdontoPrev. Parte de spring.datasource.hikari
+ *    (DB_CONNECTION_TIMEOUT, DB_LEAK_DETECTION, DB_MAX_LIFETIME...)
+ * 3. ROTEAMENTO: RoteamentoDataSource + LeituraViewTasyAspect decidem o pool
+ *    por chamada; o DataSource @Primary (JPA e JdbcTemplate) é o roteador
+ *
+ * TAMANHO DOS POOLS:
+ * O banco Tasy é compartilhado: os dois pools dividem o total do pool único de
+ * antes (spring.datasource.hikari.maximum-pool-size, DB_POOL_SIZE), sem somar
+ * conexões novas.
+ * - leitura = odontoprev.datasource.leitura.maximum-pool-size, no máximo metade do total
+ * - escrita = total - leitura
+ * Se a escrita ficar menor que as threads que gravam ao mesmo tempo (empresa +
+ * beneficiário + escritores do write-behind e threads de retentativa, quando
+ * ligados, + 2 para a descarga do lote de procedures e o arquivamento), a
+ * divisão é mantida e um aviso é logado: aumente DB_POOL_SIZE ou reduza o pool
+ * de leitura.
+ *
+ * MÉTRICAS:
+ * Cada pool tem nome próprio e registra seu MBean JMX
+ * (com.zaxxer.hikari:type=Pool (tasy-leitura) / (tasy-escrita)) com conexões
+ * ativas, ociosas e threads aguardando. Com com.zaxxer.hikari em DEBUG o
+ * Hikari também loga as estatísticas de cada pool periodicamente.
+ *
+ * CONFIGURAÇÕES (application.yml):
+ * - odontoprev.datasource.pools-separados.enabled: liga/desliga (desligado =
+ *   pool único de spring.datasource.hikari, como antes)
+ * - spring.datasource.hikari.*: base dos dois pools e total de conexões (mesmas variáveis DB_* de antes)
+ * - odontoprev.datasource.leitura.*: o que muda no pool de leitura (maximum-pool-size = fatia do total)
+ * - odontoprev.datasource.escrita.*: o que muda no pool de escrita (opcional; o tamanho vem da divisão)
+ * URL, usuário e senha continuam vindo de spring.datasource.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "odontoprev.datasource.pools-separados.enabled", havingValue = "true")
+public class PoolsConexaoConfig {
+
+    private static final String BASE_HIKARI = "spring.datasource.hikari";
+
+    private final Environment environment;
+
+    public PoolsConexaoConfig(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * POOL DE LEITURA DAS VIEWS
+     */
+    @Bean(name = "dataSourceLeitura")
+    public HikariDataSource dataSourceLeitura(DataSourceProperties properties) {
+        HikariDataSource dataSource = criarPool(properties, "tasy-leitura", "odontoprev.datasource.leitura");
+        dataSource.setMaximumPoolSize(conexoesLeitura());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * POOL DE ESCRITA DA TBSYNC, DAS PROCEDURES E DAS TRANSAÇÕES
+     */
+    @Bean(name = "dataSourceEscrita")
+    public HikariDataSource dataSourceEscrita(DataSourceProperties properties) {
+        HikariDataSource dataSource = criarPool(properties, "tasy-escrita", "odontoprev.datasource.escrita");
+        dataSource.setMaximumPoolSize(conexoesTotais() - conexoesLeitura());
+
+        int threads = threadsDeEscrita();
+        if (dataSource.getMaximumPoolSize() < threads) {
+            log.warn("⚠️ [POOLS] Pool tasy-escrita com {} conexões para {} threads que gravam - threads podem "
+                            + "aguardar conexão; aumente DB_POOL_SIZE ou reduza DB_LEITURA_POOL_SIZE",
+                    dataSource.getMaximumPoolSize(), threads);
+        }
+        return dataSource;
+    }
+
+    /**
+     * DATASOURCE PRINCIPAL: ROTEADOR ATRÁS DE UM PROXY PREGUIÇOSO
+     *
+     * O proxy só abre a conexão física no primeiro SQL, quando o papel da
+     * thread (LEITURA/ESCRITA) já está definido.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("dataSourceLeitura") HikariDataSource leitura,
+                                 @Qualifier("dataSourceEscrita") HikariDataSource escrita) {
+        RoteamentoDataSource roteador = new RoteamentoDataSource();
+        roteador.setTargetDataSources(Map.of(
+                PapelConexao.LEITURA, leitura,
+                PapelConexao.ESCRITA, escrita));
+        roteador.setDefaultTargetDataSource(escrita);
+        roteador.afterPropertiesSet();
+
+        log.info("🔀 [POOLS] Pools separados ativos - {}: max {} conexões (timeout {} ms), {}: max {} conexões (timeout {} ms)",
+                leitura.getPoolName(), leitura.getMaximumPoolSize(), leitura.getConnectionTimeout(),
+                escrita.getPoolName(), escrita.getMaximumPoolSize(), escrita.getConnectionTimeout());
+
+        return new LazyConnectionDataSourceProxy(roteador);
+    }
+
+    /**
+     * CRIA UM POOL: BASE spring.datasource.hikari + AJUSTES DO PREFIXO PRÓPRIO
+     */
+    private HikariDataSource criarPool(DataSourceProperties properties, String nome, String prefixo) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder binder = Binder.get(environment);
+        binder.bind(BASE_HIKARI, Bindable.ofInstance(dataSource));
+        binder.bind(prefixo, Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(nome);
+        dataSource.setRegisterMbeans(true);
+        return dataSource;
+    }
+
+    /**
+     * TOTAL DE CONEXÕES DO POOL ÚNICO DE ANTES (PADRÃO DO HIKARI: 10)
+     */
+    private int conexoesTotais() {
+        return Math.max(2, environment.getProperty(BASE_HIKARI + ".maximum-pool-size", Integer.class, 10));
+    }
+
+    private int conexoesLeitura() {
+        int configurado = environment.getProperty("odontoprev.datasource.leitura.maximum-pool-size", Integer.class, 3);
+        return Math.max(1, Math.min(configurado, conexoesTotais() / 2));
+    }
+
+    private int threadsDeEscrita() {
+        int threads = environment.getProperty("odontoprev.sync.max-threads", Integer.class, 5)
+                + environment.getProperty("odontoprev.sync.beneficiario.max-threads", Integer.class, 5)
+                + 2;
+        if (environment.getProperty("odontoprev.controle-sync.write-behind.enabled", Boolean.class, false)) {
+            threads += environment.getProperty("odontoprev.controle-sync.write-behind.escritores", Integer.class, 2);
+        }
+        if (environment.getProperty("odontoprev.controle-sync.retentativa.enabled", Boolean.class, false)) {
+            threads += environment.getProperty("odontoprev.controle-sync.retentativa.max-threads", Integer.class, 2);
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,50 @@
+package com.odontoPrev.odontoPrev.infrastructure.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * ROTEADOR ENTRE O POOL DE LEITURA E O POOL DE ESCRITA
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Escolhe, no momento em que a conexão é realmente aberta, de qual pool do
+ * Hikari ela sai: LEITURA (varreduras das views VW_INTEGRACAO_ODONTOPREV*) ou
+ * ESCRITA (TBSYNC, procedures e todo o resto).
+ *
+ * COMO FUNCIONA:
+ * - O papel fica numa ThreadLocal, marcada pelo LeituraViewTasyAspect só
+ *   durante a chamada ao repositório de view
+ * - Sem marcação o papel é ESCRITA: qualquer caminho não mapeado continua
+ *   no pool que grava, como era antes da separação
+ * - Fica atrás de um LazyConnectionDataSourceProxy, então a decisão acontece
+ *   no primeiro comando SQL e não no início da transação
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    public enum PapelConexao { LEITURA, ESCRITA }
+
+    private static final ThreadLocal<PapelConexao> PAPEL_ATUAL = new ThreadLocal<>();
+
+    /**
+     * Marca o papel da thread atual e devolve o anterior, para ser restaurado
+     * com {@link #restaurar(PapelConexao)} no finally.
+     */
+    public static PapelConexao usar(PapelConexao papel) {
+        PapelConexao anterior = PAPEL_ATUAL.get();
+        PAPEL_ATUAL.set(papel);
+        return anterior;
+    }
+
+    public static void restaurar(PapelConexao anterior) {
+        if (anterior == null) {
+            PAPEL_ATUAL.remove();
+        } else {
+            PAPEL_ATUAL.set(anterior);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        PapelConexao papel = PAPEL_ATUAL.get();
+        return papel != null ? papel : PapelConexao.ESCRITA;
+    }
+}
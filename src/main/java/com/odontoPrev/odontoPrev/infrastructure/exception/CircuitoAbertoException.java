@@ -0,0 +1,35 @@
+package com.odontoPrev.odontoPrev.infrastructure.exception;
+
+import java.util.Map;
+
+/**
+ * Exceção lançada quando o circuit breaker de uma família de endpoints da OdontoPrev está aberto.
+ * A chamada não chegou a ser feita: o registro deve ser adiado para a próxima execução, não marcado como erro.
+ */
+public class CircuitoAbertoException extends SincronizacaoException {
+
+    public static final String CODIGO_ERRO = "ODONTOPREV_CIRCUIT_OPEN";
+
+    public CircuitoAbertoException(String familia, long segundosParaNovaTentativa) {
+        super(CODIGO_ERRO,
+              String.format("API OdontoPrev [%s] indisponível (circuito aberto) - nova tentativa em %ds", familia, segundosParaNovaTentativa),
+              Map.of("familia", familia, "segundosParaNovaTentativa", segundosParaNovaTentativa));
+    }
+
+    /**
+     * Procura uma exceção de circuito aberto na cadeia de causas.
+     *
+     * @return a exceção encontrada ou null se o erro não foi causado por circuito aberto
+     */
+    public static CircuitoAbertoException encontrar(Throwable erro) {
+        for (Throwable atual = erro; atual != null; atual = atual.getCause()) {
+            if (atual instanceof CircuitoAbertoException circuitoAberto) {
+                return circuitoAberto;
+            }
+            if (atual.getCause() == atual) {
+                break;
+            }
+        }
+        return null;
+    }
+}
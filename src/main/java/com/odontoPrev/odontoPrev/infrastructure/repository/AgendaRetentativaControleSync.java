@@ -0,0 +1,82 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+import com.odontoPrev.odontoPrev.domain.repository.ControleSyncBeneficiarioRepository;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.PoliticaRetentativa;
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * CONSULTA DAS RETENTATIVAS AGENDADAS NA TBSYNC
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Diz ao fluxo principal quais empresas/beneficiários do lote já têm uma
+ * retentativa agendada (DATA_PROXIMA_TENTATIVA preenchida). Esses registros
+ * ficam com o RetentativaControleSyncScheduler, no horário do backoff: o fluxo
+ * principal não gasta chamadas da API com eles a cada execução.
+ *
+ * COMO FUNCIONA:
+ * - Uma consulta por lote (blocos de até 1000 códigos, limite do IN no Oracle)
+ * - Com a retentativa desabilitada devolve sempre vazio, para nenhum registro
+ *   ficar preso esperando um agendador que não roda
+ * - Erro na consulta também devolve vazio: o lote segue como antes
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AgendaRetentativaControleSync {
+
+    private static final int LIMITE_IN_ORACLE = 1000;
+
+    private final ControleSyncRepository controleSyncRepository;
+    private final ControleSyncBeneficiarioRepository controleSyncBeneficiarioRepository;
+    private final PoliticaRetentativa politicaRetentativa;
+
+    /**
+     * EMPRESAS DO LOTE COM RETENTATIVA AGENDADA
+     */
+    public Set<String> empresasAgendadas(ControleSync.TipoControle tipoControle, Collection<String> codigosEmpresa) {
+        return consultar(codigosEmpresa, bloco -> controleSyncRepository
+                .findEmpresasComRetentativaAgendada(tipoControle.getCodigo(), bloco));
+    }
+
+    /**
+     * MATRÍCULAS DO LOTE COM RETENTATIVA AGENDADA
+     *
+     * @param tipoOperacao INCLUSAO, ALTERACAO ou EXCLUSAO
+     */
+    public Set<String> beneficiariosAgendados(String tipoOperacao, Collection<String> codigosBeneficiario) {
+        return consultar(codigosBeneficiario, bloco -> controleSyncBeneficiarioRepository
+                .findBeneficiariosComRetentativaAgendada(tipoOperacao, bloco));
+    }
+
+    private Set<String> consultar(Collection<String> codigos, Function<List<String>, Set<String>> consulta) {
+        if (!politicaRetentativa.isHabilitada() || codigos == null || codigos.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<String> distintos = codigos.stream().filter(Objects::nonNull).distinct().toList();
+        Set<String> agendados = new HashSet<>();
+        try {
+            for (int inicio = 0; inicio < distintos.size(); inicio += LIMITE_IN_ORACLE) {
+                List<String> bloco = new ArrayList<>(
+                        distintos.subList(inicio, Math.min(inicio + LIMITE_IN_ORACLE, distintos.size())));
+                agendados.addAll(consulta.apply(bloco));
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ [RETENTATIVA] Não foi possível consultar as retentativas agendadas - lote segue completo: {}",
+                    e.getMessage());
+            return Collections.emptySet();
+        }
+        return agendados;
+    }
+}
@@ -0,0 +1,196 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ARQUIVAMENTO DO HISTÓRICO DAS TABELAS DE CONTROLE DA TBSYNC
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Cada tentativa de sincronização deixa um registro (com três CLOBs) em
+ * TB_CONTROLE_SYNC_ODONTOPREV e TB_CONTROLE_SYNC_ODONTOPREV_BENEF. As buscas
+ * do processamento só precisam do estado mais recente de cada chave, então o
+ * histórico antigo é movido para as tabelas _HIST e as tabelas de controle
+ * ficam com o tamanho proporcional à quantidade de empresas/beneficiários.
+ *
+ * O QUE É ARQUIVADO (todas as condições):
+ * - DATA_CRIACAO anterior a "idade-dias"
+ * - Status finalizado (empresa: SUCCESS/ERROR; beneficiário: SUCESSO/ERRO/ERROR)
+ * - Existe registro mais recente para a mesma chave
+ *   (empresa: CODIGO_EMPRESA + TIPO_CONTROLE;
+ *    beneficiário: CODIGO_EMPRESA + CODIGO_BENEFICIARIO + TIPO_OPERACAO)
+ * - Se o registro é de sucesso, o mais recente também é de sucesso
+ *
+ * O registro mais recente de cada chave nunca sai da tabela de controle: é ele
+ * que as buscas (findFirst... OrderByDataCriacaoDesc, findByCodigoEmpresaAndCodigoBeneficiario,
+ * MergeControleSync) usam para decidir reaproveitamento, hash e reprocessamento.
+ * O último sucesso de cada chave também fica, mesmo com erros depois dele:
+ * findResumoByChave e as verificações "já foi processado com sucesso?" dependem dele.
+ * A tabela de controle funciona assim como a tabela de "último estado por chave".
+ *
+ * COMO FUNCIONA:
+ * 1. Seleciona até "tamanho-lote" IDs elegíveis
+ * 2. Copia as linhas para a tabela _HIST (com DATA_ARQUIVAMENTO) e apaga da
+ *    tabela de controle, na mesma transação (REQUIRES_NEW) - commit por lote.
+ *    A cópia usa as colunas que existem nas duas tabelas (lidas do dicionário
+ *    no início de cada execução), então a ordem das colunas não importa
+ * 3. Repete até um lote vir vazio ou atingir "maximo-lotes". Um lote menor que
+ *    "tamanho-lote" não encerra a execução: o SKIP LOCKED pula as linhas presas
+ *    por outra transação depois do ROWNUM, então ainda pode haver elegíveis
+ *
+ * Tabelas e índices: db/oracle/005_retencao_controle_sync.sql
+ */
+@Slf4j
+@Component
+public class ArquivadorControleSync {
+
+    // Limite do Oracle para listas no IN
+    private static final int LIMITE_IN_ORACLE = 1000;
+
+    private static final Tabela EMPRESA = new Tabela(
+            "TASY.TB_CONTROLE_SYNC_ODONTOPREV",
+            "TASY.TB_CONTROLE_SYNC_ODONTOPREV_HIST",
+            "t.STATUS_SYNC IN ('SUCCESS', 'ERROR')",
+            "('SUCCESS')",
+            "n.CODIGO_EMPRESA = t.CODIGO_EMPRESA AND n.TIPO_CONTROLE = t.TIPO_CONTROLE");
+
+    private static final Tabela BENEFICIARIO = new Tabela(
+            "TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF",
+            "TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST",
+            "t.STATUS_SYNC IN ('SUCESSO', 'ERRO', 'ERROR')",
+            "('SUCESSO', 'SUCCESS')",
+            "n.CODIGO_EMPRESA = t.CODIGO_EMPRESA AND n.CODIGO_BENEFICIARIO = t.CODIGO_BENEFICIARIO "
+                    + "AND n.TIPO_OPERACAO = t.TIPO_OPERACAO");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacaoPropria;
+
+    @Value("${odontoprev.controle-sync.retencao.idade-dias:90}")
+    private int idadeDias;
+
+    @Value("${odontoprev.controle-sync.retencao.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${odontoprev.controle-sync.retencao.maximo-lotes:200}")
+    private int maximoLotes;
+
+    public ArquivadorControleSync(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * ARQUIVA O HISTÓRICO ANTIGO DAS DUAS TABELAS DE CONTROLE
+     *
+     * @return total de registros movidos para as tabelas _HIST
+     */
+    public int arquivar() {
+        LocalDateTime limite = LocalDateTime.now().minusDays(idadeDias);
+        log.info("🗄️ [RETENÇÃO TBSYNC] Arquivando registros finalizados anteriores a {} (lote: {}, máximo de lotes: {})",
+                limite, tamanhoLote, maximoLotes);
+
+        int empresas = arquivar(EMPRESA, limite);
+        int beneficiarios = arquivar(BENEFICIARIO, limite);
+
+        log.info("✅ [RETENÇÃO TBSYNC] Arquivamento concluído - empresas: {}, beneficiários: {}",
+                empresas, beneficiarios);
+        return empresas + beneficiarios;
+    }
+
+    private int arquivar(Tabela tabela, LocalDateTime limite) {
+        int lote = Math.max(1, Math.min(tamanhoLote, LIMITE_IN_ORACLE));
+        Timestamp dataLimite = Timestamp.valueOf(limite);
+        int total = 0;
+
+        String colunas;
+        try {
+            colunas = colunasEmComum(tabela);
+        } catch (Exception e) {
+            log.error("❌ [RETENÇÃO TBSYNC] Erro ao ler as colunas de {}: {}", tabela.historico(), e.getMessage(), e);
+            return 0;
+        }
+        if (colunas.isEmpty()) {
+            log.warn("⚠️ [RETENÇÃO TBSYNC] Tabela {} não encontrada - arquivamento de {} ignorado",
+                    tabela.historico(), tabela.origem());
+            return 0;
+        }
+
+        for (int i = 0; i < maximoLotes; i++) {
+            long inicio = System.currentTimeMillis();
+            Integer movidos;
+            try {
+                movidos = transacaoPropria.execute(status -> moverLote(tabela, colunas, dataLimite, lote));
+            } catch (Exception e) {
+                log.error("❌ [RETENÇÃO TBSYNC] Erro ao arquivar lote de {}: {}", tabela.origem(), e.getMessage(), e);
+                break;
+            }
+            if (movidos == null || movidos == 0) {
+                break;
+            }
+            total += movidos;
+            log.debug("🗄️ [RETENÇÃO TBSYNC] {} registros de {} arquivados em {}ms",
+                    movidos, tabela.origem(), System.currentTimeMillis() - inicio);
+        }
+        return total;
+    }
+
+    private int moverLote(Tabela tabela, String colunas, Timestamp dataLimite, int lote) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT t.ID FROM " + tabela.origem() + " t"
+                        + " WHERE t.DATA_CRIACAO < ? AND " + tabela.statusFinalizado()
+                        + " AND EXISTS (SELECT 1 FROM " + tabela.origem() + " n"
+                        + "              WHERE " + tabela.mesmaChave()
+                        + "                AND (n.DATA_CRIACAO > t.DATA_CRIACAO"
+                        + "                     OR (n.DATA_CRIACAO = t.DATA_CRIACAO AND n.ID > t.ID))"
+                        // O último sucesso da chave fica, mesmo que existam erros mais recentes
+                        + "                AND (t.STATUS_SYNC NOT IN " + tabela.statusSucesso()
+                        + "                     OR n.STATUS_SYNC IN " + tabela.statusSucesso() + "))"
+                        + " AND ROWNUM <= ?"
+                        + " FOR UPDATE SKIP LOCKED",
+                Long.class, dataLimite, lote);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String marcadores = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] parametros = ids.toArray();
+
+        jdbcTemplate.update("INSERT INTO " + tabela.historico() + " (" + colunas + ", DATA_ARQUIVAMENTO)"
+                + " SELECT " + colunas + ", SYSTIMESTAMP FROM " + tabela.origem() + " WHERE ID IN (" + marcadores + ")",
+                parametros);
+        return jdbcTemplate.update("DELETE FROM " + tabela.origem() + " WHERE ID IN (" + marcadores + ")",
+                parametros);
+    }
+
+    /**
+     * Colunas da tabela de controle que também existem na _HIST, separadas por vírgula
+     * (vazio se a _HIST não existir)
+     */
+    private String colunasEmComum(Tabela tabela) {
+        String[] origem = tabela.origem().split("\\.");
+        String[] historico = tabela.historico().split("\\.");
+        List<String> colunas = jdbcTemplate.queryForList(
+                "SELECT o.COLUMN_NAME FROM ALL_TAB_COLUMNS o"
+                        + " WHERE o.OWNER = ? AND o.TABLE_NAME = ?"
+                        + " AND EXISTS (SELECT 1 FROM ALL_TAB_COLUMNS h"
+                        + "              WHERE h.OWNER = ? AND h.TABLE_NAME = ? AND h.COLUMN_NAME = o.COLUMN_NAME)"
+                        + " ORDER BY o.COLUMN_ID",
+                String.class, origem[0], origem[1], historico[0], historico[1]);
+        return String.join(", ", colunas);
+    }
+
+    private record Tabela(String origem, String historico, String statusFinalizado, String statusSucesso,
+                          String mesmaChave) {
+    }
+}
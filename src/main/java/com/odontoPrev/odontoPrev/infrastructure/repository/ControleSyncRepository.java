@@ -1,16 +1,43 @@
 package com.odontoPrev.odontoPrev.infrastructure.repository;
 
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface ControleSyncRepository extends JpaRepository<ControleSync, Integer> {
 
+    /**
+     * RESUMO DO CONTROLE (SEM OS CLOBS)
+     *
+     * Projeção para as consultas que só olham status, datas e tentativas:
+     * DADOS_JSON, RESPONSE_API e ERRO_MENSAGEM não são lidos do banco.
+     */
+    interface ResumoControle {
+        Integer getId();
+        String getCodigoEmpresa();
+        Integer getTipoControle();
+        ControleSync.StatusSync getStatusSync();
+        LocalDateTime getDataCriacao();
+        Integer getTentativas();
+        LocalDateTime getDataProximaTentativa();
+    }
+
+    String SELECT_RESUMO = "SELECT c.id AS id, c.codigoEmpresa AS codigoEmpresa, c.tipoControle AS tipoControle, " +
+            "c.statusSync AS statusSync, c.dataCriacao AS dataCriacao, c.tentativas AS tentativas, " +
+            "c.dataProximaTentativa AS dataProximaTentativa FROM ControleSync c ";
+
     List<ControleSync> findByCodigoEmpresaOrderByDataCriacaoDesc(String codigoEmpresa);
     
     List<ControleSync> findByStatusSyncOrderByDataCriacaoDesc(ControleSync.StatusSync statusSync);
@@ -34,6 +61,18 @@ public interface ControleSyncRepository extends JpaRepository<ControleSync, Inte
      * Retorna todos os registros ordenados por data de criação.
      */
     List<ControleSync> findByCodigoEmpresaAndTipoControleOrderByDataCriacaoDesc(String codigoEmpresa, Integer tipoControle);
+
+    /**
+     * RESUMOS DOS CONTROLES POR EMPRESA E TIPO (MAIS RECENTE PRIMEIRO)
+     *
+     * Mesmo filtro de findByCodigoEmpresaAndTipoControleOrderByDataCriacaoDesc,
+     * sem os CLOBs - para contagem e log de registros duplicados.
+     */
+    @Query(SELECT_RESUMO +
+           "WHERE c.codigoEmpresa = :codigoEmpresa AND c.tipoControle = :tipoControle " +
+           "ORDER BY c.dataCriacao DESC")
+    List<ResumoControle> findResumosByChave(@Param("codigoEmpresa") String codigoEmpresa,
+                                            @Param("tipoControle") Integer tipoControle);
     
     /**
      * BUSCA EMPRESAS COM ERRO NA CRIAÇÃO DE PLANOS
@@ -50,5 +89,108 @@ public interface ControleSyncRepository extends JpaRepository<ControleSync, Inte
      */
     @Query("SELECT DISTINCT c.codigoEmpresa FROM ControleSync c WHERE c.tipoControle = ?1 AND c.statusSync = ?2")
     List<String> findDistinctCodigoEmpresaByTipoControleAndStatusSync(Integer tipoControle, ControleSync.StatusSync statusSync);
-}
 
+    /**
+     * TRANSIÇÃO PARA SUCESSO (UM ÚNICO UPDATE)
+     * 
+     * Grava só as colunas do resultado, sem carregar o registro (nem DADOS_JSON).
+     * Só altera se o status no banco ainda for o esperado (controle otimista).
+     * 
+     * @return 1 se a transição foi aplicada, 0 se o registro mudou de status antes
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE ControleSync c SET " +
+           "c.statusSync = :statusNovo, " +
+           "c.codigoEmpresa = :codigoEmpresa, " +
+           "c.responseApi = :responseApi, " +
+           "c.dataSucesso = :dataSucesso, " +
+           "c.hashPayload = :hashPayload, " +
+           "c.erroMensagem = NULL, " +
+           "c.tentativas = 0, " +
+           "c.dataProximaTentativa = NULL " +
+           "WHERE c.id = :id AND c.statusSync = :statusEsperado")
+    int marcarSucesso(@Param("id") Integer id,
+                      @Param("statusEsperado") ControleSync.StatusSync statusEsperado,
+                      @Param("statusNovo") ControleSync.StatusSync statusNovo,
+                      @Param("codigoEmpresa") String codigoEmpresa,
+                      @Param("responseApi") String responseApi,
+                      @Param("dataSucesso") LocalDateTime dataSucesso,
+                      @Param("hashPayload") String hashPayload);
+
+    /**
+     * TRANSIÇÃO PARA ERRO (UM ÚNICO UPDATE)
+     * 
+     * Conta a tentativa no próprio banco e grava a próxima tentativa automática
+     * (null = nenhuma).
+     * 
+     * @return 1 se a transição foi aplicada, 0 se o registro mudou de status antes
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE ControleSync c SET " +
+           "c.statusSync = :statusNovo, " +
+           "c.erroMensagem = :erroMensagem, " +
+           "c.responseApi = NULL, " +
+           "c.tentativas = COALESCE(c.tentativas, 0) + 1, " +
+           "c.dataProximaTentativa = :dataProximaTentativa " +
+           "WHERE c.id = :id AND c.statusSync = :statusEsperado")
+    int marcarErro(@Param("id") Integer id,
+                   @Param("statusEsperado") ControleSync.StatusSync statusEsperado,
+                   @Param("statusNovo") ControleSync.StatusSync statusNovo,
+                   @Param("erroMensagem") String erroMensagem,
+                   @Param("dataProximaTentativa") LocalDateTime dataProximaTentativa);
+
+    /**
+     * GRAVA O PAYLOAD ENVIADO (DADOS_JSON) SEM ALTERAR O STATUS
+     * 
+     * Usado quando o request completo só é montado depois da criação do controle.
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE ControleSync c SET c.dadosJson = :dadosJson WHERE c.id = :id")
+    int atualizarDadosJson(@Param("id") Integer id, @Param("dadosJson") String dadosJson);
+
+    /**
+     * BUSCA CONTROLES DE EMPRESA COM RETENTATIVA VENCIDA
+     * 
+     * Só os controles de adição/alteração/exclusão criados pelo
+     * GerenciadorControleSyncService (endpoint "/empresas/..."), que são
+     * reprocessados chamando o serviço da empresa de novo.
+     */
+    @Query(SELECT_RESUMO +
+           "WHERE c.statusSync = :statusErro " +
+           "AND c.dataProximaTentativa <= :agora " +
+           "AND c.tipoControle IN (1, 2, 3) " +
+           "AND c.endpointDestino LIKE '/empresas/%' " +
+           "ORDER BY c.dataProximaTentativa ASC")
+    List<ResumoControle> findRetentativasVencidas(@Param("statusErro") ControleSync.StatusSync statusErro,
+                                                  @Param("agora") LocalDateTime agora,
+                                                  Pageable pagina);
+
+    /**
+     * BUSCA AS EMPRESAS COM RETENTATIVA AGENDADA
+     * 
+     * O fluxo principal pula essas empresas: quem reprocessa é a retentativa.
+     * 
+     * @param codigosEmpresa códigos do lote (máximo 1000)
+     */
+    @Query("SELECT DISTINCT c.codigoEmpresa FROM ControleSync c " +
+           "WHERE c.tipoControle = :tipoControle " +
+           "AND c.codigoEmpresa IN :codigosEmpresa " +
+           "AND c.dataProximaTentativa IS NOT NULL")
+    Set<String> findEmpresasComRetentativaAgendada(@Param("tipoControle") Integer tipoControle,
+                                                   @Param("codigosEmpresa") Collection<String> codigosEmpresa);
+
+    /**
+     * RESERVA UMA RETENTATIVA VENCIDA (UM ÚNICO UPDATE)
+     * 
+     * @return 1 se o registro foi reservado, 0 se outro processo já o pegou
+     */
+    @Modifying(flushAutomatically = true)
+    @Transactional
+    @Query("UPDATE ControleSync c SET c.dataProximaTentativa = NULL " +
+           "WHERE c.id = :id AND c.dataProximaTentativa = :dataProximaTentativa")
+    int reservarRetentativa(@Param("id") Integer id,
+                            @Param("dataProximaTentativa") LocalDateTime dataProximaTentativa);
+}
@@ -0,0 +1,22 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+/**
+ * FETCH SIZE DAS CONSULTAS ÀS VIEWS VW_INTEGRACAO_ODONTOPREV*
+ *
+ * Valores usados nos @QueryHints dos repositórios de view. Valem só para a
+ * consulta anotada e prevalecem sobre o defaultRowPrefetch da conexão
+ * (AjusteDriverOracle), que fica para as consultas pequenas.
+ *
+ * - CODIGOS: listas de uma coluna só (códigos de empresa), linhas minúsculas
+ * - VARREDURA: leitura da view inteira, linhas completas
+ * - POR_EMPRESA: linhas completas de uma empresa (centenas a poucos milhares)
+ */
+public final class FetchSizeView {
+
+    public static final String CODIGOS = "1000";
+    public static final String VARREDURA = "500";
+    public static final String POR_EMPRESA = "200";
+
+    private FetchSizeView() {
+    }
+}
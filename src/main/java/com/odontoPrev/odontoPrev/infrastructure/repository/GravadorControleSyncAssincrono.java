@@ -0,0 +1,272 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * GRAVADOR ASSÍNCRONO (WRITE-BEHIND) DOS REGISTROS DE CONTROLE DA TBSYNC
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Tira das threads de processamento o commit do resultado (SUCCESS/ERROR) de
+ * empresas e beneficiários. A thread publica a gravação e volta para a
+ * próxima chamada à OdontoPrev; escritores dedicados gravam em lote.
+ *
+ * FLUXO:
+ * 1. TransicaoControleSync publica a gravação (UPDATE da transição de status)
+ * 2. A gravação entra na fila do escritor responsável pela chave (tipo + ID)
+ * 3. O escritor junta até "tamanho-lote" gravações (ou o que chegou no intervalo)
+ *    e executa todas numa única transação (REQUIRES_NEW)
+ * 4. Se o lote falhar, cada gravação é refeita individualmente para isolar o erro
+ *
+ * GARANTIAS:
+ * - Ordem por registro: a mesma chave sempre cai no mesmo escritor (fila FIFO)
+ * - Sem descarte: com a fila cheia, publicar(...) bloqueia até abrir espaço
+ * - Encerramento: a aplicação só termina depois de gravar o que está na fila.
+ *   Publicar e encerrar são mutuamente exclusivos (lock de leitura/escrita):
+ *   quem já passou pela verificação de "ativo" termina de enfileirar antes da
+ *   drenagem final, e quem chega depois grava de forma síncrona
+ *
+ * CONTINUAM SÍNCRONOS (gravados na hora, na thread de quem chamou):
+ * - Chamadas dentro de uma transação ativa: a gravação faz parte da transação
+ *   do chamador e não pode ser confirmada separadamente
+ * - Write-behind desligado ou aplicação em encerramento
+ *
+ * LEITURA DEFASADA:
+ * Enquanto a gravação está na fila, quem lê a TBSYNC vê o status anterior: o
+ * MERGE do controle de empresa, o pulo de alterações sem mudança (hash) e a
+ * verificação de registro já processado. Por isso o write-behind vem desligado
+ * e só deve ser ligado em cargas em que a mesma chave não volta a ser
+ * processada em seguida.
+ *
+ * CONFIGURAÇÕES (application.yml):
+ * - odontoprev.controle-sync.write-behind.enabled: liga/desliga a gravação assíncrona (padrão: desligado)
+ * - odontoprev.controle-sync.write-behind.escritores: threads escritoras (partições)
+ * - odontoprev.controle-sync.write-behind.capacidade: registros pendentes no total
+ * - odontoprev.controle-sync.write-behind.tamanho-lote: registros por transação
+ * - odontoprev.controle-sync.write-behind.intervalo-ms: espera máxima para completar um lote
+ * - odontoprev.controle-sync.write-behind.encerramento-timeout-ms: espera máxima no shutdown
+ */
+@Slf4j
+@Component
+public class GravadorControleSyncAssincrono {
+
+    private final TransactionTemplate transacaoPropria;
+
+    @Value("${odontoprev.controle-sync.write-behind.enabled:false}")
+    private boolean habilitado;
+
+    @Value("${odontoprev.controle-sync.write-behind.escritores:2}")
+    private int quantidadeEscritores;
+
+    @Value("${odontoprev.controle-sync.write-behind.capacidade:10000}")
+    private int capacidade;
+
+    @Value("${odontoprev.controle-sync.write-behind.tamanho-lote:100}")
+    private int tamanhoLote;
+
+    @Value("${odontoprev.controle-sync.write-behind.intervalo-ms:200}")
+    private long intervaloMs;
+
+    @Value("${odontoprev.controle-sync.write-behind.encerramento-timeout-ms:30000}")
+    private long encerramentoTimeoutMs;
+
+    private final List<Escritor> escritores = new ArrayList<>();
+    private volatile boolean ativo;
+
+    // Leitura: publicações em andamento; escrita: encerramento (espera as publicações terminarem)
+    private final ReadWriteLock lockEncerramento = new ReentrantReadWriteLock();
+
+    public GravadorControleSyncAssincrono(PlatformTransactionManager transactionManager) {
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void iniciar() {
+        if (!habilitado) {
+            log.info("💾 [TBSYNC WRITE-BEHIND] Desligado - controles gravados de forma síncrona");
+            return;
+        }
+
+        int totalEscritores = Math.max(1, quantidadeEscritores);
+        int capacidadePorEscritor = Math.max(1, capacidade / totalEscritores);
+        for (int i = 0; i < totalEscritores; i++) {
+            Escritor escritor = new Escritor(i, new ArrayBlockingQueue<>(capacidadePorEscritor));
+            escritores.add(escritor);
+        }
+        ativo = true;
+        escritores.forEach(escritor -> escritor.thread.start());
+
+        log.info("💾 [TBSYNC WRITE-BEHIND] Iniciado - escritores: {}, capacidade: {}, lote: {}, intervalo: {}ms",
+                totalEscritores, capacidadePorEscritor * totalEscritores, tamanhoLote, intervaloMs);
+    }
+
+    /**
+     * PUBLICA UMA GRAVAÇÃO DE CONTROLE
+     *
+     * @param chave identifica o registro (gravações da mesma chave mantêm a ordem)
+     * @param identificador empresa/matrícula usada nos logs
+     * @param gravacao operação de banco; não deve depender de estado alterado depois pelo chamador
+     */
+    public void publicar(String chave, String identificador, Runnable gravacao) {
+        if (!ativo || TransactionSynchronizationManager.isActualTransactionActive() || !enfileirar(chave, identificador, gravacao)) {
+            // Não descarta: grava na thread de quem publicou
+            gravacao.run();
+        }
+    }
+
+    /**
+     * ENFILEIRA SOB O LOCK DE LEITURA
+     *
+     * @return false se o gravador foi encerrado ou a espera por espaço foi interrompida
+     */
+    private boolean enfileirar(String chave, String identificador, Runnable gravacao) {
+        lockEncerramento.readLock().lock();
+        try {
+            if (!ativo) {
+                return false;
+            }
+            Escritor escritor = escritores.get(Math.floorMod(chave.hashCode(), escritores.size()));
+            Evento evento = new Evento(chave, identificador, gravacao);
+            if (!escritor.fila.offer(evento)) {
+                log.warn("⚠️ [TBSYNC WRITE-BEHIND] Fila do escritor {} cheia ({} registros) - aguardando espaço",
+                        escritor.indice, escritor.fila.size());
+                escritor.fila.put(evento);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lockEncerramento.readLock().unlock();
+        }
+    }
+
+    /**
+     * QUANTIDADE DE REGISTROS AGUARDANDO GRAVAÇÃO
+     */
+    public int pendentes() {
+        return escritores.stream().mapToInt(escritor -> escritor.fila.size()).sum();
+    }
+
+    /**
+     * GRAVA TUDO O QUE ESTÁ NA FILA E PARA OS ESCRITORES
+     *
+     * Novas publicações a partir daqui são gravadas de forma síncrona. O lock de
+     * escrita só é obtido depois que as publicações em andamento (inclusive as
+     * que aguardam espaço na fila) terminam de enfileirar, então a drenagem
+     * final enxerga tudo o que foi aceito.
+     */
+    @PreDestroy
+    public void encerrar() {
+        lockEncerramento.writeLock().lock();
+        try {
+            if (!ativo) {
+                return;
+            }
+            ativo = false;
+        } finally {
+            lockEncerramento.writeLock().unlock();
+        }
+        log.info("💾 [TBSYNC WRITE-BEHIND] Encerrando - {} registros pendentes", pendentes());
+
+        long limite = System.currentTimeMillis() + encerramentoTimeoutMs;
+        for (Escritor escritor : escritores) {
+            try {
+                escritor.thread.join(Math.max(1, limite - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // Escritor que não terminou a tempo: grava o restante aqui mesmo
+        for (Escritor escritor : escritores) {
+            if (!escritor.fila.isEmpty()) {
+                List<Evento> restantes = new ArrayList<>();
+                escritor.fila.drainTo(restantes);
+                log.warn("⚠️ [TBSYNC WRITE-BEHIND] Escritor {} não terminou no prazo - gravando {} registros restantes",
+                        escritor.indice, restantes.size());
+                gravarLote(restantes);
+            }
+        }
+        log.info("✅ [TBSYNC WRITE-BEHIND] Encerrado");
+    }
+
+    private void gravarLote(List<Evento> lote) {
+        long inicio = System.currentTimeMillis();
+        try {
+            transacaoPropria.executeWithoutResult(status -> lote.forEach(evento -> evento.gravacao().run()));
+            log.debug("💾 [TBSYNC WRITE-BEHIND] {} controles gravados em {}ms",
+                    lote.size(), System.currentTimeMillis() - inicio);
+        } catch (Exception e) {
+            log.warn("⚠️ [TBSYNC WRITE-BEHIND] Falha no lote de {} controles ({}), gravando individualmente",
+                    lote.size(), e.getMessage());
+            lote.forEach(this::gravarIndividual);
+        }
+    }
+
+    private void gravarIndividual(Evento evento) {
+        try {
+            transacaoPropria.executeWithoutResult(status -> evento.gravacao().run());
+        } catch (Exception e) {
+            log.error("❌ [TBSYNC WRITE-BEHIND] Erro ao gravar controle {} ({}): {}",
+                    evento.chave(), evento.identificador(), e.getMessage(), e);
+        }
+    }
+
+    private final class Escritor implements Runnable {
+
+        private final int indice;
+        private final BlockingQueue<Evento> fila;
+        private final Thread thread;
+
+        private Escritor(int indice, BlockingQueue<Evento> fila) {
+            this.indice = indice;
+            this.fila = fila;
+            this.thread = new Thread(this, "tbsync-write-behind-" + indice);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Evento> lote = new ArrayList<>(tamanhoLote);
+            while (ativo || !fila.isEmpty()) {
+                try {
+                    Evento primeiro = fila.poll(intervaloMs, TimeUnit.MILLISECONDS);
+                    if (primeiro == null) {
+                        continue;
+                    }
+                    lote.add(primeiro);
+                    fila.drainTo(lote, Math.max(0, tamanhoLote - 1));
+                    gravarLote(lote);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.error("❌ [TBSYNC WRITE-BEHIND] Erro inesperado no escritor {}: {}", indice, e.getMessage(), e);
+                } finally {
+                    lote.clear();
+                }
+            }
+        }
+    }
+
+    private record Evento(String chave, String identificador, Runnable gravacao) {
+    }
+}
@@ -1,9 +1,12 @@
 package com.odontoPrev.odontoPrev.infrastructure.repository;
 
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevAlteracao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -24,6 +27,7 @@ public interface IntegracaoOdontoprevAlteracaoRepository extends JpaRepository<I
      * @return lista de códigos de empresas alteradas
      */
     @Query(value = "SELECT DISTINCT CODIGOEMPRESA FROM TASY.VW_INTEGRACAO_ODONTOPREV_ALT", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.CODIGOS))
     List<String> buscarCodigosEmpresasAlteradas();
 
     /**
@@ -33,6 +37,7 @@ public interface IntegracaoOdontoprevAlteracaoRepository extends JpaRepository<I
      * @return lista paginada de códigos de empresas alteradas
      */
     @Query(value = "SELECT DISTINCT CODIGOEMPRESA FROM TASY.VW_INTEGRACAO_ODONTOPREV_ALT", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.CODIGOS))
     List<String> buscarCodigosEmpresasAlteradasPaginado(Pageable pageable);
 
     /**
@@ -1,8 +1,11 @@
 package com.odontoPrev.odontoPrev.infrastructure.repository;
 
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiarioAlteracao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -27,6 +30,7 @@ public interface IntegracaoOdontoprevBeneficiarioAlteracaoRepository extends Jpa
      *
      * @return lista de todos os beneficiários pendentes de alteração
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.VARREDURA))
     List<IntegracaoOdontoprevBeneficiarioAlteracao> findAll();
 
     /**
@@ -35,6 +39,7 @@ public interface IntegracaoOdontoprevBeneficiarioAlteracaoRepository extends Jpa
      * @param codigoEmpresa código da empresa
      * @return lista de beneficiários da empresa
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.POR_EMPRESA))
     List<IntegracaoOdontoprevBeneficiarioAlteracao> findByCdEmpresa(String cdEmpresa);
 
     /**
@@ -77,6 +82,7 @@ public interface IntegracaoOdontoprevBeneficiarioAlteracaoRepository extends Jpa
      * @return lista de todos os beneficiários
      */
     @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_ALT ORDER BY CDEMPRESA", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.VARREDURA))
     List<IntegracaoOdontoprevBeneficiarioAlteracao> findWithLimit();
 
     /**
@@ -86,6 +92,7 @@ public interface IntegracaoOdontoprevBeneficiarioAlteracaoRepository extends Jpa
      * @return lista de beneficiários da empresa
      */
     @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_ALT WHERE CDEMPRESA = :cdEmpresa ORDER BY CDEMPRESA", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.POR_EMPRESA))
     List<IntegracaoOdontoprevBeneficiarioAlteracao> findByCdEmpresaWithLimit(@Param("cdEmpresa") String cdEmpresa);
 
     /**
@@ -148,4 +155,19 @@ public interface IntegracaoOdontoprevBeneficiarioAlteracaoRepository extends Jpa
      * @return true se existe, false caso contrário
      */
     boolean existsByCdAssociado(String cdAssociado);
+
+    /**
+     * BUSCA O BENEFICIÁRIO DA EMPRESA PELA MATRÍCULA
+     *
+     * Usado pela retentativa para reler a linha atual da view antes de reenviar.
+     * Query nativa: o @Id da entidade é CDEMPRESA, então a busca derivada
+     * misturaria os beneficiários da mesma empresa.
+     *
+     * @param cdEmpresa código da empresa
+     * @param codigoMatricula código da matrícula
+     * @return linhas encontradas (normalmente uma)
+     */
+    @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_ALT WHERE CDEMPRESA = :cdEmpresa AND CODIGOMATRICULA = :codigoMatricula", nativeQuery = true)
+    List<IntegracaoOdontoprevBeneficiarioAlteracao> findByCdEmpresaAndCodigoMatricula(@Param("cdEmpresa") String cdEmpresa,
+                                                                                      @Param("codigoMatricula") String codigoMatricula);
 }
@@ -1,8 +1,11 @@
 package com.odontoPrev.odontoPrev.infrastructure.repository;
 
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiarioExclusao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -30,6 +33,7 @@ public interface IntegracaoOdontoprevBeneficiarioExclusaoRepository extends JpaR
      * @return lista de todos os beneficiários pendentes de exclusão
      */
     @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_EXC ORDER BY CDEMPRESA", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.VARREDURA))
     List<IntegracaoOdontoprevBeneficiarioExclusao> findAll();
 
     /**
@@ -41,6 +45,7 @@ public interface IntegracaoOdontoprevBeneficiarioExclusaoRepository extends JpaR
      * @return lista de beneficiários da empresa
      */
     @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_EXC WHERE CDEMPRESA = :cdEmpresa ORDER BY CDEMPRESA", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.POR_EMPRESA))
     List<IntegracaoOdontoprevBeneficiarioExclusao> findByCdEmpresa(@Param("cdEmpresa") String cdEmpresa);
 
     /**
@@ -62,6 +67,7 @@ public interface IntegracaoOdontoprevBeneficiarioExclusaoRepository extends JpaR
      * @return lista de todos os beneficiários
      */
     @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_EXC ORDER BY CDEMPRESA", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.VARREDURA))
     List<IntegracaoOdontoprevBeneficiarioExclusao> findWithLimit();
 
     /**
@@ -73,6 +79,7 @@ public interface IntegracaoOdontoprevBeneficiarioExclusaoRepository extends JpaR
      * @return lista de beneficiários da empresa
      */
     @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_EXC WHERE CDEMPRESA = :cdEmpresa ORDER BY CDEMPRESA", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.POR_EMPRESA))
     List<IntegracaoOdontoprevBeneficiarioExclusao> findByCdEmpresaWithLimit(@Param("cdEmpresa") String cdEmpresa);
 
     /**
@@ -138,4 +145,19 @@ public interface IntegracaoOdontoprevBeneficiarioExclusaoRepository extends JpaR
      * @return true se existe, false caso contrário
      */
     boolean existsByCdAssociado(String cdAssociado);
+
+    /**
+     * BUSCA O BENEFICIÁRIO DA EMPRESA PELA MATRÍCULA
+     *
+     * Usado pela retentativa para reler a linha atual da view antes de reenviar.
+     * Query nativa: o @Id da entidade é CDEMPRESA, então a busca derivada
+     * misturaria os beneficiários da mesma empresa.
+     *
+     * @param cdEmpresa código da empresa
+     * @param codigoMatricula código da matrícula
+     * @return linhas encontradas (normalmente uma)
+     */
+    @Query(value = "SELECT * FROM TASY.VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS_EXC WHERE CDEMPRESA = :cdEmpresa AND CODIGOMATRICULA = :codigoMatricula", nativeQuery = true)
+    List<IntegracaoOdontoprevBeneficiarioExclusao> findByCdEmpresaAndCodigoMatricula(@Param("cdEmpresa") String cdEmpresa,
+                                                                                     @Param("codigoMatricula") String codigoMatricula);
 }
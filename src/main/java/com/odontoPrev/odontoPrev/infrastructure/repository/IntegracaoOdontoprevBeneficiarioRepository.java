@@ -1,8 +1,11 @@
 package com.odontoPrev.odontoPrev.infrastructure.repository;
 
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevBeneficiario;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -27,6 +30,7 @@ public interface IntegracaoOdontoprevBeneficiarioRepository extends JpaRepositor
      *
      * @return lista de todos os beneficiários pendentes
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.VARREDURA))
     List<IntegracaoOdontoprevBeneficiario> findAll();
 
     /**
@@ -35,6 +39,7 @@ public interface IntegracaoOdontoprevBeneficiarioRepository extends JpaRepositor
      * @param codigoEmpresa código da empresa
      * @return lista de beneficiários da empresa
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.POR_EMPRESA))
     List<IntegracaoOdontoprevBeneficiario> findByCodigoEmpresa(String codigoEmpresa);
 
     /**
@@ -77,6 +82,7 @@ public interface IntegracaoOdontoprevBeneficiarioRepository extends JpaRepositor
      * @return lista de todos os beneficiários
      */
     @Query(value = "SELECT * FROM VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS ORDER BY CODIGO_MATRICULA ASC", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.VARREDURA))
     List<IntegracaoOdontoprevBeneficiario> findWithLimit();
 
     /**
@@ -86,6 +92,7 @@ public interface IntegracaoOdontoprevBeneficiarioRepository extends JpaRepositor
      * @return lista de beneficiários da empresa
      */
     @Query(value = "SELECT * FROM VW_INTEGRACAO_ODONTOPREV_BENEFICIARIOS WHERE CODIGO_EMPRESA = :codigoEmpresa ORDER BY CODIGO_MATRICULA ASC", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.POR_EMPRESA))
     List<IntegracaoOdontoprevBeneficiario> findByCodigoEmpresaWithLimit(@Param("codigoEmpresa") String codigoEmpresa);
 
     /**
@@ -1,9 +1,12 @@
 package com.odontoPrev.odontoPrev.infrastructure.repository;
 
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprevExclusao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -25,6 +28,7 @@ public interface IntegracaoOdontoprevExclusaoRepository extends JpaRepository<In
      * @return lista de códigos de empresas excluídas
      */
     @Query(value = "SELECT DISTINCT CODIGOEMPRESA FROM TASY.VW_INTEGRACAO_ODONTOPREV_EXC", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.CODIGOS))
     List<String> buscarCodigosEmpresasExcluidas();
 
     /**
@@ -34,6 +38,7 @@ public interface IntegracaoOdontoprevExclusaoRepository extends JpaRepository<In
      * @return lista paginada de códigos de empresas excluídas
      */
     @Query(value = "SELECT DISTINCT CODIGOEMPRESA FROM TASY.VW_INTEGRACAO_ODONTOPREV_EXC", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.CODIGOS))
     List<String> buscarCodigosEmpresasExcluidasPaginado(Pageable pageable);
 
     /**
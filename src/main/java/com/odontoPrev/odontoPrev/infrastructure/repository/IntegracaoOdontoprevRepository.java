@@ -1,9 +1,12 @@
 package com.odontoPrev.odontoPrev.infrastructure.repository;
 
 import com.odontoPrev.odontoPrev.infrastructure.repository.entity.IntegracaoOdontoprev;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -13,9 +16,11 @@ import java.util.Optional;
 public interface IntegracaoOdontoprevRepository extends JpaRepository<IntegracaoOdontoprev, String> {
 
     @Query(value = "SELECT DISTINCT NR_SEQ_CONTRATO FROM TASY.VW_INTEGRACAO_ODONTOPREV WHERE CODIGO_EMPRESA IS NULL", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.CODIGOS))
     List<Long> buscarCodigosEmpresasDisponiveis();
 
     @Query(value = "SELECT DISTINCT NR_SEQ_CONTRATO FROM TASY.VW_INTEGRACAO_ODONTOPREV WHERE CODIGO_EMPRESA IS NULL ORDER BY NR_SEQ_CONTRATO", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.CODIGOS))
     List<Long> buscarCodigosEmpresasPaginado(Pageable pageable);
 
     @Query(value = "SELECT COUNT(DISTINCT NR_SEQ_CONTRATO) FROM TASY.VW_INTEGRACAO_ODONTOPREV WHERE CODIGO_EMPRESA IS NULL", nativeQuery = true)
@@ -46,6 +51,7 @@ public interface IntegracaoOdontoprevRepository extends JpaRepository<Integracao
                    "WHERE CODIGO_EMPRESA IS NULL " +
                    "AND NR_SEQ_CONTRATO IS NOT NULL " +
                    "ORDER BY NR_SEQ_CONTRATO", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.CODIGOS))
     List<Long> buscarEmpresasParaInclusao();
 
     /**
@@ -69,5 +75,6 @@ public interface IntegracaoOdontoprevRepository extends JpaRepository<Integracao
                    "WHERE CODIGO_EMPRESA IS NULL " +
                    "AND NR_SEQ_CONTRATO IS NOT NULL " +
                    "ORDER BY NR_SEQ_CONTRATO", nativeQuery = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = FetchSizeView.VARREDURA))
     List<IntegracaoOdontoprev> buscarEmpresasCompletasParaInclusao();
 }
\ No newline at end of file
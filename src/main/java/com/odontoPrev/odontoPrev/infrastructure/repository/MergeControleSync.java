@@ -0,0 +1,196 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ConversorPayloadCompactado;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.StringReader;
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+
+/**
+ * CRIA OU REAPROVEITA O CONTROLE DE EMPRESA COM UM ÚNICO MERGE
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Substitui "busca o controle mais recente da empresa/tipo (com os CLOBs) +
+ * INSERT ou UPDATE pela entidade" por uma única chamada ao banco: um bloco
+ * PL/SQL com o MERGE e a leitura das colunas pequenas do registro resultante.
+ *
+ * REGRAS (as mesmas de GerenciadorControleSyncServiceImpl.criarOuAtualizarControle):
+ * - Chave: CODIGO_EMPRESA + TIPO_CONTROLE, registro mais recente por DATA_CRIACAO
+ * - Não existe: INSERT com status PENDING
+ * - Existe com status diferente de SUCCESS: volta para PENDING com o novo
+ *   DADOS_JSON, DATA_CRIACAO atual, sem resposta/erro anteriores e sem
+ *   retentativa agendada (TENTATIVAS é mantido: conta até o próximo sucesso)
+ * - Existe com SUCCESS: fica como está
+ *
+ * CONCORRÊNCIA:
+ * O índice único de db/oracle/004_merge_controle_sync_empresa.sql impede dois
+ * INSERTs da mesma empresa/tipo. Quem perder a corrida recebe chave duplicada
+ * e repete o MERGE uma vez, agora encontrando o registro do outro.
+ *
+ * ID DO NOVO REGISTRO:
+ * - Sem "id-sequence": a coluna IDENTITY gera o ID
+ * - Com o perfil ids-sequence: NEXTVAL da sequence informada (com pooled-lo,
+ *   cada NEXTVAL reserva um bloco inteiro, então não colide com os IDs do Hibernate)
+ *
+ * O DADOS_JSON passa pelo mesmo ConversorPayloadCompactado da entidade.
+ */
+@Slf4j
+@Component
+public class MergeControleSync {
+
+    private static final String TABELA = "TASY.TB_CONTROLE_SYNC_ODONTOPREV";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ConversorPayloadCompactado conversorPayload;
+    private final String sql;
+
+    public MergeControleSync(JdbcTemplate jdbcTemplate,
+                             AutowireCapableBeanFactory beanFactory,
+                             @Value("${odontoprev.controle-sync.merge.id-sequence:}") String idSequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.conversorPayload = beanFactory.createBean(ConversorPayloadCompactado.class);
+        this.sql = montarSql(idSequence);
+    }
+
+    /**
+     * EXECUTA O MERGE E DEVOLVE O CONTROLE RESULTANTE
+     *
+     * O objeto devolvido tem ID, status, datas, endpoint, hash e tentativas; DADOS_JSON só
+     * vem preenchido quando foi gravado agora (RESPONSE_API e ERRO_MENSAGEM não
+     * são lidos).
+     */
+    public ControleSync criarOuReaproveitar(String codigoEmpresa, ControleSync.TipoOperacao tipoOperacao,
+                                            ControleSync.TipoControle tipoControle, String endpoint,
+                                            String dadosJson) {
+        try {
+            return executar(codigoEmpresa, tipoOperacao, tipoControle, endpoint, dadosJson);
+        } catch (DuplicateKeyException e) {
+            log.info("🔁 [MERGE CONTROLE] Empresa {} tipo {} criada em paralelo - repetindo MERGE",
+                    codigoEmpresa, tipoControle.getCodigo());
+            return executar(codigoEmpresa, tipoOperacao, tipoControle, endpoint, dadosJson);
+        }
+    }
+
+    private ControleSync executar(String codigoEmpresa, ControleSync.TipoOperacao tipoOperacao,
+                                  ControleSync.TipoControle tipoControle, String endpoint, String dadosJson) {
+        String colunaDadosJson = conversorPayload.convertToDatabaseColumn(dadosJson);
+        LocalDateTime agora = LocalDateTime.now();
+
+        return jdbcTemplate.execute(sql, (CallableStatementCallback<ControleSync>) cs -> {
+            cs.setString(1, codigoEmpresa);
+            cs.setInt(2, tipoControle.getCodigo());
+            cs.setString(3, tipoOperacao.name());
+            cs.setString(4, endpoint);
+            if (colunaDadosJson == null) {
+                cs.setNull(5, Types.CLOB);
+            } else {
+                cs.setCharacterStream(5, new StringReader(colunaDadosJson), colunaDadosJson.length());
+            }
+            cs.setTimestamp(6, Timestamp.valueOf(agora));
+            cs.registerOutParameter(7, Types.INTEGER);
+            cs.registerOutParameter(8, Types.VARCHAR);
+            cs.registerOutParameter(9, Types.VARCHAR);
+            cs.registerOutParameter(10, Types.VARCHAR);
+            cs.registerOutParameter(11, Types.TIMESTAMP);
+            cs.registerOutParameter(12, Types.TIMESTAMP);
+            cs.registerOutParameter(13, Types.VARCHAR);
+            cs.registerOutParameter(14, Types.INTEGER);
+            cs.execute();
+            return lerResultado(cs, codigoEmpresa, tipoControle, dadosJson);
+        });
+    }
+
+    private static ControleSync lerResultado(CallableStatement cs, String codigoEmpresa,
+                                             ControleSync.TipoControle tipoControle,
+                                             String dadosJson) throws SQLException {
+        ControleSync.StatusSync status = cs.getString(8) != null
+                ? ControleSync.StatusSync.valueOf(cs.getString(8)) : null;
+        Timestamp dataCriacao = cs.getTimestamp(11);
+        Timestamp dataSucesso = cs.getTimestamp(12);
+
+        return ControleSync.builder()
+                .id(cs.getInt(7))
+                .codigoEmpresa(codigoEmpresa)
+                .tipoControle(tipoControle.getCodigo())
+                .statusSync(status)
+                .tipoOperacao(cs.getString(9) != null ? ControleSync.TipoOperacao.valueOf(cs.getString(9)) : null)
+                .endpointDestino(cs.getString(10))
+                .dataCriacao(dataCriacao != null ? dataCriacao.toLocalDateTime() : null)
+                .dataSucesso(dataSucesso != null ? dataSucesso.toLocalDateTime() : null)
+                .hashPayload(cs.getString(13))
+                .tentativas(cs.getInt(14))
+                // SUCCESS não é alterado pelo MERGE: o DADOS_JSON gravado é o anterior
+                .dadosJson(status == ControleSync.StatusSync.SUCCESS ? null : dadosJson)
+                .build();
+    }
+
+    private static String montarSql(String idSequence) {
+        boolean comSequence = StringUtils.hasText(idSequence);
+        String colunaId = comSequence ? "ID, " : "";
+        String valorId = comSequence ? idSequence.trim() + ".NEXTVAL, " : "";
+
+        return """
+                DECLARE
+                    v_empresa  %1$s.CODIGO_EMPRESA%%TYPE   := ?;
+                    v_tipo     %1$s.TIPO_CONTROLE%%TYPE    := ?;
+                    v_operacao %1$s.TIPO_OPERACAO%%TYPE    := ?;
+                    v_endpoint %1$s.ENDPOINT_DESTINO%%TYPE := ?;
+                    v_dados    CLOB := ?;
+                    v_agora    TIMESTAMP := ?;
+                    v_registro %1$s%%ROWTYPE;
+                BEGIN
+                    MERGE INTO %1$s c
+                    USING (SELECT (SELECT MAX(ID) KEEP (DENSE_RANK FIRST ORDER BY DATA_CRIACAO DESC)
+                                     FROM %1$s
+                                    WHERE CODIGO_EMPRESA = v_empresa AND TIPO_CONTROLE = v_tipo) ID_ATUAL
+                             FROM DUAL) o
+                       ON (c.ID = o.ID_ATUAL)
+                     WHEN MATCHED THEN UPDATE SET
+                          c.DADOS_JSON = v_dados,
+                          c.STATUS_SYNC = 'PENDING',
+                          c.DATA_CRIACAO = v_agora,
+                          c.RESPONSE_API = NULL,
+                          c.ERRO_MENSAGEM = NULL,
+                          c.DATA_PROXIMA_TENTATIVA = NULL
+                          WHERE NVL(c.STATUS_SYNC, 'PENDING') <> 'SUCCESS'
+                     WHEN NOT MATCHED THEN INSERT
+                          (%2$sCODIGO_EMPRESA, TIPO_OPERACAO, TIPO_CONTROLE, ENDPOINT_DESTINO, DADOS_JSON, STATUS_SYNC, DATA_CRIACAO)
+                          VALUES (%3$sv_empresa, v_operacao, v_tipo, v_endpoint, v_dados, 'PENDING', v_agora);
+
+                    -- Só as colunas pequenas: os CLOBs não voltam para a aplicação
+                    SELECT ID, STATUS_SYNC, TIPO_OPERACAO, ENDPOINT_DESTINO, DATA_CRIACAO, DATA_SUCESSO, HASH_PAYLOAD,
+                           NVL(TENTATIVAS, 0)
+                      INTO v_registro.ID, v_registro.STATUS_SYNC, v_registro.TIPO_OPERACAO, v_registro.ENDPOINT_DESTINO,
+                           v_registro.DATA_CRIACAO, v_registro.DATA_SUCESSO, v_registro.HASH_PAYLOAD,
+                           v_registro.TENTATIVAS
+                      FROM (SELECT ID, STATUS_SYNC, TIPO_OPERACAO, ENDPOINT_DESTINO, DATA_CRIACAO, DATA_SUCESSO, HASH_PAYLOAD,
+                                   TENTATIVAS
+                              FROM %1$s
+                             WHERE CODIGO_EMPRESA = v_empresa AND TIPO_CONTROLE = v_tipo
+                             ORDER BY DATA_CRIACAO DESC, ID DESC)
+                     WHERE ROWNUM = 1;
+
+                    ? := v_registro.ID;
+                    ? := v_registro.STATUS_SYNC;
+                    ? := v_registro.TIPO_OPERACAO;
+                    ? := v_registro.ENDPOINT_DESTINO;
+                    ? := v_registro.DATA_CRIACAO;
+                    ? := v_registro.DATA_SUCESSO;
+                    ? := v_registro.HASH_PAYLOAD;
+                    ? := v_registro.TENTATIVAS;
+                END;
+                """.formatted(TABELA, colunaId, valorId);
+    }
+}
@@ -0,0 +1,327 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * EXECUTOR EM LOTE DAS PROCEDURES DO TASY
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Agrupa as chamadas das procedures SS_PLS_CAD_CARTEIRINHA_ODONTOPREV e
+ * SS_PLS_CAD_CODEMPRESA_ODONTOPREV e envia todas de uma vez com
+ * CallableStatement.executeBatch(), em vez de uma ida ao banco (e um commit)
+ * por beneficiário/empresa.
+ *
+ * FLUXO:
+ * 1. O serviço agenda a chamada com os parâmetros já validados
+ * 2. A chamada fica pendente até atingir o tamanho do lote ou o intervalo máximo
+ * 3. O lote é executado em transação própria (REQUIRES_NEW) com executeBatch
+ * 4. Se o lote falhar, cada item é reexecutado individualmente para isolar o erro
+ * 5. O resultado de cada item é devolvido no CompletableFuture e, em caso de
+ *    falha, o callback do item é chamado em transação própria
+ *
+ * FRONTEIRA TRANSACIONAL:
+ * - Lote desligado: executarCarteirinha/executarCodigoEmpresa rodam na transação
+ *   de quem chamou, como antes do lote (falha desfaz junto)
+ * - Código da empresa: o fluxo de empresa não é transacional, então o lote em
+ *   transação própria equivale ao autocommit anterior. Se houver transação
+ *   ativa, a chamada não entra no lote e roda nela
+ * - Carteirinha: juntar beneficiários de threads diferentes só é possível depois
+ *   do commit de cada um, então a inclusão é confirmada como SUCESSO e, se a
+ *   procedure falhar, o registro daquela tentativa (pelo ID) volta para ERROR.
+ *   A janela em que outro leitor vê SUCESSO é de no máximo intervalo-ms mais a
+ *   execução do lote; com odontoprev.procedure.lote.enabled=false a procedure
+ *   volta a rodar dentro da transação da inclusão
+ *
+ * CONFIGURAÇÕES (application.yml):
+ * - odontoprev.procedure.lote.enabled: liga/desliga o agrupamento (padrão: desligado)
+ * - odontoprev.procedure.lote.tamanho: quantidade de chamadas que dispara o envio
+ * - odontoprev.procedure.lote.intervalo-ms: tempo máximo que uma chamada fica pendente
+ * - odontoprev.procedure.lote.timeout-ms: espera máxima de quem aguarda o lote (código da empresa)
+ */
+@Slf4j
+@Component
+public class ProcedureTasyLoteExecutor {
+
+    public static final String SQL_CARTEIRINHA = "{ call TASY.SS_PLS_CAD_CARTEIRINHA_ODONTOPREV(?, ?, ?) }";
+    public static final String SQL_CODEMPRESA = "{ call TASY.SS_PLS_CAD_CODEMPRESA_ODONTOPREV(?, ?) }";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transacaoPropria;
+
+    // Chamadas pendentes agrupadas pelo SQL da procedure (um lote por procedure)
+    private final Map<String, List<ChamadaProcedure>> pendentes = new LinkedHashMap<>();
+
+    @Value("${odontoprev.procedure.lote.enabled:false}")
+    private boolean loteHabilitado;
+
+    @Value("${odontoprev.procedure.lote.tamanho:50}")
+    private int tamanhoLote;
+
+    @Value("${odontoprev.procedure.lote.timeout-ms:60000}")
+    private long timeoutMs;
+
+    public ProcedureTasyLoteExecutor(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transacaoPropria = new TransactionTemplate(transactionManager);
+        this.transacaoPropria.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public boolean isLoteHabilitado() {
+        return loteHabilitado;
+    }
+
+    /**
+     * EXECUTA SS_PLS_CAD_CARTEIRINHA_ODONTOPREV IMEDIATAMENTE
+     *
+     * Chamada individual na transação corrente (comportamento quando o lote está desligado).
+     */
+    public void executarCarteirinha(Long nrSeqSegurado, String cdCgcEstipulante, String cdAssociado) {
+        jdbcTemplate.execute(SQL_CARTEIRINHA, (CallableStatementCallback<Void>) cs -> {
+            parametrosCarteirinha(nrSeqSegurado, cdCgcEstipulante, cdAssociado).aplicar(cs);
+            cs.execute();
+            return null;
+        });
+    }
+
+    /**
+     * EXECUTA SS_PLS_CAD_CODEMPRESA_ODONTOPREV IMEDIATAMENTE
+     *
+     * Chamada individual na transação corrente (comportamento quando o lote está desligado).
+     */
+    public void executarCodigoEmpresa(Long nrSequencia, String codigoEmpresaApi) {
+        jdbcTemplate.execute(SQL_CODEMPRESA, (CallableStatementCallback<Void>) cs -> {
+            parametrosCodigoEmpresa(nrSequencia, codigoEmpresaApi).aplicar(cs);
+            cs.execute();
+            return null;
+        });
+    }
+
+    /**
+     * AGENDA SS_PLS_CAD_CARTEIRINHA_ODONTOPREV NO PRÓXIMO LOTE
+     *
+     * Se houver transação ativa, a chamada só entra na fila após o commit,
+     * garantindo que o registro da TBSYNC já esteja gravado quando o callback
+     * de falha for executado.
+     *
+     * @param identificador matrícula do beneficiário (usada nos logs)
+     * @param aoFalhar callback executado em transação própria se a procedure falhar
+     * @return future concluído quando a procedure for executada
+     */
+    public CompletableFuture<Void> agendarCarteirinha(Long nrSeqSegurado, String cdCgcEstipulante, String cdAssociado,
+                                                      String identificador, Consumer<Exception> aoFalhar) {
+        ChamadaProcedure chamada = new ChamadaProcedure(SQL_CARTEIRINHA, identificador,
+                parametrosCarteirinha(nrSeqSegurado, cdCgcEstipulante, cdAssociado), aoFalhar, new CompletableFuture<>());
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        enfileirar(chamada);
+                    } else {
+                        log.warn("⚠️ [PROCEDURE LOTE] Transação não confirmada - carteirinha de {} descartada", identificador);
+                        chamada.resultado().cancel(false);
+                    }
+                }
+            });
+        } else {
+            enfileirar(chamada);
+        }
+        return chamada.resultado();
+    }
+
+    /**
+     * EXECUTA SS_PLS_CAD_CODEMPRESA_ODONTOPREV NO PRÓXIMO LOTE E AGUARDA
+     *
+     * O fluxo de empresa depende do código gravado pela procedure nos passos seguintes,
+     * então o chamador aguarda o lote (commit em grupo com as empresas processadas em paralelo).
+     * Com transação ativa a chamada roda direto nela, sem mudar a fronteira transacional.
+     *
+     * @throws RuntimeException se a procedure falhar para esta empresa ou o lote não
+     *         terminar dentro de odontoprev.procedure.lote.timeout-ms
+     */
+    public void executarCodigoEmpresaEmLote(Long nrSequencia, String codigoEmpresaApi) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            executarCodigoEmpresa(nrSequencia, codigoEmpresaApi);
+            return;
+        }
+
+        ChamadaProcedure chamada = new ChamadaProcedure(SQL_CODEMPRESA, String.valueOf(nrSequencia),
+                parametrosCodigoEmpresa(nrSequencia, codigoEmpresaApi), null, new CompletableFuture<>());
+        enfileirar(chamada);
+        try {
+            chamada.resultado().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Ainda na fila: retira para não rodar depois que o chamador já desistiu
+            boolean retirada;
+            synchronized (pendentes) {
+                List<ChamadaProcedure> fila = pendentes.get(chamada.sql());
+                retirada = fila != null && fila.remove(chamada);
+            }
+            throw new RuntimeException("Procedure SS_PLS_CAD_CODEMPRESA_ODONTOPREV não concluiu em " + timeoutMs
+                    + "ms para nrSequencia " + nrSequencia + (retirada ? " (chamada retirada do lote)" : " (lote em execução)"), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrompido aguardando a procedure para nrSequencia " + nrSequencia, e);
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            throw causa instanceof RuntimeException re ? re : new RuntimeException(causa.getMessage(), causa);
+        }
+    }
+
+    /**
+     * DESCARREGA LOTES PENDENTES POR TEMPO
+     *
+     * Garante que nenhuma chamada fique pendente mais que o intervalo configurado
+     * quando o volume não é suficiente para completar um lote.
+     */
+    @Scheduled(fixedDelayString = "${odontoprev.procedure.lote.intervalo-ms:500}")
+    public void descarregarPorTempo() {
+        descarregarTudo();
+    }
+
+    /**
+     * DESCARREGA TODOS OS LOTES PENDENTES
+     */
+    @PreDestroy
+    public void descarregarTudo() {
+        Map<String, List<ChamadaProcedure>> lotes;
+        synchronized (pendentes) {
+            if (pendentes.isEmpty()) {
+                return;
+            }
+            lotes = new LinkedHashMap<>(pendentes);
+            pendentes.clear();
+        }
+        lotes.forEach(this::executarLote);
+    }
+
+    private void enfileirar(ChamadaProcedure chamada) {
+        if (!loteHabilitado) {
+            executarLote(chamada.sql(), List.of(chamada));
+            return;
+        }
+
+        List<ChamadaProcedure> loteCheio = null;
+        synchronized (pendentes) {
+            List<ChamadaProcedure> fila = pendentes.computeIfAbsent(chamada.sql(), sql -> new ArrayList<>());
+            fila.add(chamada);
+            if (fila.size() >= tamanhoLote) {
+                loteCheio = pendentes.remove(chamada.sql());
+            }
+        }
+
+        // Lote atingiu o tamanho: executa na própria thread de quem completou o lote
+        if (loteCheio != null) {
+            executarLote(chamada.sql(), loteCheio);
+        }
+    }
+
+    private void executarLote(String sql, List<ChamadaProcedure> lote) {
+        if (lote.size() == 1) {
+            executarIndividual(lote.get(0));
+            return;
+        }
+
+        long inicio = System.currentTimeMillis();
+        try {
+            transacaoPropria.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+                try (CallableStatement cs = con.prepareCall(sql)) {
+                    for (ChamadaProcedure chamada : lote) {
+                        chamada.parametros().aplicar(cs);
+                        cs.addBatch();
+                    }
+                    cs.executeBatch();
+                }
+                return null;
+            }));
+            lote.forEach(chamada -> chamada.resultado().complete(null));
+            log.info("✅ [PROCEDURE LOTE] {} chamadas executadas em lote em {}ms - {}",
+                    lote.size(), System.currentTimeMillis() - inicio, sql);
+        } catch (Exception e) {
+            // Lote inteiro foi desfeito: reexecuta item a item para descobrir quais falharam
+            log.warn("⚠️ [PROCEDURE LOTE] Falha no lote de {} chamadas ({}), executando individualmente - {}",
+                    lote.size(), e.getMessage(), sql);
+            lote.forEach(this::executarIndividual);
+        }
+    }
+
+    private void executarIndividual(ChamadaProcedure chamada) {
+        try {
+            transacaoPropria.executeWithoutResult(status ->
+                    jdbcTemplate.execute(chamada.sql(), (CallableStatementCallback<Void>) cs -> {
+                        chamada.parametros().aplicar(cs);
+                        cs.execute();
+                        return null;
+                    }));
+            chamada.resultado().complete(null);
+        } catch (Exception e) {
+            log.error("❌ [PROCEDURE LOTE] Erro na procedure para {}: {}", chamada.identificador(), e.getMessage(), e);
+            notificarFalha(chamada, e);
+            chamada.resultado().completeExceptionally(e);
+        }
+    }
+
+    private void notificarFalha(ChamadaProcedure chamada, Exception erro) {
+        if (chamada.aoFalhar() == null) {
+            return;
+        }
+        try {
+            transacaoPropria.executeWithoutResult(status -> chamada.aoFalhar().accept(erro));
+        } catch (Exception e) {
+            log.error("❌ [PROCEDURE LOTE] Erro ao registrar falha da procedure para {}: {}",
+                    chamada.identificador(), e.getMessage(), e);
+        }
+    }
+
+    private static ParametrosProcedure parametrosCarteirinha(Long nrSeqSegurado, String cdCgcEstipulante, String cdAssociado) {
+        return cs -> {
+            cs.setLong(1, nrSeqSegurado);       // p_nr_seq_segurado as NUMBER
+            cs.setString(2, cdCgcEstipulante);  // p_cd_cgc_estipulante as VARCHAR2
+            cs.setString(3, cdAssociado);       // p_cd_associado as VARCHAR2
+        };
+    }
+
+    private static ParametrosProcedure parametrosCodigoEmpresa(Long nrSequencia, String codigoEmpresaApi) {
+        return cs -> {
+            cs.setLong(1, nrSequencia);         // p_nr_sequencia as NUMBER
+            cs.setString(2, codigoEmpresaApi);  // p_codigo_empresa as VARCHAR2
+        };
+    }
+
+    @FunctionalInterface
+    private interface ParametrosProcedure {
+        void aplicar(CallableStatement cs) throws SQLException;
+    }
+
+    private record ChamadaProcedure(String sql,
+                                    String identificador,
+                                    ParametrosProcedure parametros,
+                                    Consumer<Exception> aoFalhar,
+                                    CompletableFuture<Void> resultado) {
+    }
+}
@@ -0,0 +1,258 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+import com.odontoPrev.odontoPrev.domain.entity.ControleSyncBeneficiario;
+import com.odontoPrev.odontoPrev.domain.repository.ControleSyncBeneficiarioRepository;
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.PoliticaRetentativa;
+import com.odontoPrev.odontoPrev.infrastructure.repository.entity.ControleSync;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * TRANSIÇÕES DE STATUS DOS REGISTROS DE CONTROLE DA TBSYNC
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Registra o resultado de uma tentativa (sucesso/erro) com um único UPDATE
+ * das colunas que mudam, em vez de carregar o registro (com os CLOBs),
+ * alterar e salvar a entidade inteira.
+ *
+ * COMO FUNCIONA:
+ * 1. O status que o chamador conhece vira a condição do UPDATE
+ *    ("WHERE ID = ? AND STATUS_SYNC = ?"): se outro processo mudou o registro
+ *    antes, nada é sobrescrito e a transição é registrada no log
+ * 2. O UPDATE vai para o GravadorControleSyncAssincrono (em segundo plano
+ *    fora de transação; na hora dentro da transação do chamador)
+ * 3. A entidade em memória recebe os mesmos valores, para quem continuar
+ *    usando o objeto; se ela estiver gerenciada pelo JPA, é desanexada para o
+ *    commit não repetir o UPDATE com todas as colunas
+ *
+ * Registros sem ID ou sem status não têm como ser atualizados por UPDATE
+ * direto: nesses casos a entidade é alterada e salva normalmente.
+ *
+ * RETENTATIVA:
+ * No erro, a PoliticaRetentativa define DATA_PROXIMA_TENTATIVA (vazia para
+ * erro terminal ou tentativas esgotadas); o sucesso limpa a retentativa
+ * agendada. TENTATIVAS do beneficiário é um contador de auditoria anterior à
+ * retentativa: só volta a zero no sucesso quando a retentativa está ligada
+ * (o contador limita as novas tentativas automáticas).
+ */
+@Slf4j
+@Component
+public class TransicaoControleSync {
+
+    private final ControleSyncRepository controleSyncRepository;
+    private final ControleSyncBeneficiarioRepository controleSyncBeneficiarioRepository;
+    private final GravadorControleSyncAssincrono gravador;
+    private final PoliticaRetentativa politicaRetentativa;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TransicaoControleSync(ControleSyncRepository controleSyncRepository,
+                                 ControleSyncBeneficiarioRepository controleSyncBeneficiarioRepository,
+                                 GravadorControleSyncAssincrono gravador,
+                                 PoliticaRetentativa politicaRetentativa) {
+        this.controleSyncRepository = controleSyncRepository;
+        this.controleSyncBeneficiarioRepository = controleSyncBeneficiarioRepository;
+        this.gravador = gravador;
+        this.politicaRetentativa = politicaRetentativa;
+    }
+
+    /**
+     * EMPRESA: STATUS -> SUCCESS
+     *
+     * @param codigoEmpresa código retornado pela API (null = mantém o atual)
+     */
+    public void sucesso(ControleSync controle, String codigoEmpresa, String responseApi) {
+        String codigo = codigoEmpresa != null ? codigoEmpresa : controle.getCodigoEmpresa();
+        LocalDateTime agora = LocalDateTime.now();
+        Integer id = controle.getId();
+        ControleSync.StatusSync esperado = controle.getStatusSync();
+
+        if (id == null || esperado == null) {
+            aplicarSucesso(controle, codigo, responseApi, agora);
+            controleSyncRepository.save(controle);
+            return;
+        }
+
+        String hashPayload = controle.getHashPayload();
+        gravador.publicar("EMPRESA:" + id, codigo, () -> conferir(
+                controleSyncRepository.marcarSucesso(id, esperado, ControleSync.StatusSync.SUCCESS,
+                        codigo, responseApi, agora, hashPayload),
+                "EMPRESA:" + id, esperado, ControleSync.StatusSync.SUCCESS));
+        desanexar(controle);
+        aplicarSucesso(controle, codigo, responseApi, agora);
+    }
+
+    /**
+     * EMPRESA: STATUS -> ERROR
+     */
+    public void erro(ControleSync controle, String erroMensagem) {
+        Integer id = controle.getId();
+        ControleSync.StatusSync esperado = controle.getStatusSync();
+        int tentativas = (controle.getTentativas() != null ? controle.getTentativas() : 0) + 1;
+        LocalDateTime proximaTentativa = politicaRetentativa.proximaTentativa(
+                erroMensagem, tentativas, politicaRetentativa.getMaxTentativasEmpresa());
+
+        if (id == null || esperado == null) {
+            aplicarErro(controle, erroMensagem, tentativas, proximaTentativa);
+            controleSyncRepository.save(controle);
+            return;
+        }
+
+        gravador.publicar("EMPRESA:" + id, controle.getCodigoEmpresa(), () -> conferir(
+                controleSyncRepository.marcarErro(id, esperado, ControleSync.StatusSync.ERROR, erroMensagem,
+                        proximaTentativa),
+                "EMPRESA:" + id, esperado, ControleSync.StatusSync.ERROR));
+        desanexar(controle);
+        aplicarErro(controle, erroMensagem, tentativas, proximaTentativa);
+    }
+
+    /**
+     * EMPRESA: GRAVA O PAYLOAD ENVIADO (DADOS_JSON) SEM MUDAR O STATUS
+     */
+    public void dadosEnviados(ControleSync controle, String dadosJson) {
+        Integer id = controle.getId();
+        if (id == null) {
+            controle.setDadosJson(dadosJson);
+            return;
+        }
+        gravador.publicar("EMPRESA:" + id, controle.getCodigoEmpresa(),
+                () -> controleSyncRepository.atualizarDadosJson(id, dadosJson));
+        desanexar(controle);
+        controle.setDadosJson(dadosJson);
+    }
+
+    /**
+     * BENEFICIÁRIO: STATUS -> SUCESSO
+     *
+     * @param responseApi resposta da API (null = mantém a atual)
+     * @param hashPayload hash do payload enviado (null = mantém o atual)
+     */
+    public void sucesso(ControleSyncBeneficiario controle, String responseApi, String hashPayload) {
+        String resposta = responseApi != null ? responseApi : controle.getResponseApi();
+        String hash = hashPayload != null ? hashPayload : controle.getHashPayload();
+        LocalDateTime agora = LocalDateTime.now();
+        Long id = controle.getId();
+        String esperado = controle.getStatusSync();
+
+        Integer tentativas = politicaRetentativa.isHabilitada() ? 0 : null;
+
+        if (id == null || esperado == null) {
+            aplicarSucesso(controle, resposta, hash, agora, tentativas);
+            controleSyncBeneficiarioRepository.save(controle);
+            return;
+        }
+
+        gravador.publicar("BENEFICIARIO:" + id, controle.getCodigoBeneficiario(), () -> conferir(
+                controleSyncBeneficiarioRepository.marcarComoSucesso(id, esperado, agora, resposta, hash, tentativas),
+                "BENEFICIARIO:" + id, esperado, "SUCESSO"));
+        desanexar(controle);
+        aplicarSucesso(controle, resposta, hash, agora, tentativas);
+    }
+
+    /**
+     * BENEFICIÁRIO: STATUS -> ERRO/ERROR
+     *
+     * @param statusErro valor gravado em STATUS_SYNC ("ERRO" ou "ERROR", conforme o fluxo)
+     * @param incrementoTentativas quanto somar em TENTATIVAS (0 quando a tentativa já foi contada)
+     */
+    public void erro(ControleSyncBeneficiario controle, String statusErro, String erroMensagem, int incrementoTentativas) {
+        LocalDateTime agora = LocalDateTime.now();
+        Long id = controle.getId();
+        String esperado = controle.getStatusSync();
+        LocalDateTime proximaTentativa = proximaTentativa(controle, erroMensagem, incrementoTentativas);
+
+        if (id == null || esperado == null) {
+            aplicarErro(controle, statusErro, erroMensagem, incrementoTentativas, agora, proximaTentativa);
+            controleSyncBeneficiarioRepository.save(controle);
+            return;
+        }
+
+        gravador.publicar("BENEFICIARIO:" + id, controle.getCodigoBeneficiario(), () -> conferir(
+                controleSyncBeneficiarioRepository.atualizarAposTentativa(id, esperado, statusErro,
+                        incrementoTentativas, agora, erroMensagem, proximaTentativa),
+                "BENEFICIARIO:" + id, esperado, statusErro));
+        desanexar(controle);
+        aplicarErro(controle, statusErro, erroMensagem, incrementoTentativas, agora, proximaTentativa);
+    }
+
+    /**
+     * BENEFICIÁRIO: PRÓXIMA TENTATIVA AUTOMÁTICA DE UM ERRO
+     *
+     * Para os fluxos que gravam o erro pela entidade (registro novo ou
+     * recuperação), com as tentativas já atualizadas no objeto.
+     *
+     * @return data/hora da próxima tentativa, ou null quando não há retentativa
+     */
+    public LocalDateTime proximaTentativa(ControleSyncBeneficiario controle, String erroMensagem,
+                                          int incrementoTentativas) {
+        int tentativas = (controle.getTentativas() != null ? controle.getTentativas() : 0) + incrementoTentativas;
+        int maxTentativas = controle.getMaxTentativas() != null ? controle.getMaxTentativas() : 3;
+        return politicaRetentativa.proximaTentativa(erroMensagem, tentativas, maxTentativas);
+    }
+
+    private static void conferir(int atualizados, String chave, Object esperado, Object novo) {
+        if (atualizados == 0) {
+            log.warn("⚠️ [TBSYNC] Transição {} -> {} ignorada para {}: registro não está mais em {}",
+                    esperado, novo, chave, esperado);
+        }
+    }
+
+    /**
+     * O UPDATE já foi enviado: o commit da transação do chamador não deve
+     * regravar a entidade (todas as colunas) por causa dos valores aplicados em memória.
+     */
+    private void desanexar(Object entidade) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && entityManager.contains(entidade)) {
+            entityManager.detach(entidade);
+        }
+    }
+
+    private static void aplicarSucesso(ControleSync controle, String codigoEmpresa, String responseApi,
+                                       LocalDateTime agora) {
+        controle.setCodigoEmpresa(codigoEmpresa);
+        controle.setStatusSync(ControleSync.StatusSync.SUCCESS);
+        controle.setResponseApi(responseApi);
+        controle.setDataSucesso(agora);
+        controle.setErroMensagem(null);
+        controle.setTentativas(0);
+        controle.setDataProximaTentativa(null);
+    }
+
+    private static void aplicarErro(ControleSync controle, String erroMensagem, int tentativas,
+                                    LocalDateTime proximaTentativa) {
+        controle.setStatusSync(ControleSync.StatusSync.ERROR);
+        controle.setErroMensagem(erroMensagem);
+        controle.setResponseApi(null);
+        controle.setTentativas(tentativas);
+        controle.setDataProximaTentativa(proximaTentativa);
+    }
+
+    private static void aplicarSucesso(ControleSyncBeneficiario controle, String responseApi, String hashPayload,
+                                       LocalDateTime agora, Integer tentativas) {
+        controle.setStatusSync("SUCESSO");
+        controle.setDataSucesso(agora);
+        controle.setResponseApi(responseApi);
+        controle.setHashPayload(hashPayload);
+        if (tentativas != null) {
+            controle.setTentativas(tentativas);
+        }
+        controle.setDataProximaTentativa(null);
+    }
+
+    private static void aplicarErro(ControleSyncBeneficiario controle, String statusErro, String erroMensagem,
+                                    int incrementoTentativas, LocalDateTime agora,
+                                    LocalDateTime proximaTentativa) {
+        controle.setStatusSync(statusErro);
+        controle.setDataUltimaTentativa(agora);
+        controle.setErroMensagem(erroMensagem);
+        int tentativas = controle.getTentativas() != null ? controle.getTentativas() : 0;
+        controle.setTentativas(tentativas + incrementoTentativas);
+        controle.setDataProximaTentativa(proximaTentativa);
+    }
+}
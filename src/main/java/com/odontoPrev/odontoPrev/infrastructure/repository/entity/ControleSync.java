@@ -48,6 +48,12 @@ import java.time.LocalDateTime;
  * - Identifica padrões de falha
  * - Comprova que sincronização foi feita
  * - Permite análise de performance
+ *
+ * CLOBs (dadosJson, erroMensagem, responseApi):
+ * São carregados junto com a entidade (sem lazy loading: o build não usa o
+ * bytecode enhancement do Hibernate, e várias rotinas leem responseApi com a
+ * entidade já fora da sessão). Consultas que só precisam de status, hash,
+ * datas ou tentativas devem usar ControleSyncRepository.ResumoControle.
  */
 @Entity
 @Table(name = "TB_CONTROLE_SYNC_ODONTOPREV", schema = "TASY")
@@ -105,6 +111,7 @@ public class ControleSync {
      * @Lob permite textos grandes (JSON pode ser extenso)
      */
     @Lob
+    @Convert(converter = ConversorPayloadCompactado.class)
     @Column(name = "DADOS_JSON")
     private String dadosJson;
 
@@ -139,6 +146,7 @@ public class ControleSync {
      * Contém detalhes do que deu errado para investigação
      */
     @Lob
+    @Convert(converter = ConversorPayloadCompactado.class)
     @Column(name = "ERRO_MENSAGEM")
     private String erroMensagem;
 
@@ -148,9 +156,34 @@ public class ControleSync {
      * Útil para debug e auditoria do que foi retornado
      */
     @Lob
+    @Convert(converter = ConversorPayloadCompactado.class)
     @Column(name = "RESPONSE_API")
     private String responseApi;
 
+    /**
+     * HASH DO PAYLOAD DA ÚLTIMA SINCRONIZAÇÃO COM SUCESSO
+     * SHA-256 (hexadecimal) do JSON canônico enviado para a OdontoPrev.
+     * Permite ignorar alterações em que nenhum campo relevante mudou.
+     */
+    @Column(name = "HASH_PAYLOAD", length = 64)
+    private String hashPayload;
+
+    /**
+     * TENTATIVAS COM ERRO DESDE O ÚLTIMO SUCESSO
+     * Incrementado a cada erro e zerado no sucesso.
+     * Limita quantas vezes o erro é retentado automaticamente.
+     */
+    @Column(name = "TENTATIVAS")
+    private Integer tentativas;
+
+    /**
+     * QUANDO O ERRO PODE SER TENTADO DE NOVO
+     * Preenchido só para erros retentáveis (5xx, timeout) com tentativas restantes.
+     * Vazio = sem retentativa agendada.
+     */
+    @Column(name = "DATA_PROXIMA_TENTATIVA")
+    private LocalDateTime dataProximaTentativa;
+
     /**
      * ENUM PARA TIPOS DE OPERAÇÃO
      * 
@@ -0,0 +1,116 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CONVERSOR DOS PAYLOADS GRANDES DA TBSYNC (DADOS_JSON, RESPONSE_API, ERRO_MENSAGEM)
+ *
+ * Os controles guardam a cada tentativa o JSON enviado (na empresa, a linha
+ * inteira da view), a resposta da API e a mensagem de erro. JSON comprime
+ * muito bem, então o texto é gravado comprimido e os getters da entidade
+ * continuam devolvendo o texto original.
+ *
+ * FORMATO GRAVADO NA COLUNA (CLOB):
+ * - "GZ1:" + Base64(gzip(texto em UTF-8)) - texto comprimido
+ * - qualquer outro conteúdo                - texto puro (registros antigos,
+ *   textos curtos ou quando a compressão não reduz o tamanho)
+ *
+ * A leitura reconhece os dois formatos sempre, mesmo com a compressão desligada,
+ * então ligar e desligar a compressão não exige migração dos dados.
+ * No banco, TASY.FN_PAYLOAD_ODONTOPREV(coluna) devolve o texto original
+ * (db/oracle/003_funcao_payload_odontoprev.sql).
+ *
+ * LIMITE DE TAMANHO:
+ * Textos acima de "tamanho-maximo-caracteres" são cortados antes de gravar (sem
+ * separar um caractere em dois) e recebem no final o marcador
+ * "...[TRUNCADO: N caracteres no total]". Desligado por padrão.
+ *
+ * CONFIGURAÇÕES (application.yml):
+ * - odontoprev.controle-sync.payload.compressao.enabled: grava comprimido (padrão: desligado)
+ * - odontoprev.controle-sync.payload.compressao.tamanho-minimo-caracteres: textos menores ficam puros
+ * - odontoprev.controle-sync.payload.tamanho-maximo-caracteres: limite por coluna (0 = sem limite)
+ *
+ * O Hibernate cria o conversor pelo contexto do Spring, por isso os @Value funcionam.
+ */
+@Slf4j
+@Converter
+public class ConversorPayloadCompactado implements AttributeConverter<String, String> {
+
+    static final String PREFIXO_GZIP = "GZ1:";
+
+    @Value("${odontoprev.controle-sync.payload.compressao.enabled:false}")
+    private boolean compressaoHabilitada;
+
+    @Value("${odontoprev.controle-sync.payload.compressao.tamanho-minimo-caracteres:512}")
+    private int tamanhoMinimoCompressao;
+
+    @Value("${odontoprev.controle-sync.payload.tamanho-maximo-caracteres:0}")
+    private int tamanhoMaximo;
+
+    @Override
+    public String convertToDatabaseColumn(String texto) {
+        if (texto == null) {
+            return null;
+        }
+
+        String valor = limitar(texto);
+        if (!compressaoHabilitada || valor.length() < tamanhoMinimoCompressao || valor.startsWith(PREFIXO_GZIP)) {
+            return valor;
+        }
+
+        String comprimido = PREFIXO_GZIP + Base64.getEncoder().encodeToString(gzip(valor));
+        // JSON muito curto ou já aleatório pode crescer com gzip + Base64: grava puro
+        return comprimido.length() < valor.length() ? comprimido : valor;
+    }
+
+    @Override
+    public String convertToEntityAttribute(String coluna) {
+        if (coluna == null || !coluna.startsWith(PREFIXO_GZIP)) {
+            return coluna;
+        }
+        try {
+            byte[] comprimido = Base64.getDecoder().decode(coluna.substring(PREFIXO_GZIP.length()));
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(comprimido))) {
+                return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // Conteúdo que só parece comprimido: devolve como está em vez de quebrar a leitura
+            log.warn("⚠️ [PAYLOAD TBSYNC] Não foi possível descomprimir payload ({} caracteres): {}",
+                    coluna.length(), e.getMessage());
+            return coluna;
+        }
+    }
+
+    private String limitar(String texto) {
+        if (tamanhoMaximo <= 0 || texto.length() <= tamanhoMaximo) {
+            return texto;
+        }
+        // Não separa um par surrogate (emoji e afins): o corte fica antes do caractere inteiro
+        int fim = Character.isHighSurrogate(texto.charAt(tamanhoMaximo - 1)) ? tamanhoMaximo - 1 : tamanhoMaximo;
+        log.debug("✂️ [PAYLOAD TBSYNC] Payload de {} caracteres cortado em {}", texto.length(), fim);
+        return texto.substring(0, fim) + "...[TRUNCADO: " + texto.length() + " caracteres no total]";
+    }
+
+    private static byte[] gzip(String texto) {
+        byte[] dados = texto.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, dados.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(saida)) {
+            gzip.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return saida.toByteArray();
+    }
+}
@@ -0,0 +1,61 @@
+package com.odontoPrev.odontoPrev.infrastructure.scheduler;
+
+import com.odontoPrev.odontoPrev.infrastructure.repository.ArquivadorControleSync;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AGENDADOR DA RETENÇÃO DAS TABELAS DE CONTROLE DA TBSYNC
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Dispara periodicamente o ArquivadorControleSync, que move o histórico
+ * antigo das tabelas de controle para as tabelas _HIST em lotes.
+ *
+ * COMO FUNCIONA:
+ * 1. AGENDAMENTO: cron configurável (padrão: todo dia às 02:30)
+ * 2. EXECUÇÃO ASSÍNCRONA: roda no ExecutorService para não segurar a thread
+ *    do Spring que dispara os schedulers de empresas e beneficiários
+ * 3. CONTROLE DE CONCORRÊNCIA: nunca roda duas retenções ao mesmo tempo
+ *
+ * CONFIGURAÇÃO:
+ * - odontoprev.controle-sync.retencao.enabled: liga/desliga
+ * - odontoprev.controle-sync.retencao.cron: horário da execução
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "odontoprev.controle-sync.retencao.enabled",
+    havingValue = "true"
+)
+@RequiredArgsConstructor
+public class RetencaoControleSyncScheduler {
+
+    private final ArquivadorControleSync arquivadorControleSync;
+    private final ExecutorService executorService;
+
+    private final AtomicBoolean retencaoEmExecucao = new AtomicBoolean(false);
+
+    @Scheduled(cron = "${odontoprev.controle-sync.retencao.cron:0 30 2 * * *}")
+    public void executarRetencao() {
+        if (!retencaoEmExecucao.compareAndSet(false, true)) {
+            log.warn("Retenção da TBSYNC já está em execução, pulando esta execução");
+            return;
+        }
+
+        CompletableFuture
+                .runAsync(arquivadorControleSync::arquivar, executorService)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Erro durante execução da retenção da TBSYNC", throwable);
+                    }
+                    retencaoEmExecucao.set(false);
+                });
+    }
+}
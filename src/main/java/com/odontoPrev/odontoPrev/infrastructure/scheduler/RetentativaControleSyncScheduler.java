@@ -0,0 +1,61 @@
+package com.odontoPrev.odontoPrev.infrastructure.scheduler;
+
+import com.odontoPrev.odontoPrev.domain.service.RetentativaSincronizacaoService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AGENDADOR DAS RETENTATIVAS DA TBSYNC
+ *
+ * FUNÇÃO PRINCIPAL:
+ * Dispara periodicamente o RetentativaSincronizacaoService, que reenvia as
+ * empresas e beneficiários com erro retentável cuja próxima tentativa venceu.
+ *
+ * COMO FUNCIONA:
+ * 1. AGENDAMENTO: intervalo fixo entre o fim de um ciclo e o início do próximo
+ * 2. EXECUÇÃO ASSÍNCRONA: o ciclo é coordenado no ExecutorService; os reenvios
+ *    rodam no pool próprio do serviço (não tiram threads da sincronização)
+ * 3. CONTROLE DE CONCORRÊNCIA: nunca roda dois ciclos ao mesmo tempo
+ *
+ * CONFIGURAÇÃO:
+ * - odontoprev.controle-sync.retentativa.enabled: liga/desliga
+ * - odontoprev.controle-sync.retentativa.intervalo-ms: intervalo entre ciclos
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "odontoprev.controle-sync.retentativa.enabled",
+    havingValue = "true"
+)
+@RequiredArgsConstructor
+public class RetentativaControleSyncScheduler {
+
+    private final RetentativaSincronizacaoService retentativaSincronizacaoService;
+    private final ExecutorService executorService;
+
+    private final AtomicBoolean retentativaEmExecucao = new AtomicBoolean(false);
+
+    @Scheduled(fixedDelayString = "${odontoprev.controle-sync.retentativa.intervalo-ms:30000}")
+    public void executarRetentativas() {
+        if (!retentativaEmExecucao.compareAndSet(false, true)) {
+            log.debug("Retentativas da TBSYNC já estão em execução, pulando esta execução");
+            return;
+        }
+
+        CompletableFuture
+                .runAsync(retentativaSincronizacaoService::processarRetentativasVencidas, executorService)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        log.error("Erro durante execução das retentativas da TBSYNC", throwable);
+                    }
+                    retentativaEmExecucao.set(false);
+                });
+    }
+}
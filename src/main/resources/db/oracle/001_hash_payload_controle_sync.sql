@@ -0,0 +1,11 @@
+-- =====================================================================
+-- HASH DO PAYLOAD NAS TABELAS DE CONTROLE DE SINCRONIZAÇÃO
+--
+-- Guarda o SHA-256 (hexadecimal) do último payload enviado com sucesso
+-- para a OdontoPrev. As alterações de empresa e beneficiário comparam o
+-- hash atual com este valor e não chamam a API quando nada mudou.
+-- =====================================================================
+
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV ADD (HASH_PAYLOAD VARCHAR2(64));
+
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF ADD (HASH_PAYLOAD VARCHAR2(64));
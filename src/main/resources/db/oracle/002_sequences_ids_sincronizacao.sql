@@ -0,0 +1,67 @@
+-- =====================================================================
+-- SEQUENCES PARA OS IDS DAS TABELAS DE SINCRONIZAÇÃO (PERFIL ids-sequence)
+--
+-- Com IDENTITY o Hibernate executa cada INSERT na hora para descobrir o ID
+-- e o batch do JDBC é ignorado. Com sequence + otimizador pooled-lo a
+-- aplicação reserva 50 IDs por consulta à sequence e envia os INSERTs em lote.
+--
+-- INCREMENT BY precisa ser igual ao allocation-size de
+-- META-INF/orm-ids-sequence.xml (50).
+--
+-- As sequences começam acima do maior ID atual de cada tabela.
+--
+-- ATENÇÃO - IDENTITY FICA PARA TRÁS:
+-- Enquanto o perfil está ativo, os IDs vêm da sequence e o gerador IDENTITY
+-- de cada tabela não avança. Qualquer INSERT que use a IDENTITY (perfil
+-- ids-sequence desligado, MERGE sem id-sequence, INSERTs de fora da aplicação
+-- sem NEXTVAL) repetiria IDs já usados (ORA-00001). Por isso:
+-- - INSERTs de fora da aplicação devem usar TASY.SEQ_*.NEXTVAL no ID
+-- - Para desligar o perfil (reversão), executar ANTES a procedure
+--   TASY.PRC_RESSINCRONIZAR_IDENTITY_ODONTOPREV criada no fim deste script,
+--   que leva cada IDENTITY para acima do maior ID (START WITH LIMIT VALUE)
+-- =====================================================================
+
+DECLARE
+    PROCEDURE criar_sequence(p_tabela VARCHAR2, p_sequence VARCHAR2) IS
+        v_inicio NUMBER;
+    BEGIN
+        EXECUTE IMMEDIATE 'SELECT NVL(MAX(ID), 0) + 1 FROM TASY.' || p_tabela INTO v_inicio;
+        EXECUTE IMMEDIATE 'CREATE SEQUENCE TASY.' || p_sequence
+            || ' START WITH ' || v_inicio
+            || ' INCREMENT BY 50 CACHE 20 NOCYCLE';
+    END;
+BEGIN
+    criar_sequence('TB_CONTROLE_SYNC_ODONTOPREV', 'SEQ_CONTROLE_SYNC_ODONTOPREV');
+    criar_sequence('TB_CONTROLE_SYNC_ODONTOPREV_BENEF', 'SEQ_CONTROLE_SYNC_ODONTOPREV_BENEF');
+    criar_sequence('TB_BENEFICIARIO_ODONTOPREV', 'SEQ_BENEFICIARIO_ODONTOPREV');
+END;
+/
+
+-- Se a coluna ID for IDENTITY "GENERATED ALWAYS", ela não aceita valor informado
+-- pela aplicação. Nesse caso, permitir o valor explícito:
+-- ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV MODIFY ID GENERATED BY DEFAULT ON NULL AS IDENTITY;
+-- ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF MODIFY ID GENERATED BY DEFAULT ON NULL AS IDENTITY;
+-- ALTER TABLE TASY.TB_BENEFICIARIO_ODONTOPREV MODIFY ID GENERATED BY DEFAULT ON NULL AS IDENTITY;
+
+-- =====================================================================
+-- REVERSÃO: RESSINCRONIZA AS IDENTITY COM O MAIOR ID DE CADA TABELA
+--
+-- Executar ao desligar o perfil ids-sequence (com a aplicação parada ou já
+-- sem o perfil), e sempre que algum INSERT precisar voltar a usar a IDENTITY:
+--   BEGIN TASY.PRC_RESSINCRONIZAR_IDENTITY_ODONTOPREV; END;
+-- START WITH LIMIT VALUE posiciona a IDENTITY logo acima do maior ID atual.
+-- Também converte GENERATED ALWAYS em BY DEFAULT ON NULL (ver acima).
+-- =====================================================================
+
+CREATE OR REPLACE PROCEDURE TASY.PRC_RESSINCRONIZAR_IDENTITY_ODONTOPREV IS
+    PROCEDURE ressincronizar(p_tabela VARCHAR2) IS
+    BEGIN
+        EXECUTE IMMEDIATE 'ALTER TABLE TASY.' || p_tabela
+            || ' MODIFY ID GENERATED BY DEFAULT ON NULL AS IDENTITY (START WITH LIMIT VALUE)';
+    END;
+BEGIN
+    ressincronizar('TB_CONTROLE_SYNC_ODONTOPREV');
+    ressincronizar('TB_CONTROLE_SYNC_ODONTOPREV_BENEF');
+    ressincronizar('TB_BENEFICIARIO_ODONTOPREV');
+END;
+/
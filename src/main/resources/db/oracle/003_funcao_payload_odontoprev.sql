@@ -0,0 +1,52 @@
+-- =====================================================================
+-- LEITURA DOS PAYLOADS COMPRIMIDOS DA TBSYNC
+--
+-- Com odontoprev.controle-sync.payload.compressao.enabled=true, as colunas
+-- DADOS_JSON, RESPONSE_API e ERRO_MENSAGEM de TB_CONTROLE_SYNC_ODONTOPREV e
+-- TB_CONTROLE_SYNC_ODONTOPREV_BENEF guardam textos grandes como
+-- "GZ1:" + Base64(gzip(texto UTF-8)) (ConversorPayloadCompactado).
+--
+-- Esta função devolve o texto original para consultas e suporte:
+--   SELECT ID, TASY.FN_PAYLOAD_ODONTOPREV(RESPONSE_API) FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV ...
+-- Valores sem o prefixo (registros antigos e textos curtos) são devolvidos como estão.
+-- =====================================================================
+
+CREATE OR REPLACE FUNCTION TASY.FN_PAYLOAD_ODONTOPREV(p_valor IN CLOB) RETURN CLOB IS
+    c_prefixo     CONSTANT VARCHAR2(4) := 'GZ1:';
+    -- Múltiplo de 4 para cada bloco Base64 ser decodificado sozinho
+    c_bloco       CONSTANT PLS_INTEGER := 8000;
+    v_comprimido  BLOB;
+    v_texto       BLOB;
+    v_resultado   CLOB;
+    v_parte       RAW(32767);
+    v_tamanho     INTEGER;
+    v_posicao     INTEGER := LENGTH(c_prefixo) + 1;
+    v_dest_offset INTEGER := 1;
+    v_src_offset  INTEGER := 1;
+    v_lang_ctx    INTEGER := DBMS_LOB.DEFAULT_LANG_CTX;
+    v_aviso       INTEGER;
+BEGIN
+    IF p_valor IS NULL OR DBMS_LOB.SUBSTR(p_valor, LENGTH(c_prefixo), 1) <> c_prefixo THEN
+        RETURN p_valor;
+    END IF;
+
+    DBMS_LOB.CREATETEMPORARY(v_comprimido, TRUE);
+    v_tamanho := DBMS_LOB.GETLENGTH(p_valor);
+    WHILE v_posicao <= v_tamanho LOOP
+        v_parte := UTL_ENCODE.BASE64_DECODE(
+                UTL_RAW.CAST_TO_RAW(DBMS_LOB.SUBSTR(p_valor, c_bloco, v_posicao)));
+        DBMS_LOB.WRITEAPPEND(v_comprimido, UTL_RAW.LENGTH(v_parte), v_parte);
+        v_posicao := v_posicao + c_bloco;
+    END LOOP;
+
+    -- UTL_COMPRESS lê o formato gzip gerado pelo java.util.zip.GZIPOutputStream
+    v_texto := UTL_COMPRESS.LZ_UNCOMPRESS(v_comprimido);
+
+    DBMS_LOB.CREATETEMPORARY(v_resultado, TRUE);
+    DBMS_LOB.CONVERTTOCLOB(v_resultado, v_texto, DBMS_LOB.LOBMAXSIZE,
+                           v_dest_offset, v_src_offset,
+                           NLS_CHARSET_ID('AL32UTF8'), v_lang_ctx, v_aviso);
+    DBMS_LOB.FREETEMPORARY(v_comprimido);
+    RETURN v_resultado;
+END;
+/
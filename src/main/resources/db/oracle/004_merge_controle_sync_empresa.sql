@@ -0,0 +1,41 @@
+-- =====================================================================
+-- ÍNDICES PARA O MERGE DO CONTROLE DE EMPRESA (MergeControleSync)
+--
+-- Com odontoprev.controle-sync.merge.enabled=true, o controle de cada
+-- empresa/tipo (1=Adição, 2=Alteração, 3=Exclusão) é criado ou reaproveitado
+-- por um único MERGE, chaveado em CODIGO_EMPRESA + TIPO_CONTROLE.
+--
+-- A tabela também guarda registros que repetem a chave de propósito
+-- (planos/PME, ativação de plano, erros de procedure). Por isso a unicidade
+-- vale só para os registros criados pelo MERGE, identificados pelo endpoint
+-- "/empresas/{codigo}...": as demais linhas ficam fora do índice (NULL).
+-- =====================================================================
+
+-- 1. Busca do registro mais recente por empresa/tipo (sem ler os CLOBs)
+CREATE INDEX TASY.IX_CONTROLE_SYNC_EMP_TIPO
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV (CODIGO_EMPRESA, TIPO_CONTROLE, DATA_CRIACAO DESC, ID);
+
+-- 2. Antes do índice único: registros duplicados que precisam ser resolvidos
+--    (o MERGE sempre usa o mais recente; os anteriores são histórico)
+SELECT CODIGO_EMPRESA, TIPO_CONTROLE, COUNT(*) QUANTIDADE
+  FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV
+ WHERE ENDPOINT_DESTINO LIKE '/empresas/%'
+ GROUP BY CODIGO_EMPRESA, TIPO_CONTROLE
+HAVING COUNT(*) > 1;
+
+-- Se a consulta acima retornar linhas, mantendo só o mais recente de cada chave:
+-- DELETE FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV c
+--  WHERE c.ENDPOINT_DESTINO LIKE '/empresas/%'
+--    AND c.ID <> (SELECT MAX(d.ID) KEEP (DENSE_RANK FIRST ORDER BY d.DATA_CRIACAO DESC)
+--                   FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV d
+--                  WHERE d.CODIGO_EMPRESA = c.CODIGO_EMPRESA
+--                    AND d.TIPO_CONTROLE = c.TIPO_CONTROLE
+--                    AND d.ENDPOINT_DESTINO LIKE '/empresas/%');
+
+-- 3. Um único registro do MERGE por empresa/tipo: dois processos incluindo a
+--    mesma empresa ao mesmo tempo não geram linhas duplicadas
+CREATE UNIQUE INDEX TASY.UK_CONTROLE_SYNC_EMP_TIPO
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV (
+        CASE WHEN ENDPOINT_DESTINO LIKE '/empresas/%' THEN CODIGO_EMPRESA END,
+        CASE WHEN ENDPOINT_DESTINO LIKE '/empresas/%' THEN TIPO_CONTROLE END
+    );
@@ -0,0 +1,48 @@
+-- =====================================================================
+-- RETENÇÃO DAS TABELAS DE CONTROLE DA TBSYNC (ArquivadorControleSync)
+--
+-- Com odontoprev.controle-sync.retencao.enabled=true, registros finalizados
+-- mais antigos que "idade-dias", e que já têm um registro mais recente para a
+-- mesma chave, são movidos para as tabelas _HIST em lotes. O registro mais
+-- recente de cada empresa/beneficiário permanece na tabela de controle, assim
+-- como o último registro de sucesso (mesmo que existam erros depois dele).
+--
+-- As tabelas _HIST repetem as colunas da tabela de controle mais DATA_ARQUIVAMENTO.
+-- A aplicação copia pelos nomes das colunas presentes nas duas tabelas: colunas
+-- novas na tabela de controle precisam ser criadas também na _HIST (em qualquer
+-- posição) para serem preservadas no histórico.
+-- =====================================================================
+
+-- 1. Tabelas de histórico (sem linhas, mesma estrutura)
+CREATE TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_HIST AS
+    SELECT * FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV WHERE 1 = 0;
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_HIST ADD (DATA_ARQUIVAMENTO TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL);
+
+CREATE TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST AS
+    SELECT * FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF WHERE 1 = 0;
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST ADD (DATA_ARQUIVAMENTO TIMESTAMP DEFAULT SYSTIMESTAMP NOT NULL);
+
+-- 2. Consulta do histórico por empresa/beneficiário
+CREATE INDEX TASY.IX_CONTROLE_SYNC_HIST_EMP
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV_HIST (CODIGO_EMPRESA, TIPO_CONTROLE, DATA_CRIACAO);
+CREATE INDEX TASY.IX_CONTROLE_SYNC_BENEF_HIST_BENEF
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST (CODIGO_EMPRESA, CODIGO_BENEFICIARIO, DATA_CRIACAO);
+
+-- 3. Busca por chave nas tabelas de controle (processamento e "existe registro mais recente?")
+--    A de empresa (CODIGO_EMPRESA, TIPO_CONTROLE, DATA_CRIACAO) é criada em 004_merge_controle_sync_empresa.sql
+CREATE INDEX TASY.IX_CONTROLE_SYNC_BENEF_CHAVE
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF (CODIGO_EMPRESA, CODIGO_BENEFICIARIO, TIPO_OPERACAO, DATA_CRIACAO);
+
+-- 4. Seleção dos candidatos ao arquivamento por idade
+CREATE INDEX TASY.IX_CONTROLE_SYNC_DATA_CRIACAO
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV (DATA_CRIACAO);
+CREATE INDEX TASY.IX_CONTROLE_SYNC_BENEF_DATA_CRIACAO
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF (DATA_CRIACAO);
+
+-- Consulta unificada (controle + histórico), para suporte:
+-- SELECT ID, STATUS_SYNC, DATA_CRIACAO, CAST(NULL AS TIMESTAMP) DATA_ARQUIVAMENTO
+--   FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF WHERE CODIGO_BENEFICIARIO = :matricula
+-- UNION ALL
+-- SELECT ID, STATUS_SYNC, DATA_CRIACAO, DATA_ARQUIVAMENTO
+--   FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST WHERE CODIGO_BENEFICIARIO = :matricula
+--  ORDER BY DATA_CRIACAO DESC;
@@ -0,0 +1,46 @@
+-- =====================================================================
+-- PARTICIONAMENTO POR DATA_CRIACAO (OPCIONAL)
+--
+-- Requer a opção Oracle Partitioning e Oracle 12.2+ (MODIFY ... ONLINE).
+-- Não é necessário para a retenção funcionar: com ele, consultas por período
+-- leem só as partições do período e o histórico pode ser descartado com
+-- DROP PARTITION em vez de DELETE.
+--
+-- Partições mensais criadas automaticamente (INTERVAL). A coluna de
+-- particionamento não pode ser nula em tabela com INTERVAL.
+-- =====================================================================
+
+-- 1. DATA_CRIACAO obrigatória (na tabela de empresas a coluna aceita nulo)
+UPDATE TASY.TB_CONTROLE_SYNC_ODONTOPREV SET DATA_CRIACAO = NVL(DATA_SUCESSO, SYSTIMESTAMP) WHERE DATA_CRIACAO IS NULL;
+UPDATE TASY.TB_CONTROLE_SYNC_ODONTOPREV_HIST SET DATA_CRIACAO = NVL(DATA_SUCESSO, DATA_ARQUIVAMENTO) WHERE DATA_CRIACAO IS NULL;
+COMMIT;
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV MODIFY (DATA_CRIACAO NOT NULL);
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_HIST MODIFY (DATA_CRIACAO NOT NULL);
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST MODIFY (DATA_CRIACAO NOT NULL);
+
+-- 2. Tabelas de histórico: cresce sem parar, maior ganho com partições
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_HIST MODIFY
+    PARTITION BY RANGE (DATA_CRIACAO) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION P_INICIAL VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'))
+    ONLINE UPDATE INDEXES;
+
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST MODIFY
+    PARTITION BY RANGE (DATA_CRIACAO) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION P_INICIAL VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'))
+    ONLINE UPDATE INDEXES;
+
+-- 3. Tabelas de controle: índices de chave continuam globais (buscas por
+--    empresa/beneficiário não filtram por data); o de DATA_CRIACAO fica local
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV MODIFY
+    PARTITION BY RANGE (DATA_CRIACAO) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION P_INICIAL VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'))
+    ONLINE UPDATE INDEXES (TASY.IX_CONTROLE_SYNC_DATA_CRIACAO LOCAL);
+
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF MODIFY
+    PARTITION BY RANGE (DATA_CRIACAO) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+    (PARTITION P_INICIAL VALUES LESS THAN (TIMESTAMP '2024-01-01 00:00:00'))
+    ONLINE UPDATE INDEXES (TASY.IX_CONTROLE_SYNC_BENEF_DATA_CRIACAO LOCAL);
+
+-- Descarte de histórico muito antigo (exemplo, por partição):
+-- ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST
+--     DROP PARTITION FOR (TIMESTAMP '2024-01-15 00:00:00') UPDATE GLOBAL INDEXES;
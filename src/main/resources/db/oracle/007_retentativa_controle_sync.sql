@@ -0,0 +1,56 @@
+-- =====================================================================
+-- RETENTATIVA AGENDADA DOS REGISTROS DE CONTROLE DA TBSYNC
+--
+-- Erros retentáveis (5xx, timeout, falha de conexão) gravam em
+-- DATA_PROXIMA_TENTATIVA quando o registro deve ser tentado de novo (backoff
+-- exponencial com jitter). O RetentativaControleSyncScheduler busca os
+-- registros vencidos; o fluxo principal pula as chaves com retentativa agendada.
+-- Erros terminais (4xx) e registros sem tentativas restantes ficam com a coluna
+-- vazia e continuam como hoje (voltam pelo fluxo principal quando a view mudar).
+--
+-- A tabela de empresa passa a contar tentativas (zerado no sucesso), como a
+-- de beneficiário. As colunas são mapeadas nas entidades: executar antes de
+-- publicar a versão, mesmo com odontoprev.controle-sync.retentativa.enabled=false.
+-- =====================================================================
+
+-- 1. Colunas novas
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV ADD (
+    TENTATIVAS             NUMBER(5) DEFAULT 0,
+    DATA_PROXIMA_TENTATIVA TIMESTAMP
+);
+ALTER TABLE TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF ADD (
+    DATA_PROXIMA_TENTATIVA TIMESTAMP
+);
+
+-- 2. Mesmas colunas nas tabelas _HIST, se a retenção (005, opcional) já foi instalada;
+--    o arquivamento copia pelos nomes das colunas. Se 005 rodar depois, o
+--    CREATE TABLE ... AS SELECT * já cria as _HIST com as colunas novas
+DECLARE
+    PROCEDURE adicionar_se_existir(p_tabela VARCHAR2, p_colunas VARCHAR2) IS
+        v_existe NUMBER;
+    BEGIN
+        SELECT COUNT(*) INTO v_existe FROM ALL_TABLES WHERE OWNER = 'TASY' AND TABLE_NAME = p_tabela;
+        IF v_existe > 0 THEN
+            EXECUTE IMMEDIATE 'ALTER TABLE TASY.' || p_tabela || ' ADD (' || p_colunas || ')';
+        END IF;
+    END;
+BEGIN
+    adicionar_se_existir('TB_CONTROLE_SYNC_ODONTOPREV_HIST',
+        'TENTATIVAS NUMBER(5), DATA_PROXIMA_TENTATIVA TIMESTAMP');
+    adicionar_se_existir('TB_CONTROLE_SYNC_ODONTOPREV_BENEF_HIST',
+        'DATA_PROXIMA_TENTATIVA TIMESTAMP');
+END;
+/
+
+-- 3. Busca dos registros vencidos: só as linhas agendadas entram no índice
+--    (chave NULL não é indexada no Oracle), então ele fica do tamanho da fila de retentativas
+CREATE INDEX TASY.IX_CONTROLE_SYNC_PROXIMA_TENT
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV (DATA_PROXIMA_TENTATIVA);
+CREATE INDEX TASY.IX_CONTROLE_SYNC_BENEF_PROXIMA_TENT
+    ON TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF (DATA_PROXIMA_TENTATIVA);
+
+-- Fila de retentativas, para suporte:
+-- SELECT TIPO_OPERACAO, COUNT(*), MIN(DATA_PROXIMA_TENTATIVA)
+--   FROM TASY.TB_CONTROLE_SYNC_ODONTOPREV_BENEF
+--  WHERE DATA_PROXIMA_TENTATIVA IS NOT NULL
+--  GROUP BY TIPO_OPERACAO;
@@ -0,0 +1,132 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import com.odontoPrev.odontoPrev.infrastructure.client.resiliencia.CircuitBreakerApim.Estado;
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CircuitBreakerApimTest {
+
+    private static final FamiliaEndpointApim FAMILIA = FamiliaEndpointApim.EMPRESA;
+
+    private CircuitBreakerApim circuitBreaker;
+
+    @BeforeEach
+    void configurar() {
+        circuitBreaker = new CircuitBreakerApim();
+        ReflectionTestUtils.setField(circuitBreaker, "habilitado", true);
+        ReflectionTestUtils.setField(circuitBreaker, "tamanhoJanela", 4);
+        ReflectionTestUtils.setField(circuitBreaker, "minimoChamadas", 4);
+        ReflectionTestUtils.setField(circuitBreaker, "taxaFalhaPercentual", 50);
+        ReflectionTestUtils.setField(circuitBreaker, "taxaLentaPercentual", 75);
+        ReflectionTestUtils.setField(circuitBreaker, "chamadaLentaMs", 1000L);
+        ReflectionTestUtils.setField(circuitBreaker, "tempoAbertoMs", 60_000L);
+        ReflectionTestUtils.setField(circuitBreaker, "chamadasTeste", 2);
+    }
+
+    @Test
+    void deveAbrirQuandoTaxaDeFalhasAtingeLimite() {
+        registrar(false, false, true, true);
+
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.ABERTO);
+        assertThat(circuitBreaker.permiteChamadas(FAMILIA)).isFalse();
+        assertThatThrownBy(() -> circuitBreaker.autorizar(FAMILIA))
+                .isInstanceOf(CircuitoAbertoException.class);
+    }
+
+    @Test
+    void naoDeveAbrirAntesDoMinimoDeChamadas() {
+        registrar(true, true, true);
+
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.FECHADO);
+        circuitBreaker.autorizar(FAMILIA);
+    }
+
+    @Test
+    void deveConsiderarApenasAsChamadasDaJanela() {
+        registrar(true, false, false, false, false, false);
+
+        // A falha saiu da janela de 4: o próximo erro deixa a taxa em 25%
+        circuitBreaker.registrarResultado(FAMILIA, true, 10);
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.FECHADO);
+    }
+
+    @Test
+    void deveAbrirQuandoTaxaDeChamadasLentasAtingeLimite() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.registrarResultado(FAMILIA, false, 5000);
+        }
+        circuitBreaker.registrarResultado(FAMILIA, false, 10);
+
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.ABERTO);
+    }
+
+    @Test
+    void deveManterCircuitosSeparadosPorFamilia() {
+        registrar(true, true, true, true);
+
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.ABERTO);
+        assertThat(circuitBreaker.permiteChamadas(FamiliaEndpointApim.AUTH)).isTrue();
+    }
+
+    @Test
+    void deveFecharAposChamadasDeTesteComSucesso() {
+        ReflectionTestUtils.setField(circuitBreaker, "tempoAbertoMs", 0L);
+        registrar(true, true, true, true);
+
+        circuitBreaker.autorizar(FAMILIA);
+        circuitBreaker.autorizar(FAMILIA);
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.MEIO_ABERTO);
+        assertThatThrownBy(() -> circuitBreaker.autorizar(FAMILIA))
+                .isInstanceOf(CircuitoAbertoException.class);
+
+        circuitBreaker.registrarResultado(FAMILIA, false, 10);
+        circuitBreaker.registrarResultado(FAMILIA, false, 10);
+
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.FECHADO);
+    }
+
+    @Test
+    void deveReabrirQuandoChamadaDeTesteFalha() {
+        ReflectionTestUtils.setField(circuitBreaker, "tempoAbertoMs", 0L);
+        registrar(true, true, true, true);
+
+        circuitBreaker.autorizar(FAMILIA);
+        ReflectionTestUtils.setField(circuitBreaker, "tempoAbertoMs", 60_000L);
+        circuitBreaker.registrarResultado(FAMILIA, true, 10);
+
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.ABERTO);
+        assertThat(circuitBreaker.permiteChamadas(FAMILIA)).isFalse();
+    }
+
+    @Test
+    void deveDevolverVagaDeTesteDeChamadaCancelada() {
+        ReflectionTestUtils.setField(circuitBreaker, "tempoAbertoMs", 0L);
+        registrar(true, true, true, true);
+
+        circuitBreaker.autorizar(FAMILIA);
+        circuitBreaker.autorizar(FAMILIA);
+        circuitBreaker.cancelar(FAMILIA);
+
+        circuitBreaker.autorizar(FAMILIA);
+        assertThat(circuitBreaker.estado(FAMILIA)).isEqualTo(Estado.MEIO_ABERTO);
+    }
+
+    @Test
+    void devePermitirChamadasQuandoDesabilitado() {
+        ReflectionTestUtils.setField(circuitBreaker, "habilitado", false);
+        registrar(true, true, true, true);
+
+        assertThat(circuitBreaker.permiteChamadas(FAMILIA)).isTrue();
+    }
+
+    private void registrar(boolean... falhas) {
+        for (boolean falha : falhas) {
+            circuitBreaker.registrarResultado(FAMILIA, falha, 10);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.resiliencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LimitadorAdaptativoApimTest {
+
+    private static final FamiliaEndpointApim FAMILIA = FamiliaEndpointApim.BENEFICIARIO;
+
+    private LimitadorAdaptativoApim limitador;
+
+    @BeforeEach
+    void configurar() {
+        limitador = new LimitadorAdaptativoApim();
+        ReflectionTestUtils.setField(limitador, "habilitado", true);
+        ReflectionTestUtils.setField(limitador, "limiteInicial", 2.0);
+        ReflectionTestUtils.setField(limitador, "limiteMinimo", 1.0);
+        ReflectionTestUtils.setField(limitador, "limiteMaximo", 4.0);
+        ReflectionTestUtils.setField(limitador, "fatorReducao", 0.5);
+        ReflectionTestUtils.setField(limitador, "intervaloReducaoMs", 60_000L);
+        ReflectionTestUtils.setField(limitador, "esperaMaximaMs", 50L);
+        ReflectionTestUtils.setField(limitador, "retryAfterMaximoSegundos", 300L);
+    }
+
+    @Test
+    void deveFalharQuandoNaoHaVagaDentroDaEsperaMaxima() throws IOException {
+        limitador.adquirir(FAMILIA);
+        limitador.adquirir(FAMILIA);
+
+        assertThatThrownBy(() -> limitador.adquirir(FAMILIA))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("não liberou vaga");
+    }
+
+    @Test
+    void deveLiberarVagaParaProximaChamada() throws IOException {
+        limitador.adquirir(FAMILIA);
+        limitador.adquirir(FAMILIA);
+        limitador.liberar(FAMILIA);
+
+        limitador.adquirir(FAMILIA);
+    }
+
+    @Test
+    void deveManterLimitesSeparadosPorFamilia() throws IOException {
+        limitador.adquirir(FAMILIA);
+        limitador.adquirir(FAMILIA);
+
+        limitador.adquirir(FamiliaEndpointApim.AUTH);
+        assertThat(limitador.limiteAtual(FamiliaEndpointApim.AUTH)).isEqualTo(2);
+    }
+
+    @Test
+    void deveAumentarLimiteAditivamenteComSucessos() {
+        // +1/limite por sucesso: 2 -> 2,5 -> 2,9 -> 3,24
+        limitador.registrarSucesso(FAMILIA);
+        limitador.registrarSucesso(FAMILIA);
+        assertThat(limitador.limiteAtual(FAMILIA)).isEqualTo(2);
+
+        limitador.registrarSucesso(FAMILIA);
+        assertThat(limitador.limiteAtual(FAMILIA)).isEqualTo(3);
+    }
+
+    @Test
+    void naoDeveAumentarAcimaDoLimiteMaximo() {
+        for (int i = 0; i < 100; i++) {
+            limitador.registrarSucesso(FAMILIA);
+        }
+
+        assertThat(limitador.limiteAtual(FAMILIA)).isEqualTo(4);
+    }
+
+    @Test
+    void deveReduzirLimiteUmaVezPorIntervaloNaSobrecarga() {
+        ReflectionTestUtils.setField(limitador, "limiteInicial", 4.0);
+
+        limitador.registrarSobrecarga(FAMILIA, "HTTP 429", null);
+        limitador.registrarSobrecarga(FAMILIA, "HTTP 429", null);
+
+        assertThat(limitador.limiteAtual(FAMILIA)).isEqualTo(2);
+    }
+
+    @Test
+    void naoDeveReduzirAbaixoDoLimiteMinimo() {
+        ReflectionTestUtils.setField(limitador, "intervaloReducaoMs", 0L);
+
+        for (int i = 0; i < 10; i++) {
+            limitador.registrarSobrecarga(FAMILIA, "HTTP 503", null);
+        }
+
+        assertThat(limitador.limiteAtual(FAMILIA)).isEqualTo(1);
+    }
+
+    @Test
+    void devePausarFamiliaPeloRetryAfter() {
+        limitador.registrarSobrecarga(FAMILIA, "HTTP 429", "30");
+
+        assertThatThrownBy(() -> limitador.adquirir(FAMILIA)).isInstanceOf(IOException.class);
+        assertThat(limitador.limiteAtual(FAMILIA)).isEqualTo(1);
+    }
+
+    @Test
+    void deveIgnorarRetryAfterInvalido() throws IOException {
+        limitador.registrarSobrecarga(FAMILIA, "HTTP 429", "depois");
+
+        limitador.adquirir(FAMILIA);
+    }
+}
@@ -0,0 +1,93 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.service;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalculadoraHashPayloadTest {
+
+    private ObjectMapper objectMapper;
+    private CalculadoraHashPayload calculadora;
+
+    @BeforeEach
+    void configurar() {
+        objectMapper = new ObjectMapper();
+        calculadora = new CalculadoraHashPayload(objectMapper);
+    }
+
+    @Test
+    void deveGerarMesmoHashIndependenteDaOrdemDasPropriedades() {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        mapa.put("a", 2);
+        mapa.put("b", 1);
+
+        // O DTO declara "b" antes de "a"; o mapa foi preenchido na ordem inversa
+        assertThat(calculadora.calcular(new PayloadTeste(1, 2))).isEqualTo(calculadora.calcular(mapa));
+    }
+
+    @Test
+    void deveGerarMesmoHashIndependenteDaOrdemDasChavesDoMapa() {
+        Map<String, Object> primeiro = new LinkedHashMap<>();
+        primeiro.put("nome", "EMPRESA TESTE");
+        primeiro.put("cnpj", "12345678000199");
+        Map<String, Object> segundo = new LinkedHashMap<>();
+        segundo.put("cnpj", "12345678000199");
+        segundo.put("nome", "EMPRESA TESTE");
+
+        assertThat(calculadora.calcular(primeiro)).isEqualTo(calculadora.calcular(segundo));
+    }
+
+    @Test
+    void deveGerarHashDiferenteQuandoConteudoMuda() {
+        String hash = calculadora.calcular(new PayloadTeste(1, 2));
+
+        assertThat(hash).hasSize(64).matches("[0-9a-f]+");
+        assertThat(calculadora.calcular(new PayloadTeste(1, 3))).isNotEqualTo(hash);
+    }
+
+    @Test
+    void deveDevolverNullParaPayloadNulo() {
+        assertThat(calculadora.calcular(null)).isNull();
+    }
+
+    @Test
+    void naoDeveAlterarObjectMapperDaAplicacao() {
+        assertThat(objectMapper.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)).isFalse();
+        assertThat(objectMapper.isEnabled(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)).isFalse();
+    }
+
+    @Test
+    void deveIndicarSemMudancaSomenteComHashesIguais() {
+        String hash = calculadora.calcular(new PayloadTeste(1, 2));
+
+        assertThat(calculadora.semMudanca(hash, hash)).isTrue();
+        assertThat(calculadora.semMudanca(hash, null)).isFalse();
+        assertThat(calculadora.semMudanca(null, null)).isFalse();
+        assertThat(calculadora.semMudanca(hash, calculadora.calcular(new PayloadTeste(2, 1)))).isFalse();
+    }
+
+    static class PayloadTeste {
+        private final int b;
+        private final int a;
+
+        PayloadTeste(int b, int a) {
+            this.b = b;
+            this.a = a;
+        }
+
+        public int getB() {
+            return b;
+        }
+
+        public int getA() {
+            return a;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.odontoPrev.odontoPrev.infrastructure.client.service;
+
+import com.odontoPrev.odontoPrev.infrastructure.exception.CircuitoAbertoException;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnvioLoteComDivisaoTest {
+
+    private static final String ITEM_INVALIDO = "X";
+
+    private EnvioLoteComDivisao envioLote;
+    private List<List<String>> lotesEnviados;
+    private List<String> itensComFalha;
+
+    @BeforeEach
+    void configurar() {
+        envioLote = new EnvioLoteComDivisao();
+        lotesEnviados = new ArrayList<>();
+        itensComFalha = new ArrayList<>();
+    }
+
+    @Test
+    void deveEnviarLoteInteiroQuandoApiAceita() {
+        int sucesso = enviar(List.of("A", "B", "C"), lote -> lote.size());
+
+        assertThat(sucesso).isEqualTo(3);
+        assertThat(lotesEnviados).hasSize(1);
+        assertThat(itensComFalha).isEmpty();
+    }
+
+    @Test
+    void deveDividirLoteAteIsolarItemRejeitado() {
+        List<String> lote = List.of("A", "B", "C", ITEM_INVALIDO, "E", "F", "G", "H");
+
+        int sucesso = enviar(lote, itens -> {
+            if (itens.contains(ITEM_INVALIDO)) {
+                throw erroHttp(400);
+            }
+            return itens.size();
+        });
+
+        assertThat(sucesso).isEqualTo(7);
+        assertThat(itensComFalha).containsExactly(ITEM_INVALIDO);
+        // 8 -> 4 + 4 -> 2 + 2 -> 1 + 1: quatro envios com o item inválido, três sem
+        assertThat(lotesEnviados).hasSize(7);
+    }
+
+    @Test
+    void naoDeveDividirLoteQuandoFalhaNaoEDosDados() {
+        List<String> lote = List.of("A", "B", "C", "D");
+
+        for (int status : new int[]{401, 403, 429, 500, 503}) {
+            lotesEnviados.clear();
+            itensComFalha.clear();
+
+            int sucesso = enviar(lote, itens -> {
+                throw erroHttp(status);
+            });
+
+            assertThat(sucesso).as("HTTP %d", status).isZero();
+            assertThat(lotesEnviados).as("HTTP %d", status).hasSize(1);
+            assertThat(itensComFalha).as("HTTP %d", status).containsExactlyElementsOf(lote);
+        }
+    }
+
+    @Test
+    void deveAdiarLoteSemRegistrarErroQuandoCircuitoAberto() {
+        int sucesso = enviar(List.of("A", "B"), itens -> {
+            throw new IllegalStateException("falha no envio", new CircuitoAbertoException("BENEFICIARIO", 30));
+        });
+
+        assertThat(sucesso).isZero();
+        assertThat(itensComFalha).isEmpty();
+    }
+
+    @Test
+    void deveIdentificarRejeicaoDeDadosSomenteEm4xxDeValidacao() {
+        assertThat(envioLote.isRejeicaoDeDados(erroHttp(400))).isTrue();
+        assertThat(envioLote.isRejeicaoDeDados(erroHttp(422))).isTrue();
+        assertThat(envioLote.isRejeicaoDeDados(erroHttp(401))).isFalse();
+        assertThat(envioLote.isRejeicaoDeDados(erroHttp(403))).isFalse();
+        assertThat(envioLote.isRejeicaoDeDados(erroHttp(429))).isFalse();
+        assertThat(envioLote.isRejeicaoDeDados(erroHttp(500))).isFalse();
+        assertThat(envioLote.isRejeicaoDeDados(new RuntimeException("timeout"))).isFalse();
+    }
+
+    private int enviar(List<String> lote, EnvioLoteComDivisao.EnvioLote<String> envio) {
+        return envioLote.enviar(lote, "TESTE LOTE", itens -> {
+            lotesEnviados.add(List.copyOf(itens));
+            return envio.enviar(itens);
+        }, (itens, erro) -> itensComFalha.addAll(itens));
+    }
+
+    private static FeignException erroHttp(int status) {
+        Request request = Request.create(Request.HttpMethod.PUT, "https://apim.odontoprev.com.br/beneficiarios",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return new FeignException.FeignClientException(status, "HTTP " + status, request, null, Map.of());
+    }
+}
@@ -0,0 +1,142 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.CallableStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProcedureTasyLoteExecutorTest {
+
+    private static final String ASSOCIADO_COM_FALHA = "FALHA";
+
+    private JdbcTemplate jdbcTemplate;
+    private ProcedureTasyLoteExecutor executor;
+    private List<String> falhasNotificadas;
+
+    @BeforeEach
+    void configurar() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        executor = new ProcedureTasyLoteExecutor(jdbcTemplate, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(executor, "tamanhoLote", 50);
+        falhasNotificadas = new ArrayList<>();
+
+        // Procedure individual: falha só para o associado marcado
+        when(jdbcTemplate.execute(eq(ProcedureTasyLoteExecutor.SQL_CARTEIRINHA), any(CallableStatementCallback.class)))
+                .thenAnswer(invocacao -> {
+                    CallableStatementCallback<?> callback = invocacao.getArgument(1);
+                    try {
+                        return callback.doInCallableStatement(statementQueFalhaPara(ASSOCIADO_COM_FALHA));
+                    } catch (SQLException e) {
+                        throw new DataIntegrityViolationException(e.getMessage(), e);
+                    }
+                });
+    }
+
+    @Test
+    void deveNotificarFalhaQuandoProcedureFalhaComLoteDesligado() {
+        CompletableFuture<Void> resultado = agendar(ASSOCIADO_COM_FALHA);
+
+        assertThat(falhasNotificadas).containsExactly(ASSOCIADO_COM_FALHA);
+        assertThat(resultado).isCompletedExceptionally();
+    }
+
+    @Test
+    void naoDeveNotificarFalhaQuandoProcedureExecutaComSucesso() {
+        CompletableFuture<Void> resultado = agendar("A001");
+
+        assertThat(falhasNotificadas).isEmpty();
+        assertThat(resultado).isCompletedWithValue(null);
+    }
+
+    @Test
+    void deveIsolarItemComFalhaQuandoLoteInteiroFalha() {
+        ReflectionTestUtils.setField(executor, "loteHabilitado", true);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+                .thenThrow(new DataIntegrityViolationException("ORA-20001: erro no lote"));
+
+        CompletableFuture<Void> ok = agendar("A001");
+        CompletableFuture<Void> falha = agendar(ASSOCIADO_COM_FALHA);
+        assertThat(ok).isNotDone();
+
+        executor.descarregarTudo();
+
+        assertThat(ok).isCompletedWithValue(null);
+        assertThat(falha).isCompletedExceptionally();
+        assertThat(falhasNotificadas).containsExactly(ASSOCIADO_COM_FALHA);
+    }
+
+    @Test
+    void deveDescartarChamadaSemNotificarQuandoTransacaoNaoConfirma() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CompletableFuture<Void> resultado = agendar(ASSOCIADO_COM_FALHA);
+            assertThat(resultado).isNotDone();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            assertThat(resultado).isCancelled();
+            assertThat(falhasNotificadas).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void deveExecutarProcedureSomenteAposCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            CompletableFuture<Void> resultado = agendar(ASSOCIADO_COM_FALHA);
+            assertThat(falhasNotificadas).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            assertThat(falhasNotificadas).containsExactly(ASSOCIADO_COM_FALHA);
+            assertThat(resultado).isCompletedExceptionally();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private CompletableFuture<Void> agendar(String cdAssociado) {
+        return executor.agendarCarteirinha(1L, "12345678000199", cdAssociado, cdAssociado,
+                erro -> falhasNotificadas.add(cdAssociado));
+    }
+
+    private static CallableStatement statementQueFalhaPara(String associadoComFalha) throws SQLException {
+        CallableStatement cs = mock(CallableStatement.class);
+        String[] associado = new String[1];
+        doAnswer(invocacao -> {
+            associado[0] = invocacao.getArgument(1);
+            return null;
+        }).when(cs).setString(eq(3), anyString());
+        when(cs.execute()).thenAnswer(invocacao -> {
+            if (associadoComFalha.equals(associado[0])) {
+                throw new SQLException("ORA-20001: falha na carteirinha");
+            }
+            return false;
+        });
+        return cs;
+    }
+}
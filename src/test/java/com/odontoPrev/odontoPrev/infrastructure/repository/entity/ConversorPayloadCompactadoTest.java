@@ -0,0 +1,86 @@
+package com.odontoPrev.odontoPrev.infrastructure.repository.entity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversorPayloadCompactadoTest {
+
+    private static final String JSON_GRANDE = "{\"beneficiarios\":["
+            + "{\"codigoMatricula\":\"000123\",\"nome\":\"BENEFICIARIO TESTE\",\"plano\":\"ODONTO BASICO\"},".repeat(40)
+            + "{}]}";
+
+    private ConversorPayloadCompactado conversor;
+
+    @BeforeEach
+    void configurar() {
+        conversor = new ConversorPayloadCompactado();
+        ReflectionTestUtils.setField(conversor, "compressaoHabilitada", true);
+        ReflectionTestUtils.setField(conversor, "tamanhoMinimoCompressao", 512);
+        ReflectionTestUtils.setField(conversor, "tamanhoMaximo", 0);
+    }
+
+    @Test
+    void deveComprimirEDescomprimirPayloadGrande() {
+        String coluna = conversor.convertToDatabaseColumn(JSON_GRANDE);
+
+        assertThat(coluna).startsWith(ConversorPayloadCompactado.PREFIXO_GZIP);
+        assertThat(coluna.length()).isLessThan(JSON_GRANDE.length());
+        assertThat(conversor.convertToEntityAttribute(coluna)).isEqualTo(JSON_GRANDE);
+    }
+
+    @Test
+    void deveManterAcentosNaIdaEVolta() {
+        String texto = JSON_GRANDE.replace("TESTE", "JOÃO AÇAÍ");
+
+        assertThat(conversor.convertToEntityAttribute(conversor.convertToDatabaseColumn(texto))).isEqualTo(texto);
+    }
+
+    @Test
+    void deveGravarTextoPuroQuandoCompressaoDesligada() {
+        ReflectionTestUtils.setField(conversor, "compressaoHabilitada", false);
+
+        assertThat(conversor.convertToDatabaseColumn(JSON_GRANDE)).isEqualTo(JSON_GRANDE);
+    }
+
+    @Test
+    void deveGravarTextoCurtoSemComprimir() {
+        assertThat(conversor.convertToDatabaseColumn("{\"status\":\"OK\"}")).isEqualTo("{\"status\":\"OK\"}");
+    }
+
+    @Test
+    void deveLerRegistrosAntigosEmTextoPuro() {
+        assertThat(conversor.convertToEntityAttribute("{\"status\":\"OK\"}")).isEqualTo("{\"status\":\"OK\"}");
+        assertThat(conversor.convertToEntityAttribute(null)).isNull();
+        assertThat(conversor.convertToDatabaseColumn(null)).isNull();
+    }
+
+    @Test
+    void deveDevolverConteudoComoEstaQuandoNaoDescomprime() {
+        String coluna = ConversorPayloadCompactado.PREFIXO_GZIP + "isto não é base64";
+
+        assertThat(conversor.convertToEntityAttribute(coluna)).isEqualTo(coluna);
+    }
+
+    @Test
+    void deveCortarTextoAcimaDoTamanhoMaximo() {
+        ReflectionTestUtils.setField(conversor, "compressaoHabilitada", false);
+        ReflectionTestUtils.setField(conversor, "tamanhoMaximo", 4);
+
+        assertThat(conversor.convertToDatabaseColumn("abcdefgh"))
+                .isEqualTo("abcd...[TRUNCADO: 8 caracteres no total]");
+        assertThat(conversor.convertToDatabaseColumn("abcd")).isEqualTo("abcd");
+    }
+
+    @Test
+    void naoDeveSepararParSurrogateNoCorte() {
+        ReflectionTestUtils.setField(conversor, "compressaoHabilitada", false);
+        ReflectionTestUtils.setField(conversor, "tamanhoMaximo", 3);
+
+        // "😀" ocupa dois chars (posições 2 e 3): o corte fica antes dele
+        assertThat(conversor.convertToDatabaseColumn("ab😀cd"))
+                .isEqualTo("ab...[TRUNCADO: 6 caracteres no total]");
+    }
+}